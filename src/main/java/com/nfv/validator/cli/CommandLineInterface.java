@@ -1,20 +1,43 @@
 package com.nfv.validator.cli;
 
+import com.nfv.validator.comparison.ComparisonOptions;
+import com.nfv.validator.comparison.ConsensusBuilder;
+import com.nfv.validator.comparison.MultiNamespaceComparator;
 import com.nfv.validator.comparison.NamespaceComparator;
+import com.nfv.validator.comparison.ResultCache;
+import com.nfv.validator.comparison.ShardedComparator;
+import com.nfv.validator.comparison.SimilarityClusterer;
+import com.nfv.validator.comparison.SpillComparator;
 import com.nfv.validator.config.ConfigLoader;
 import com.nfv.validator.config.ValidationConfig;
 import com.nfv.validator.kubernetes.K8sDataCollector;
 import com.nfv.validator.kubernetes.KubernetesClusterManager;
+import com.nfv.validator.model.comparison.FleetSimilarity;
+import com.nfv.validator.model.comparison.MultiNamespaceComparison;
 import com.nfv.validator.model.comparison.NamespaceComparison;
 import com.nfv.validator.model.comparison.ObjectComparison;
 import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.LargeValues;
+import com.nfv.validator.model.MappedModelStore;
+import com.nfv.validator.model.ModelInterner;
+import com.nfv.validator.model.NamespaceMerkleTree;
 import com.nfv.validator.report.ExcelReportGenerator;
 import com.nfv.validator.yaml.YamlDataCollector;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.cli.*;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Command Line Interface handler for KValidator
@@ -29,9 +52,36 @@ import java.util.*;
 @Slf4j
 public class CommandLineInterface {
 
+    /**
+     * Exit status when gate mode finds differences (1 is used for errors)
+     */
+    public static final int EXIT_GATE_FAILED = 3;
+    
+    /**
+     * How long --shard-external waits for the results of workers started elsewhere
+     */
+    private static final Duration SHARD_TIMEOUT = Duration.ofHours(12);
+    
     private Options options;
     private KubernetesClusterManager clusterManager;
     private ValidationConfig validationConfig;
+    private String hashTreeDir;
+    private String storeDir;
+    private int parallelism = 1;
+    private int gateLimit;
+    private String spillDir;
+    private long memoryBudget = SpillComparator.DEFAULT_MEMORY_BUDGET;
+    private boolean consensus;
+    private double similarityThreshold;
+    private boolean fuzzyPairing;
+    private ResultCache resultCache;
+    private int shards;
+    private String shardDir;
+    private boolean shardExternal;
+    private MappedModelStore modelStore;
+    
+    // Content shared between the objects collected by this invocation
+    private final ModelInterner interner = new ModelInterner();
 
     public CommandLineInterface() {
         initializeOptions();
@@ -85,6 +135,105 @@ public class CommandLineInterface {
                 .argName("yaml-path")
                 .desc("Path to baseline YAML file or directory (design/expected state)")
                 .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("hash-tree-dir")
+                .hasArg()
+                .argName("directory")
+                .desc("Write the Merkle hash tree of each namespace as JSON to this directory")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("store-dir")
+                .hasArg()
+                .argName("directory")
+                .desc("Keep collected objects off-heap in a memory-mapped store in this directory")
+                .build());
+        
+        options.addOption(Option.builder("p")
+                .longOpt("parallel")
+                .hasArg()
+                .argName("threads")
+                .desc("Run comparisons on this many threads (default: 1)")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("gate")
+                .hasArg()
+                .argName("max-differences")
+                .desc("Pass/fail mode: stop after this many objects with differences and exit with status 3")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("consensus")
+                .desc("Compare each namespace against the majority-vote consensus of all of them")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("similarity")
+                .hasArg()
+                .argName("threshold")
+                .desc("Group namespaces by MinHash similarity (e.g. 0.9) and compare only within groups and outliers")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("fuzzy-pairing")
+                .desc("Pair objects whose names differ between namespaces by name rules and field similarity")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("cache-dir")
+                .hasArg()
+                .argName("directory")
+                .desc("Reuse object results of earlier runs stored in this directory")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("cache-size")
+                .hasArg()
+                .argName("MB")
+                .desc("Size budget of the result cache with --cache-dir (default: 256)")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("cache-age")
+                .hasArg()
+                .argName("days")
+                .desc("Evict cached results unused for this many days (default: 7)")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("shards")
+                .hasArg()
+                .argName("count")
+                .desc("Split objects into this many shards, each compared by a separate worker process")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("shard-dir")
+                .hasArg()
+                .argName("directory")
+                .desc("Work directory for shard files with --shards (default: a temporary directory)")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("shard-external")
+                .desc("With --shards: print the worker commands and wait for workers started elsewhere")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("spill-dir")
+                .hasArg()
+                .argName("directory")
+                .desc("Compare through sorted run files in this directory instead of in memory")
+                .build());
+        
+        options.addOption(Option.builder()
+                .longOpt("memory-budget")
+                .hasArg()
+                .argName("MB")
+                .desc("Heap budget per run file with --spill-dir (default: 64)")
+                .build());
     }
 
     public void execute(String[] args) throws Exception {
@@ -107,6 +256,102 @@ public class CommandLineInterface {
         String configFile = cmd.getOptionValue("f");
         String excelOutput = cmd.getOptionValue("o");
         String baselinePath = cmd.getOptionValue("b");
+        this.hashTreeDir = cmd.getOptionValue("hash-tree-dir");
+        this.storeDir = cmd.getOptionValue("store-dir");
+        if (cmd.hasOption("p")) {
+            try {
+                this.parallelism = Math.max(1, Integer.parseInt(cmd.getOptionValue("p")));
+            } catch (NumberFormatException e) {
+                System.err.println("Error: Invalid thread count for --parallel: " + cmd.getOptionValue("p"));
+                System.exit(1);
+            }
+        }
+        if (cmd.hasOption("gate")) {
+            try {
+                this.gateLimit = Integer.parseInt(cmd.getOptionValue("gate"));
+            } catch (NumberFormatException e) {
+                this.gateLimit = 0;
+            }
+            if (this.gateLimit < 1) {
+                System.err.println("Error: Invalid difference count for --gate: " + cmd.getOptionValue("gate"));
+                System.exit(1);
+            }
+        }
+        
+        this.spillDir = cmd.getOptionValue("spill-dir");
+        this.consensus = cmd.hasOption("consensus");
+        this.fuzzyPairing = cmd.hasOption("fuzzy-pairing");
+        if (fuzzyPairing && spillDir != null) {
+            System.err.println("Error: --fuzzy-pairing cannot be combined with --spill-dir");
+            System.exit(1);
+        }
+        if (parallelism > 1 && spillDir != null) {
+            System.err.println("Warning: --parallel does not apply to --spill-dir comparisons, which run on one thread");
+        }
+        if (cmd.hasOption("cache-dir")) {
+            if (spillDir != null) {
+                System.err.println("Error: --cache-dir cannot be combined with --spill-dir");
+                System.exit(1);
+            }
+            long cacheBytes = ResultCache.DEFAULT_MAX_BYTES;
+            Duration cacheAge = ResultCache.DEFAULT_MAX_AGE;
+            try {
+                if (cmd.hasOption("cache-size")) {
+                    cacheBytes = Math.max(1, Long.parseLong(cmd.getOptionValue("cache-size"))) << 20;
+                }
+                if (cmd.hasOption("cache-age")) {
+                    cacheAge = Duration.ofDays(Math.max(1, Long.parseLong(cmd.getOptionValue("cache-age"))));
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Error: Invalid value for --cache-size or --cache-age");
+                System.exit(1);
+            }
+            this.resultCache = new ResultCache(new File(cmd.getOptionValue("cache-dir")).toPath(), cacheBytes, cacheAge);
+        }
+        if (cmd.hasOption("similarity")) {
+            try {
+                this.similarityThreshold = Double.parseDouble(cmd.getOptionValue("similarity"));
+            } catch (NumberFormatException e) {
+                this.similarityThreshold = 0;
+            }
+            if (this.similarityThreshold <= 0 || this.similarityThreshold > 1) {
+                System.err.println("Error: Invalid threshold for --similarity (expected 0-1): " + cmd.getOptionValue("similarity"));
+                System.exit(1);
+            }
+            if (baselinePath != null || consensus || gateLimit > 0) {
+                System.err.println("Error: --similarity cannot be combined with --baseline, --consensus or --gate");
+                System.exit(1);
+            }
+        }
+        if (cmd.hasOption("shards")) {
+            try {
+                this.shards = Integer.parseInt(cmd.getOptionValue("shards"));
+            } catch (NumberFormatException e) {
+                this.shards = 0;
+            }
+            if (this.shards < 1) {
+                System.err.println("Error: Invalid shard count for --shards: " + cmd.getOptionValue("shards"));
+                System.exit(1);
+            }
+            if (gateLimit > 0 || fuzzyPairing || spillDir != null || cmd.hasOption("cache-dir")) {
+                System.err.println("Error: --shards cannot be combined with --gate, --fuzzy-pairing, --spill-dir or --cache-dir");
+                System.exit(1);
+            }
+            this.shardDir = cmd.getOptionValue("shard-dir");
+            this.shardExternal = cmd.hasOption("shard-external");
+            if (shardExternal && shardDir == null) {
+                System.err.println("Error: --shard-external requires a shared --shard-dir");
+                System.exit(1);
+            }
+        }
+        if (cmd.hasOption("memory-budget")) {
+            try {
+                this.memoryBudget = Math.max(1, Long.parseLong(cmd.getOptionValue("memory-budget"))) << 20;
+            } catch (NumberFormatException e) {
+                System.err.println("Error: Invalid size for --memory-budget: " + cmd.getOptionValue("memory-budget"));
+                System.exit(1);
+            }
+        }
         
         // Load validation config
         ConfigLoader configLoader = new ConfigLoader();
@@ -127,6 +372,21 @@ public class CommandLineInterface {
                 System.err.println("Usage: java -jar kvalidator.jar -b <baseline-path> namespace1 [namespace2 ...]");
                 System.exit(1);
             }
+            if (consensus) {
+                System.err.println("Error: --consensus cannot be combined with --baseline");
+                System.exit(1);
+            }
+        } else if (consensus) {
+            // Consensus mode: the majority needs at least 3 namespaces to mean anything
+            if (namespaceArgs.size() < 3) {
+                System.err.println("Error: At least 3 namespaces required for consensus comparison");
+                System.err.println("Usage: java -jar kvalidator.jar --consensus namespace1 namespace2 namespace3 [...]");
+                System.exit(1);
+            }
+            if (gateLimit > 0) {
+                System.err.println("Error: --consensus cannot be combined with --gate");
+                System.exit(1);
+            }
         } else {
             // Normal mode: need at least 2 namespaces
             if (namespaceArgs.size() < 2) {
@@ -152,8 +412,8 @@ public class CommandLineInterface {
         if (baselinePath != null) {
             System.out.println("📂 Loading baseline from: " + baselinePath);
             try {
-                YamlDataCollector yamlCollector = new YamlDataCollector();
-                baselineModel = yamlCollector.collectFromYaml(baselinePath, "baseline");
+                YamlDataCollector yamlCollector = new YamlDataCollector(validationConfig, true, interner);
+                baselineModel = offHeap(yamlCollector.collectFromYaml(baselinePath, "baseline"));
                 System.out.printf("   ✓ Loaded %d objects from baseline%n", baselineModel.getObjects().size());
                 System.out.println();
             } catch (Exception e) {
@@ -173,6 +433,15 @@ public class CommandLineInterface {
         System.out.println("📊 Collecting data from namespaces...");
         System.out.println();
         
+        if (gateLimit > 0) {
+            boolean passed = runGate(targets, baselineModel, kinds, verbose);
+            releaseResources();
+            if (!passed) {
+                System.exit(EXIT_GATE_FAILED);
+            }
+            return;
+        }
+        
         List<FlatNamespaceModel> namespaceModels = new ArrayList<>();
         
         // Add baseline as first model if present
@@ -180,23 +449,32 @@ public class CommandLineInterface {
             namespaceModels.add(baselineModel);
         }
         
+        ConsensusBuilder consensusBuilder = consensus ? new ConsensusBuilder(validationConfig) : null;
         for (NamespaceTarget target : targets) {
-            System.out.printf("  ⚙️  Collecting: %s/%s%n", target.clusterName, target.namespaceName);
-            
-            KubernetesClient client = clusterManager.getClient(target.clusterName);
-            K8sDataCollector collector = new K8sDataCollector(client);
-            
-            FlatNamespaceModel model;
-            if (kinds != null && kinds.length > 0) {
-                model = collector.collectNamespaceByKinds(target.namespaceName, target.clusterName, Arrays.asList(kinds));
-            } else {
-                model = collector.collectNamespace(target.namespaceName, target.clusterName);
-            }
-            
+            FlatNamespaceModel model = collect(target, kinds);
             namespaceModels.add(model);
+            if (consensusBuilder != null) {
+                consensusBuilder.add(model);
+            }
             System.out.printf("     ✓ Collected %d objects%n", model.getObjects().size());
         }
         
+        // Consensus mode: the majority vote of all namespaces becomes the baseline
+        if (consensusBuilder != null) {
+            baselineModel = consensusBuilder.build("consensus");
+            namespaceModels.add(0, baselineModel);
+            System.out.println();
+            System.out.printf("  🗳️  Consensus of %d namespaces: %d objects%n",
+                consensusBuilder.getNamespaceCount(), baselineModel.getObjects().size());
+        }
+        
+        log.debug("Shared object content: {} canonical instances, {}% reused",
+            interner.size(), Math.round(interner.getHitRate() * 100));
+        
+        if (hashTreeDir != null) {
+            exportHashTrees(namespaceModels);
+        }
+        
         System.out.println();
         System.out.println("═══════════════════════════════════════════════════════════════════");
         System.out.println();
@@ -206,41 +484,69 @@ public class CommandLineInterface {
         System.out.println();
         
         Map<String, NamespaceComparison> comparisons = new LinkedHashMap<>();
+        // Output and reports only use differences and match counts
+        ComparisonOptions comparisonOptions = ComparisonOptions.sparseResults();
+        comparisonOptions.setFuzzyPairing(fuzzyPairing);
+        comparisonOptions.setResultCache(resultCache);
 
+        List<FlatNamespaceModel[]> pairs = new ArrayList<>();
+        List<NamespaceComparison> results;
+        MultiNamespaceComparison matrix = null;
+        int[] references = null;
         if (baselineModel != null) {
             // Baseline mode: compare all namespaces against baseline
             for (int i = 1; i < namespaceModels.size(); i++) {
-                FlatNamespaceModel ns = namespaceModels.get(i);
-                
-                NamespaceComparison comparison = NamespaceComparator.compareNamespace(
-                    baselineModel.getObjects(), ns.getObjects(), 
-                    baselineModel.getName(), ns.getName(), validationConfig
-                );
-                
-                String compKey = baselineModel.getName() + "_vs_" + ns.getName();
-                comparisons.put(compKey, comparison);
-                
-                printComparisonResult(baselineModel, ns, comparison, verbose);
+                pairs.add(new FlatNamespaceModel[] {baselineModel, namespaceModels.get(i)});
+            }
+            results = compareAll(pairs, comparisonOptions);
+        } else if (similarityThreshold > 0) {
+            // Fleet mode: group similar namespaces, then diff only within groups and against outliers
+            FleetSimilarity fleet = SimilarityClusterer.cluster(namespaceModels, validationConfig, similarityThreshold);
+            printSimilarityMap(fleet);
+            references = new int[namespaceModels.size()];
+            Arrays.fill(references, -1);
+            for (int[] pair : fleet.getComparisonPairs()) {
+                pairs.add(new FlatNamespaceModel[] {namespaceModels.get(pair[0]), namespaceModels.get(pair[1])});
+                references[pair[1]] = pair[0];
             }
+            results = compareAll(pairs, comparisonOptions);
+        } else if (spillDir != null || fuzzyPairing || resultCache != null || shards > 0) {
+            // External-memory, fuzzy-pairing, cached or sharded mode: compare every pair on its own instead of the in-memory matrix
+            for (int i = 0; i < namespaceModels.size(); i++) {
+                for (int j = i + 1; j < namespaceModels.size(); j++) {
+                    pairs.add(new FlatNamespaceModel[] {namespaceModels.get(i), namespaceModels.get(j)});
+                }
+            }
+            results = compareAll(pairs, comparisonOptions);
         } else {
-            // Normal mode: compare all namespaces pairwise
+            // Normal mode: compare all namespaces in one pass, then derive each pair from the value matrix
+            // (with --parallel, the objects are split across the threads)
+            comparisonOptions.setParallelism(parallelism);
+            matrix = MultiNamespaceComparator.compare(namespaceModels, validationConfig, comparisonOptions);
+            results = new ArrayList<>();
             for (int i = 0; i < namespaceModels.size(); i++) {
                 for (int j = i + 1; j < namespaceModels.size(); j++) {
-                    FlatNamespaceModel ns1 = namespaceModels.get(i);
-                    FlatNamespaceModel ns2 = namespaceModels.get(j);
-                    
-                    NamespaceComparison comparison = NamespaceComparator.compareNamespace(
-                        ns1.getObjects(), ns2.getObjects(), ns1.getName(), ns2.getName(), validationConfig
-                    );
-                    
-                    String compKey = ns1.getName() + "_vs_" + ns2.getName();
-                    comparisons.put(compKey, comparison);
-                
-                    printComparisonResult(ns1, ns2, comparison, verbose);
+                    pairs.add(new FlatNamespaceModel[] {namespaceModels.get(i), namespaceModels.get(j)});
+                    results.add(matrix.pairwise(i, j));
                 }
             }
         }
         
+        for (int i = 0; i < pairs.size(); i++) {
+            FlatNamespaceModel ns1 = pairs.get(i)[0];
+            FlatNamespaceModel ns2 = pairs.get(i)[1];
+            NamespaceComparison comparison = results.get(i);
+            
+            String compKey = ns1.getName() + "_vs_" + ns2.getName();
+            comparisons.put(compKey, comparison);
+            
+            printComparisonResult(ns1, ns2, comparison, verbose);
+        }
+        if (resultCache != null) {
+            System.out.printf("♻️  Result cache: %d objects reused, %d compared%n",
+                    resultCache.getHitCount(), resultCache.getMissCount());
+        }
+        
         // Export to Excel if requested
         if (excelOutput != null && !excelOutput.isEmpty()) {
             System.out.println();
@@ -250,7 +556,8 @@ public class CommandLineInterface {
             
             try {
                 ExcelReportGenerator excelGenerator = new ExcelReportGenerator();
-                excelGenerator.generateReport(namespaceModels, comparisons, excelOutput, this.validationConfig);
+                excelGenerator.generateReport(namespaceModels, comparisons, matrix, references, excelOutput,
+                        this.validationConfig);
                 System.out.println("✅ Excel report generated: " + excelOutput);
             } catch (Exception e) {
                 log.error("Failed to generate Excel report", e);
@@ -258,8 +565,243 @@ public class CommandLineInterface {
             }
         }
 
+        releaseResources();
+    }
+    
+    /**
+     * Collect one namespace (moved off-heap with --store-dir)
+     */
+    private FlatNamespaceModel collect(NamespaceTarget target, String[] kinds) throws Exception {
+        System.out.printf("  ⚙️  Collecting: %s/%s%n", target.clusterName, target.namespaceName);
+        
+        KubernetesClient client = clusterManager.getClient(target.clusterName);
+        K8sDataCollector collector = new K8sDataCollector(client, validationConfig, true, interner);
+        
+        FlatNamespaceModel model;
+        if (kinds != null && kinds.length > 0) {
+            model = collector.collectNamespaceByKinds(target.namespaceName, target.clusterName, Arrays.asList(kinds));
+        } else {
+            model = collector.collectNamespace(target.namespaceName, target.clusterName);
+        }
+        return offHeap(model);
+    }
+    
+    /**
+     * Gate mode: collect all namespaces concurrently and compare each against the reference (the
+     * baseline, or the first namespace collected) as soon as it arrives. Once gateLimit objects with
+     * differences were found, comparing stops and collections still in flight are cancelled.
+     * Comparing against one reference suffices for the verdict: namespaces that each match the
+     * reference also match each other.
+     *
+     * @return true if no differences were found
+     */
+    private boolean runGate(List<NamespaceTarget> targets, FlatNamespaceModel baselineModel,
+                            String[] kinds, boolean verbose) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(targets.size());
+        CompletionService<FlatNamespaceModel> collections = new ExecutorCompletionService<>(executor);
+        List<Future<FlatNamespaceModel>> futures = new ArrayList<>(targets.size());
+        for (NamespaceTarget target : targets) {
+            futures.add(collections.submit(() -> collect(target, kinds)));
+        }
+        
+        FlatNamespaceModel reference = baselineModel;
+        int differing = 0;
+        boolean truncated = false;
+        try {
+            for (int done = 0; done < targets.size() && differing < gateLimit; done++) {
+                FlatNamespaceModel model;
+                try {
+                    model = collections.take().get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+                System.out.printf("     ✓ Collected %s/%s: %d objects%n",
+                    model.getClusterName(), model.getName(), model.getObjects().size());
+                if (reference == null) {
+                    reference = model;
+                    continue;
+                }
+                
+                ComparisonOptions gateOptions = ComparisonOptions.sparseResults();
+                gateOptions.setParallelism(parallelism);
+                gateOptions.setDifferenceLimit(gateLimit - differing);
+                gateOptions.setFuzzyPairing(fuzzyPairing);
+                gateOptions.setResultCache(resultCache);
+                NamespaceComparison comparison = NamespaceComparator.compareNamespace(
+                        reference, model, validationConfig, gateOptions);
+                differing += comparison.getSummary().getDifferencesCount();
+                truncated |= comparison.isTruncated();
+                System.out.println();
+                printComparisonResult(reference, model, comparison, verbose || differing > 0);
+            }
+        } finally {
+            for (Future<FlatNamespaceModel> future : futures) {
+                future.cancel(true);
+            }
+            executor.shutdownNow();
+        }
+        
+        int cancelled = 0;
+        for (Future<FlatNamespaceModel> future : futures) {
+            cancelled += future.isCancelled() ? 1 : 0;
+        }
+        if (differing == 0) {
+            System.out.println("🚦 Gate PASSED: no differences");
+            return true;
+        }
+        System.out.printf("🚦 Gate FAILED: %d object(s) with differences%s%n", differing,
+            truncated || cancelled > 0 ? " (stopped early, " + cancelled + " collection(s) cancelled)" : "");
+        return false;
+    }
+    
+    private void releaseResources() throws Exception {
+        if (modelStore != null) {
+            modelStore.close();
+            modelStore = null;
+        }
         clusterManager.closeAll();
     }
+    
+    /**
+     * Compare namespace pairs, returning results in the order of the pairs
+     * With --parallel, several pairs are compared concurrently (one thread per pair);
+     * a single pair is instead split by objects across the threads.
+     */
+    private List<NamespaceComparison> comparePairs(List<FlatNamespaceModel[]> pairs,
+                                                   ComparisonOptions comparisonOptions) throws Exception {
+        List<NamespaceComparison> results = new ArrayList<>(pairs.size());
+        if (parallelism <= 1 || pairs.size() == 1) {
+            comparisonOptions.setParallelism(parallelism);
+            for (FlatNamespaceModel[] pair : pairs) {
+                results.add(NamespaceComparator.compareNamespace(pair[0], pair[1], validationConfig, comparisonOptions));
+            }
+            return results;
+        }
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, pairs.size()));
+        try {
+            List<Future<NamespaceComparison>> futures = new ArrayList<>(pairs.size());
+            for (FlatNamespaceModel[] pair : pairs) {
+                futures.add(executor.submit(() -> NamespaceComparator.compareNamespace(
+                        pair[0], pair[1], validationConfig, comparisonOptions)));
+            }
+            for (Future<NamespaceComparison> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+    
+    /**
+     * Compare namespace pairs with the selected engine: sharded, spilled or in memory
+     */
+    private List<NamespaceComparison> compareAll(List<FlatNamespaceModel[]> pairs,
+                                                 ComparisonOptions comparisonOptions) throws Exception {
+        if (shards > 0) {
+            return compareSharded(pairs, comparisonOptions);
+        }
+        return spillDir != null ? compareSpilled(pairs, comparisonOptions) : comparePairs(pairs, comparisonOptions);
+    }
+    
+    /**
+     * Compare namespace pairs across worker processes (--shards), each holding one shard of the objects
+     */
+    private List<NamespaceComparison> compareSharded(List<FlatNamespaceModel[]> pairs,
+                                                     ComparisonOptions comparisonOptions) throws Exception {
+        Path workDir = shardDir != null ? new File(shardDir).toPath() : Files.createTempDirectory("kvalidator-shards");
+        ShardedComparator sharded = new ShardedComparator(workDir, shards);
+        comparisonOptions.setParallelism(parallelism);
+        try {
+            sharded.prepare(pairs, validationConfig, comparisonOptions);
+            if (shardExternal) {
+                System.out.println("⏳ Waiting for " + shards + " shard workers; start them with:");
+                for (int shard = 0; shard < shards; shard++) {
+                    System.out.println("   " + String.join(" ", sharded.workerCommand(shard)));
+                }
+                sharded.awaitResults(SHARD_TIMEOUT);
+            } else {
+                System.out.printf("⚙️  Comparing %d shards on worker processes...%n", shards);
+                sharded.runLocalWorkers();
+            }
+            return sharded.merge();
+        } finally {
+            sharded.cleanup();
+            if (shardDir == null) {
+                Files.deleteIfExists(workDir);
+            }
+        }
+    }
+    
+    /**
+     * Compare namespace pairs through sorted run files (--spill-dir); each namespace is spilled once
+     */
+    private List<NamespaceComparison> compareSpilled(List<FlatNamespaceModel[]> pairs,
+                                                     ComparisonOptions comparisonOptions) throws Exception {
+        SpillComparator spillComparator = new SpillComparator(new File(spillDir).toPath(), memoryBudget);
+        Map<FlatNamespaceModel, SpillComparator.SpilledNamespace> spilled = new IdentityHashMap<>();
+        List<NamespaceComparison> results = new ArrayList<>(pairs.size());
+        try {
+            for (FlatNamespaceModel[] pair : pairs) {
+                for (FlatNamespaceModel model : pair) {
+                    if (!spilled.containsKey(model)) {
+                        spilled.put(model, spillComparator.spill(model, validationConfig));
+                    }
+                }
+                results.add(spillComparator.compare(spilled.get(pair[0]), spilled.get(pair[1]), comparisonOptions));
+            }
+        } finally {
+            spilled.values().forEach(SpillComparator.SpilledNamespace::close);
+        }
+        return results;
+    }
+    
+    /**
+     * Move a collected model into the off-heap store when --store-dir is set
+     *
+     * @return read-only mapped view of the model, or the model itself
+     */
+    private synchronized FlatNamespaceModel offHeap(FlatNamespaceModel model) throws Exception {
+        if (storeDir == null) {
+            return model;
+        }
+        if (modelStore == null) {
+            modelStore = MappedModelStore.createTemporary(new File(storeDir).toPath());
+        }
+        FlatNamespaceModel view = modelStore.store(model);
+        // The store shares identical objects itself; don't keep canonical copies on the heap
+        interner.clear();
+        return view;
+    }
+
+    /**
+     * Write the Merkle hash tree of each namespace so other sites can check agreement without the full model
+     */
+    private void exportHashTrees(List<FlatNamespaceModel> namespaceModels) {
+        File dir = new File(hashTreeDir);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            System.err.println("❌ Cannot create hash tree directory: " + hashTreeDir);
+            return;
+        }
+        
+        for (FlatNamespaceModel model : namespaceModels) {
+            File file = new File(dir, model.getClusterName() + "_" + model.getName() + ".merkle.json");
+            try {
+                NamespaceMerkleTree tree = model.getMerkleTree(validationConfig);
+                tree.writeTo(file);
+                System.out.printf("  🌳 Hash tree %s/%s: %s -> %s%n",
+                    model.getClusterName(), model.getName(), tree.getRoot(), file.getPath());
+            } catch (Exception e) {
+                log.error("Failed to write hash tree for {}", model.getName(), e);
+                System.err.println("❌ Failed to write hash tree: " + e.getMessage());
+            }
+        }
+    }
 
     private NamespaceTarget parseNamespaceArg(String arg, String defaultCluster) {
         if (arg.contains("/")) {
@@ -270,6 +812,32 @@ public class CommandLineInterface {
         }
     }
 
+    private void printSimilarityMap(FleetSimilarity fleet) {
+        List<FleetSimilarity.Group> clusters = fleet.getClusters();
+        List<Integer> outliers = fleet.getOutliers();
+        System.out.printf("🧭 Similarity map (threshold %.2f): %d cluster(s), %d outlier(s)%n",
+            fleet.getThreshold(), clusters.size(), outliers.size());
+        
+        int number = 1;
+        for (FleetSimilarity.Group cluster : clusters) {
+            int representative = cluster.getRepresentative();
+            System.out.printf("   Cluster %d: %d namespaces, representative %s%n",
+                number++, cluster.getMembers().size(), fleet.getNamespaces().get(representative));
+            for (int member : cluster.getMembers()) {
+                if (member != representative) {
+                    System.out.printf("     • %s (%.2f)%n",
+                        fleet.getNamespaces().get(member), fleet.similarity(representative, member));
+                }
+            }
+        }
+        for (int outlier : outliers) {
+            int nearest = fleet.nearestRepresentative(outlier);
+            System.out.printf("   Outlier: %s%s%n", fleet.getNamespaces().get(outlier), nearest < 0 ? ""
+                : String.format(" (nearest: %s, %.2f)", fleet.getNamespaces().get(nearest), fleet.similarity(nearest, outlier)));
+        }
+        System.out.println();
+    }
+    
     private void printComparisonResult(FlatNamespaceModel ns1, FlatNamespaceModel ns2, 
                                       NamespaceComparison comparison, boolean verbose) {
         String label1 = ns1.getClusterName() + "/" + ns1.getName();
@@ -307,14 +875,15 @@ public class CommandLineInterface {
                     
                     for (ObjectComparison obj : withDiffs) {
                         System.out.printf("│       • %s: %d differences%n", 
-                            obj.getObjectId(), obj.getDifferenceCount());
+                            obj.getPairedObjectId() != null ? obj.getObjectId() + " ↔ " + obj.getPairedObjectId()
+                                : obj.getObjectId(), obj.getDifferenceCount());
                         
                         if (verbose) {
                             obj.getDifferences().forEach(diff -> {
                                 System.out.printf("│           - %s: [%s] ≠ [%s]%n",
                                     diff.getKey(),
-                                    diff.getLeftValue() != null ? diff.getLeftValue() : "null",
-                                    diff.getRightValue() != null ? diff.getRightValue() : "null");
+                                    diff.getLeftValue() != null ? LargeValues.display(diff.getLeftValue()) : "null",
+                                    diff.getRightValue() != null ? LargeValues.display(diff.getRightValue()) : "null");
                             });
                         }
                     }
@@ -348,6 +917,35 @@ public class CommandLineInterface {
         System.out.println("                          (default: ./validation-config.yaml)");
         System.out.println("  -o, --output FILE       Export comparison results to Excel file");
         System.out.println("                          (e.g., report.xlsx)");
+        System.out.println("  --hash-tree-dir DIR     Write each namespace's Merkle hash tree (JSON) to DIR");
+        System.out.println("                          for cheap cross-site agreement checks");
+        System.out.println("  --store-dir DIR         Keep collected objects off-heap in a memory-mapped");
+        System.out.println("                          store in DIR (for fleet-wide comparisons)");
+        System.out.println("  -p, --parallel N        Run comparisons on N threads (default: 1)");
+        System.out.println("  --consensus             Use the majority vote of all namespaces as baseline");
+        System.out.println("                          and report each one where it deviates (3+ namespaces)");
+        System.out.println("  --similarity T          Fleet mode: group namespaces whose estimated similarity");
+        System.out.println("                          is at least T (0-1) and compare only within groups");
+        System.out.println("                          and against outliers, instead of every pair");
+        System.out.println("  --fuzzy-pairing         Pair objects whose names differ between namespaces");
+        System.out.println("                          (e.g. upf-cfg-site1/upf-cfg-site2) by the name rules");
+        System.out.println("                          of the config and by field similarity, and diff them");
+        System.out.println("  --cache-dir DIR         Keep object results in DIR and reuse them in later");
+        System.out.println("                          runs while both objects and the config are unchanged");
+        System.out.println("  --cache-size MB         Size budget of the result cache (default: 256)");
+        System.out.println("  --cache-age DAYS        Evict cached results unused for DAYS (default: 7)");
+        System.out.println("  --shards K              Split objects by key hash into K shards compared by");
+        System.out.println("                          K worker processes, then merge the results");
+        System.out.println("  --shard-dir DIR         Work directory for --shards (shared between machines");
+        System.out.println("                          with --shard-external)");
+        System.out.println("  --shard-external        Print the worker commands and wait for workers started");
+        System.out.println("                          on other machines instead of starting them locally");
+        System.out.println("  --spill-dir DIR         Compare through sorted run files in DIR, keeping heap");
+        System.out.println("                          use bounded (for models larger than the heap)");
+        System.out.println("  --memory-budget MB      Heap budget per run file with --spill-dir (default: 64)");
+        System.out.println("  --gate N                Pass/fail mode for CI: stop after N objects with");
+        System.out.println("                          differences, cancel pending collections, skip the");
+        System.out.println("                          report and exit with status 3 on failure");
         System.out.println();
         System.out.println("EXAMPLES:");
         System.out.println("  # Compare two namespaces in current cluster");
@@ -368,6 +966,12 @@ public class CommandLineInterface {
         System.out.println("  # Compare specific resource kinds only");
         System.out.println("  java -jar kvalidator.jar -k Deployment,Service app-dev app-prod");
         System.out.println();
+        System.out.println("  # Find the sites that deviate from the majority");
+        System.out.println("  java -jar kvalidator.jar --consensus site1/app site2/app site3/app site4/app");
+        System.out.println();
+        System.out.println("  # CI gate: fail fast on the first 5 differing objects");
+        System.out.println("  java -jar kvalidator.jar --gate 5 -b design/ app-prod");
+        System.out.println();
         System.out.println("  # Verbose output with detailed differences");
         System.out.println("  java -jar kvalidator.jar -v app-dev app-staging app-prod");
         System.out.println();
@@ -0,0 +1,76 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import lombok.Data;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Objects added, changed or removed in a namespace since a previous comparison
+ * Used by NamespaceComparator.recompare to update only the affected object results.
+ */
+@Data
+public class ChangeSet {
+    /**
+     * Keys of objects that did not exist before
+     */
+    private Set<String> added = new TreeSet<>();
+    
+    /**
+     * Keys of objects whose content changed
+     */
+    private Set<String> changed = new TreeSet<>();
+    
+    /**
+     * Keys of objects that no longer exist
+     */
+    private Set<String> removed = new TreeSet<>();
+    
+    /**
+     * Compute the changes between two snapshots of a namespace from their Merkle trees
+     * Only kinds whose hashes differ are descended into.
+     *
+     * @param config validation config used for filtering (changes to ignored fields are not reported)
+     */
+    public static ChangeSet between(FlatNamespaceModel before, FlatNamespaceModel after, ValidationConfig config) {
+        ChangeSet changes = new ChangeSet();
+        for (String key : before.getMerkleTree(config).diffObjects(after.getMerkleTree(config))) {
+            boolean existedBefore = before.getObject(key) != null;
+            boolean existsAfter = after.getObject(key) != null;
+            if (!existedBefore) {
+                changes.added.add(key);
+            } else if (!existsAfter) {
+                changes.removed.add(key);
+            } else {
+                changes.changed.add(key);
+            }
+        }
+        return changes;
+    }
+    
+    /**
+     * Merge the changes of another change set into this one
+     */
+    public ChangeSet addAll(ChangeSet other) {
+        added.addAll(other.getAdded());
+        changed.addAll(other.getChanged());
+        removed.addAll(other.getRemoved());
+        return this;
+    }
+    
+    /**
+     * Get keys of all objects whose comparison result must be recomputed, sorted
+     */
+    public Set<String> getAffectedObjects() {
+        Set<String> affected = new TreeSet<>(added);
+        affected.addAll(changed);
+        affected.addAll(removed);
+        return affected;
+    }
+    
+    public boolean isEmpty() {
+        return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,36 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.model.comparison.KeyComparison;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import com.nfv.validator.model.comparison.ObjectComparison;
+
+/**
+ * Receives the results of a streamed namespace comparison as they are produced
+ * Events arrive on the comparing thread, in the same order a materialized NamespaceComparison
+ * would hold them. Results are not retained by the comparator once the listener returns.
+ *
+ * @see NamespaceComparator#stream
+ */
+@FunctionalInterface
+public interface ComparisonListener {
+    
+    /**
+     * Called for each differing field of an object, before onObject for that object
+     */
+    default void onDifference(ObjectComparison object, KeyComparison difference) {
+    }
+    
+    /**
+     * Called once per object with its complete result
+     */
+    void onObject(ObjectComparison result);
+    
+    /**
+     * Called after the last object
+     *
+     * @param summary summary of all emitted objects
+     * @param truncated true if comparing stopped at the difference limit
+     */
+    default void onComplete(NamespaceComparison.ComparisonSummary summary, boolean truncated) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.nfv.validator.comparison;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Options controlling how namespace comparisons are run and what their results retain
+ */
+@Data
+public class ComparisonOptions {
+    
+    /**
+     * Store only non-matching field items; matching fields are kept as counts per object
+     * Result memory then scales with the number of differences instead of the number of fields.
+     * Summaries, match counts and reports are unaffected; getMatches() returns no items.
+     */
+    private boolean sparse;
+    
+    /**
+     * Number of threads comparing the objects of one namespace pair (1 = sequential)
+     * Results are identical to the sequential mode, including their order.
+     */
+    private int parallelism = 1;
+    
+    /**
+     * Stop comparing once this many objects with differences were found (0 = no limit)
+     * The result then holds only the objects compared so far and is marked truncated.
+     */
+    private int differenceLimit;
+    
+    /**
+     * Pair objects found on only one side by their name rules and field similarity (see ObjectPairer)
+     * A paired object is compared like any other and reported under its left object ID. Not applied
+     * by recompare, which re-pairs nothing and compares changed objects by exact ID.
+     */
+    private boolean fuzzyPairing;
+    
+    /**
+     * Minimum estimated field similarity (0..1) for pairing objects with fuzzy pairing
+     */
+    private double pairingThreshold = ObjectPairer.DEFAULT_THRESHOLD;
+    
+    /**
+     * On-disk cache of object results shared across runs (null = none)
+     * Object pairs whose content and config are unchanged since a cached run are not compared again.
+     * Used by NamespaceComparator; the matrix and spill comparators do not consult it.
+     */
+    private ResultCache resultCache;
+    
+    /**
+     * Fork/join pool of the parallel mode, created on first use and reused by every comparison
+     * run with these options; its worker threads are daemons and exit when idle
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient ForkJoinPool pool;
+    
+    /**
+     * Get the pool running parallel comparisons with these options (recreated if parallelism changed)
+     */
+    public synchronized ForkJoinPool getPool() {
+        if (pool == null || pool.getParallelism() != parallelism) {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+    
+    /**
+     * Options for difference-only results
+     */
+    public static ComparisonOptions sparseResults() {
+        ComparisonOptions options = new ComparisonOptions();
+        options.setSparse(true);
+        return options;
+    }
+}
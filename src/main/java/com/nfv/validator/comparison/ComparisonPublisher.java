@@ -0,0 +1,80 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.comparison.ObjectComparison;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Flow.Publisher of the object results of one namespace comparison
+ * The comparison runs on its own thread once the subscriber subscribes and blocks whenever the
+ * subscriber's buffer is full, so results are produced only as fast as they are consumed.
+ * It stops when the subscriber cancels. Only one subscriber is supported.
+ */
+@Slf4j
+public class ComparisonPublisher implements Flow.Publisher<ObjectComparison> {
+    
+    private final FlatNamespaceModel left;
+    private final FlatNamespaceModel right;
+    private final ValidationConfig config;
+    private final ComparisonOptions options;
+    private final int bufferSize;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    
+    /**
+     * @param bufferSize maximum number of results produced ahead of the subscriber's demand
+     */
+    public ComparisonPublisher(FlatNamespaceModel left, FlatNamespaceModel right, ValidationConfig config,
+                               ComparisonOptions options, int bufferSize) {
+        this.left = left;
+        this.right = right;
+        this.config = config;
+        this.options = options;
+        this.bufferSize = bufferSize;
+    }
+    
+    @Override
+    public void subscribe(Flow.Subscriber<? super ObjectComparison> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+                
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Comparison results can only be subscribed to once"));
+            return;
+        }
+        
+        SubmissionPublisher<ObjectComparison> publisher = new SubmissionPublisher<>(ForkJoinPool.commonPool(), bufferSize);
+        publisher.subscribe(subscriber);
+        
+        Thread producer = new Thread(() -> {
+            try {
+                NamespaceComparator.stream(left, right, config, options, result -> {
+                    if (!publisher.hasSubscribers()) {
+                        throw new CancellationException();
+                    }
+                    publisher.submit(result);
+                });
+                publisher.close();
+            } catch (CancellationException e) {
+                log.debug("Comparison of {} and {} cancelled by subscriber", left.getName(), right.getName());
+                publisher.close();
+            } catch (RuntimeException e) {
+                publisher.closeExceptionally(e);
+            }
+        }, "comparison-" + left.getName() + "-" + right.getName());
+        producer.setDaemon(true);
+        producer.start();
+    }
+}
@@ -0,0 +1,181 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Infers a "consensus" baseline from many namespaces that should be identical, by majority vote
+ * Namespaces are added one at a time (each is scanned once and can be released afterwards). An
+ * object is part of the consensus if more than half of the namespaces have it, and a field if more
+ * than half of the namespaces with the object have it; its value is the most frequent one.
+ * Values are counted with Misra-Gries counters of CANDIDATES slots per field, so memory depends on
+ * the number of distinct fields, not on the number of namespaces. The vote is exact whenever a field
+ * has at most CANDIDATES distinct values, and otherwise still finds any value held by more than
+ * 1/(CANDIDATES+1) of the namespaces. Values are counted by their canonical form; the consensus
+ * keeps the spelling of the first namespace that voted for the winning value.
+ */
+@Slf4j
+public class ConsensusBuilder {
+    
+    /**
+     * Value counters kept per field
+     */
+    public static final int CANDIDATES = 4;
+    
+    private final ValidationConfig config;
+    private final Map<String, ObjectVotes> objects = new TreeMap<>();
+    private int namespaceCount;
+    
+    public ConsensusBuilder(ValidationConfig config) {
+        this.config = config;
+    }
+    
+    /**
+     * Build the consensus of a list of namespaces
+     */
+    public static FlatNamespaceModel build(List<FlatNamespaceModel> namespaces, ValidationConfig config) {
+        ConsensusBuilder builder = new ConsensusBuilder(config);
+        for (FlatNamespaceModel namespace : namespaces) {
+            builder.add(namespace);
+        }
+        return builder.build("consensus");
+    }
+    
+    /**
+     * Count the objects and filtered field values of one namespace
+     */
+    public void add(FlatNamespaceModel namespace) {
+        namespaceCount++;
+        for (Map.Entry<String, FlatObjectModel> entry : namespace.getObjects().entrySet()) {
+            FlatObjectModel object = entry.getValue();
+            ObjectVotes votes = objects.computeIfAbsent(entry.getKey(), k -> new ObjectVotes(object));
+            votes.presence++;
+            Map<String, String> canonicals = object.getCanonicalFieldsFiltered(config);
+            for (Map.Entry<String, String> field : object.getAllFieldsFiltered(config).entrySet()) {
+                votes.fields.computeIfAbsent(field.getKey(), k -> new FieldVotes())
+                        .vote(field.getValue(), canonicals.get(field.getKey()));
+            }
+        }
+    }
+    
+    public int getNamespaceCount() {
+        return namespaceCount;
+    }
+    
+    /**
+     * Build the consensus model from the namespaces added so far
+     *
+     * @param name name of the consensus namespace
+     */
+    public FlatNamespaceModel build(String name) {
+        FlatNamespaceModel consensus = new FlatNamespaceModel();
+        consensus.setName(name);
+        consensus.setClusterName(name);
+        int dropped = 0;
+        for (Map.Entry<String, ObjectVotes> entry : objects.entrySet()) {
+            ObjectVotes votes = entry.getValue();
+            if (votes.presence * 2 <= namespaceCount) {
+                dropped++;
+                continue;
+            }
+            FlatObjectModel object = new FlatObjectModel();
+            object.setKind(votes.kind);
+            object.setApiVersion(votes.apiVersion);
+            object.setName(votes.name);
+            object.setNamespace(votes.namespace);
+            for (Map.Entry<String, FieldVotes> field : votes.fields.entrySet()) {
+                FieldVotes fieldVotes = field.getValue();
+                if (fieldVotes.presence * 2 <= votes.presence) {
+                    continue;
+                }
+                String path = field.getKey();
+                String value = fieldVotes.winner();
+                if (value == null) {
+                    // Too many distinct values for any of them to stand out
+                    continue;
+                }
+                if (path.startsWith("metadata.")) {
+                    object.addMetadata(path.substring("metadata.".length()), value);
+                } else if (path.startsWith("spec.")) {
+                    object.addSpec(path.substring("spec.".length()), value);
+                }
+            }
+            consensus.addObject(entry.getKey(), object);
+        }
+        log.debug("Consensus of {} namespaces: {} objects ({} minority objects left out)",
+                namespaceCount, consensus.getObjects().size(), dropped);
+        return consensus;
+    }
+    
+    private static final class ObjectVotes {
+        final String kind;
+        final String apiVersion;
+        final String name;
+        final String namespace;
+        final Map<String, FieldVotes> fields = new TreeMap<>();
+        int presence;
+        
+        ObjectVotes(FlatObjectModel first) {
+            kind = first.getKind();
+            apiVersion = first.getApiVersion();
+            name = first.getName();
+            namespace = first.getNamespace();
+        }
+    }
+    
+    /**
+     * Misra-Gries counters for the values of one field
+     */
+    private static final class FieldVotes {
+        final String[] canonicals = new String[CANDIDATES];
+        final String[] values = new String[CANDIDATES];
+        final int[] counts = new int[CANDIDATES];
+        int presence;
+        
+        void vote(String value, String canonical) {
+            presence++;
+            int free = -1;
+            for (int i = 0; i < CANDIDATES; i++) {
+                if (counts[i] > 0 && Objects.equals(canonical, canonicals[i])) {
+                    counts[i]++;
+                    return;
+                }
+                if (counts[i] == 0 && free < 0) {
+                    free = i;
+                }
+            }
+            if (free >= 0) {
+                canonicals[free] = canonical;
+                values[free] = value;
+                counts[free] = 1;
+                return;
+            }
+            for (int i = 0; i < CANDIDATES; i++) {
+                if (--counts[i] == 0) {
+                    canonicals[i] = null;
+                    values[i] = null;
+                }
+            }
+        }
+        
+        /**
+         * Candidate with the highest count, or null if every counter was cancelled out
+         */
+        String winner() {
+            int best = -1;
+            for (int i = 0; i < CANDIDATES; i++) {
+                if (counts[i] > 0 && (best < 0 || counts[i] > counts[best])) {
+                    best = i;
+                }
+            }
+            return best >= 0 ? values[best] : null;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.NamespaceMerkleTree;
+import com.nfv.validator.model.comparison.MultiNamespaceComparison;
+import com.nfv.validator.util.Fingerprint;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compares N namespaces in a single pass
+ * Every object and field is visited once per namespace, instead of once per namespace pair:
+ * kinds and objects with the same hash in every namespace are recorded without looking at
+ * their fields, and the remaining objects are merged field by field across all namespaces.
+ * Objects are independent, so their rows can be built in parallel.
+ */
+@Slf4j
+public class MultiNamespaceComparator {
+    
+    /**
+     * Compare namespaces into a value matrix
+     *
+     * @param namespaces namespaces in column order
+     * @param config validation config used for filtering (null = all fields)
+     */
+    public static MultiNamespaceComparison compare(List<FlatNamespaceModel> namespaces, ValidationConfig config) {
+        return compare(namespaces, config, new ComparisonOptions());
+    }
+    
+    /**
+     * Compare namespaces into a value matrix, with comparison options
+     * With parallelism, the rows of objects are built on the options' fork/join pool in batches;
+     * rows are added in the same order as in the sequential mode.
+     *
+     * @param namespaces namespaces in column order
+     * @param config validation config used for filtering (null = all fields)
+     * @param options only parallelism applies
+     */
+    public static MultiNamespaceComparison compare(List<FlatNamespaceModel> namespaces, ValidationConfig config,
+                                                   ComparisonOptions options) {
+        int n = namespaces.size();
+        MultiNamespaceComparison comparison = new MultiNamespaceComparison();
+        NamespaceMerkleTree[] trees = new NamespaceMerkleTree[n];
+        Set<String> allKinds = new TreeSet<>();
+        for (int i = 0; i < n; i++) {
+            comparison.getNamespaces().add(namespaces.get(i).getName());
+            trees[i] = namespaces.get(i).getMerkleTree(config);
+            allKinds.addAll(trees[i].getKinds().keySet());
+        }
+        
+        List<PendingRow> pending = new ArrayList<>();
+        for (String kind : allKinds) {
+            NamespaceMerkleTree.KindNode[] kindNodes = new NamespaceMerkleTree.KindNode[n];
+            Set<String> objectIds = new TreeSet<>();
+            boolean sameKind = true;
+            for (int i = 0; i < n; i++) {
+                kindNodes[i] = trees[i].getKinds().get(kind);
+                if (kindNodes[i] == null) {
+                    sameKind = false;
+                    continue;
+                }
+                objectIds.addAll(kindNodes[i].getObjects().keySet());
+                sameKind = sameKind && kindNodes[i].getHash().equals(kindNodes[0].getHash());
+            }
+            
+            for (String objectId : objectIds) {
+                NamespaceMerkleTree.ObjectNode[] objectNodes = new NamespaceMerkleTree.ObjectNode[n];
+                for (int i = 0; i < n; i++) {
+                    objectNodes[i] = kindNodes[i] != null ? kindNodes[i].getObjects().get(objectId) : null;
+                }
+                pending.add(new PendingRow(objectId, kind, objectNodes, sameKind));
+            }
+        }
+        
+        MultiNamespaceComparison.ObjectRow[] rows = new MultiNamespaceComparison.ObjectRow[pending.size()];
+        if (options.getParallelism() > 1 && pending.size() > NamespaceComparator.PARALLEL_BATCH_SIZE) {
+            options.getPool().invoke(new RowTask(pending, rows, 0, rows.length, namespaces, config));
+        } else {
+            buildRows(pending, rows, 0, rows.length, namespaces, config);
+        }
+        for (MultiNamespaceComparison.ObjectRow row : rows) {
+            comparison.addObject(row);
+        }
+        
+        log.debug("Compared {} namespaces: {} objects, {} with differences",
+            n, comparison.getObjects().size(), comparison.getObjectsWithDifferences().size());
+        return comparison;
+    }
+    
+    private static void buildRows(List<PendingRow> pending, MultiNamespaceComparison.ObjectRow[] rows, int from,
+                                  int to, List<FlatNamespaceModel> namespaces, ValidationConfig config) {
+        for (int i = from; i < to; i++) {
+            PendingRow row = pending.get(i);
+            rows[i] = compareObject(row.objectId, row.kind, row.nodes, row.sameKind, namespaces, config);
+        }
+    }
+    
+    /**
+     * Build the row of one object, merging fields only if its content differs somewhere
+     */
+    private static MultiNamespaceComparison.ObjectRow compareObject(String objectId, String kind,
+                                                                      NamespaceMerkleTree.ObjectNode[] nodes,
+                                                                      boolean sameKind,
+                                                                      List<FlatNamespaceModel> namespaces,
+                                                                      ValidationConfig config) {
+        int n = nodes.length;
+        MultiNamespaceComparison.ObjectRow row = new MultiNamespaceComparison.ObjectRow();
+        row.setObjectId(objectId);
+        row.setObjectType(kind);
+        
+        // Group namespaces by object hash
+        int[] contentGroups = new int[n];
+        int[] fieldCounts = new int[n];
+        List<Fingerprint> distinct = new ArrayList<>(2);
+        boolean missing = false;
+        for (int i = 0; i < n; i++) {
+            if (nodes[i] == null) {
+                contentGroups[i] = -1;
+                missing = true;
+                continue;
+            }
+            int group = sameKind ? 0 : distinct.indexOf(nodes[i].getHash());
+            if (group < 0) {
+                group = distinct.size();
+                distinct.add(nodes[i].getHash());
+            }
+            contentGroups[i] = group;
+            fieldCounts[i] = nodes[i].getFieldCount();
+        }
+        row.setContentGroups(contentGroups);
+        row.setFieldCounts(fieldCounts);
+        
+        if (!missing && (sameKind || distinct.size() == 1)) {
+            row.setUniformFieldCount(fieldCounts[0]);
+            return row;
+        }
+        
+        // N-way merge over the sorted fields of every namespace that has the object
+        FlatObjectModel.SortedFields[] fields = new FlatObjectModel.SortedFields[n];
+        int[] positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (nodes[i] != null) {
+                fields[i] = namespaces.get(i).getObjectsByKind(kind).get(objectId).getSortedFields(config);
+            }
+        }
+        
+        String[] values = new String[n];
+        String[] canonicals = new String[n];
+        int uniform = 0;
+        while (true) {
+            String key = null;
+            for (int i = 0; i < n; i++) {
+                if (fields[i] != null && positions[i] < fields[i].size()) {
+                    String candidate = fields[i].keyAt(positions[i]);
+                    if (key == null || candidate.compareTo(key) < 0) {
+                        key = candidate;
+                    }
+                }
+            }
+            if (key == null) {
+                break;
+            }
+            
+            boolean same = true;
+            for (int i = 0; i < n; i++) {
+                if (fields[i] != null && positions[i] < fields[i].size() && fields[i].keyAt(positions[i]).equals(key)) {
+                    values[i] = fields[i].valueAt(positions[i]);
+                    canonicals[i] = fields[i].canonicalAt(positions[i]++);
+                } else {
+                    values[i] = null;
+                    canonicals[i] = null;
+                }
+                same &= canonicals[i] != null && canonicals[i].equals(canonicals[0]);
+            }
+            
+            if (same) {
+                uniform++;
+            } else {
+                row.getFields().add(new MultiNamespaceComparison.FieldRow(key, values.clone(), canonicals));
+            }
+        }
+        row.setUniformFieldCount(uniform);
+        return row;
+    }
+    
+    /**
+     * Object whose row is still to be built, with its Merkle nodes in namespace order
+     */
+    private static final class PendingRow {
+        final String objectId;
+        final String kind;
+        final NamespaceMerkleTree.ObjectNode[] nodes;
+        final boolean sameKind;
+        
+        PendingRow(String objectId, String kind, NamespaceMerkleTree.ObjectNode[] nodes, boolean sameKind) {
+            this.objectId = objectId;
+            this.kind = kind;
+            this.nodes = nodes;
+            this.sameKind = sameKind;
+        }
+    }
+    
+    /**
+     * Fork/join task building a range of rows, split in halves down to the batch size
+     */
+    private static final class RowTask extends RecursiveAction {
+        private final List<PendingRow> pending;
+        private final MultiNamespaceComparison.ObjectRow[] rows;
+        private final int from;
+        private final int to;
+        private final List<FlatNamespaceModel> namespaces;
+        private final ValidationConfig config;
+        
+        RowTask(List<PendingRow> pending, MultiNamespaceComparison.ObjectRow[] rows, int from, int to,
+                List<FlatNamespaceModel> namespaces, ValidationConfig config) {
+            this.pending = pending;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.namespaces = namespaces;
+            this.config = config;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= NamespaceComparator.PARALLEL_BATCH_SIZE) {
+                buildRows(pending, rows, from, to, namespaces, config);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RowTask(pending, rows, from, mid, namespaces, config),
+                    new RowTask(pending, rows, mid, to, namespaces, config));
+        }
+    }
+}
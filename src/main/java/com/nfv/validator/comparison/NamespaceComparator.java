@@ -2,14 +2,27 @@ package com.nfv.validator.comparison;
 
 import com.nfv.validator.config.ValidationConfig;
 import com.nfv.validator.model.comparison.*;
+import com.nfv.validator.model.FieldNode;
+import com.nfv.validator.model.FlatNamespaceModel;
 import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.NamespaceMerkleTree;
+import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Comparator for namespace-level comparisons
  */
+@Slf4j
 public class NamespaceComparator {
+    
+    /**
+     * Objects compared per fork/join task in parallel mode (smaller batches run sequentially)
+     */
+    static final int PARALLEL_BATCH_SIZE = 64;
 
     /**
      * Compare two namespaces (represented as maps of FlatObjectModel)
@@ -31,38 +44,414 @@ public class NamespaceComparator {
             String leftName,
             String rightName,
             ValidationConfig config) {
+        return compareNamespace(left, right, leftName, rightName, config, new ComparisonOptions());
+    }
+    
+    /**
+     * Compare two namespaces with validation config and comparison options
+     */
+    public static NamespaceComparison compareNamespace(
+            Map<String, FlatObjectModel> left,
+            Map<String, FlatObjectModel> right,
+            String leftName,
+            String rightName,
+            ValidationConfig config,
+            ComparisonOptions options) {
         
         NamespaceComparison comparison = new NamespaceComparison();
         comparison.setLeftNamespace(leftName);
         comparison.setRightNamespace(rightName);
         
-        // Get all unique object IDs from both sides
-        Set<String> allObjectIds = new HashSet<>();
+        // Get all unique object IDs from both sides (sorted, so results are added in a stable order)
+        Set<String> allObjectIds = new TreeSet<>();
         allObjectIds.addAll(left.keySet());
         allObjectIds.addAll(right.keySet());
         
         // Compare each object
-        for (String objectId : allObjectIds) {
-            FlatObjectModel leftObj = left.get(objectId);
-            FlatObjectModel rightObj = right.get(objectId);
+        ComparisonBatch batch = new ComparisonBatch(allObjectIds.size());
+        queueObjects(allObjectIds, left, right, config, options, batch);
+        batch.run(config, options);
+        batch.addTo(comparison);
+        
+        return comparison;
+    }
+    
+    /**
+     * Compare two namespace models by descending their Merkle trees
+     * Kinds whose hashes agree are recorded as fully matched without looking at their objects,
+     * and within differing kinds only objects and subtrees with differing hashes are compared,
+     * so the cost scales with the amount of drift rather than with namespace size.
+     */
+    public static NamespaceComparison compareNamespace(
+            FlatNamespaceModel left,
+            FlatNamespaceModel right,
+            ValidationConfig config) {
+        return compareNamespace(left, right, config, new ComparisonOptions());
+    }
+    
+    /**
+     * Compare two namespace models by descending their Merkle trees, with comparison options
+     */
+    public static NamespaceComparison compareNamespace(
+            FlatNamespaceModel left,
+            FlatNamespaceModel right,
+            ValidationConfig config,
+            ComparisonOptions options) {
+        
+        NamespaceComparison comparison = new NamespaceComparison();
+        comparison.setLeftNamespace(left.getName());
+        comparison.setRightNamespace(right.getName());
+        
+        ComparisonBatch batch = new ComparisonBatch(Math.max(left.getObjects().size(), right.getObjects().size()));
+        descend(left, right, config, options, batch);
+        
+        // Compare pending objects (on the fork/join pool in parallel mode), then add in traversal order
+        batch.run(config, options);
+        batch.addTo(comparison);
+        
+        return comparison;
+    }
+    
+    /**
+     * Compare two namespace models and push the results to a listener instead of collecting them
+     * Objects are compared in chunks (of PARALLEL_BATCH_SIZE per thread) and each chunk is emitted
+     * in order and released before the next one, so memory does not grow with the result size.
+     * Events are the same, and in the same order, as the materialized result.
+     *
+     * @return summary of the emitted results
+     */
+    public static NamespaceComparison.ComparisonSummary stream(
+            FlatNamespaceModel left,
+            FlatNamespaceModel right,
+            ValidationConfig config,
+            ComparisonOptions options,
+            ComparisonListener listener) {
+        ComparisonBatch batch = new ComparisonBatch(listener, config, options);
+        descend(left, right, config, options, batch);
+        return batch.finish();
+    }
+    
+    /**
+     * Publish the object results of comparing two namespace models, with back-pressure
+     * The comparison starts when the (single) subscriber subscribes.
+     */
+    public static Flow.Publisher<ObjectComparison> publish(
+            FlatNamespaceModel left,
+            FlatNamespaceModel right,
+            ValidationConfig config,
+            ComparisonOptions options) {
+        return new ComparisonPublisher(left, right, config, options, Flow.defaultBufferSize());
+    }
+    
+    /**
+     * Walk both Merkle trees and queue every object in kind/key order: objects of kinds with equal
+     * hashes as matched results, all others for comparison
+     */
+    private static void descend(FlatNamespaceModel left, FlatNamespaceModel right, ValidationConfig config,
+                                ComparisonOptions options, ComparisonBatch batch) {
+        NamespaceMerkleTree leftTree = left.getMerkleTree(config);
+        NamespaceMerkleTree rightTree = right.getMerkleTree(config);
+        boolean identical = leftTree.matches(rightTree);
+        
+        Set<String> allKinds = new TreeSet<>(leftTree.getKinds().keySet());
+        allKinds.addAll(rightTree.getKinds().keySet());
+        
+        for (String kind : allKinds) {
+            NamespaceMerkleTree.KindNode leftKind = leftTree.getKinds().get(kind);
+            NamespaceMerkleTree.KindNode rightKind = rightTree.getKinds().get(kind);
+            
+            // Same hash for the whole kind - every object matches
+            if (identical || (leftKind != null && rightKind != null
+                    && leftKind.getHash().equals(rightKind.getHash()))) {
+                for (Map.Entry<String, NamespaceMerkleTree.ObjectNode> entry : leftKind.getObjects().entrySet()) {
+                    ObjectComparison objComparison = newObjectComparison(entry.getKey(), kind, options);
+                    objComparison.addMatchedFields(entry.getValue().getFieldCount());
+                    batch.addResult(entry.getKey(), objComparison);
+                }
+                continue;
+            }
             
-            ObjectComparison objComparison = compareObjects(objectId, leftObj, rightObj, config);
-            comparison.addObjectResult(objectId, objComparison);
+            Map<String, FlatObjectModel> leftObjects = left.getObjectsByKind(kind);
+            Map<String, FlatObjectModel> rightObjects = right.getObjectsByKind(kind);
+            Set<String> objectIds = new TreeSet<>(leftObjects.keySet());
+            objectIds.addAll(rightObjects.keySet());
+            queueObjects(objectIds, leftObjects, rightObjects, config, options, batch);
+        }
+    }
+            
+    /**
+     * Queue object pairs by object ID; with fuzzy pairing, objects paired under different names are
+     * queued once, at the left object's position
+     */
+    private static void queueObjects(Set<String> objectIds, Map<String, FlatObjectModel> left,
+                                     Map<String, FlatObjectModel> right, ValidationConfig config,
+                                     ComparisonOptions options, ComparisonBatch batch) {
+        Map<String, String> paired = options.isFuzzyPairing()
+                ? ObjectPairer.pair(left, right, config, options.getPairingThreshold())
+                : Collections.<String, String>emptyMap();
+        Set<String> pairedRight = new HashSet<>(paired.values());
+        for (String objectId : objectIds) {
+            String pairedId = paired.get(objectId);
+            if (pairedId != null) {
+                batch.add(objectId, pairedId, left.get(objectId), right.get(pairedId));
+            } else if (!pairedRight.contains(objectId)) {
+                batch.add(objectId, null, left.get(objectId), right.get(objectId));
+            }
         }
+    }
+    
+    /**
+     * Update a previous comparison after objects were added, changed or removed on either side
+     */
+    public static NamespaceComparison recompare(
+            NamespaceComparison previous,
+            FlatNamespaceModel left,
+            FlatNamespaceModel right,
+            ChangeSet changes,
+            ValidationConfig config) {
+        return recompare(previous, left, right, changes, config, new ComparisonOptions());
+    }
+    
+    /**
+     * Update a previous comparison after objects were added, changed or removed on either side
+     * Only objects in the change set are compared again; all other results are kept and the
+     * summary is adjusted per object. Objects that no longer exist on either side are dropped,
+     * and objects new to the comparison are added after the existing ones.
+     *
+     * @param previous result of comparing earlier snapshots of the same namespaces (updated in place)
+     * @param left current left namespace
+     * @param right current right namespace
+     * @param changes changes on either side since previous was computed (see ChangeSet.between)
+     * @return previous, updated
+     */
+    public static NamespaceComparison recompare(
+            NamespaceComparison previous,
+            FlatNamespaceModel left,
+            FlatNamespaceModel right,
+            ChangeSet changes,
+            ValidationConfig config,
+            ComparisonOptions options) {
         
-        return comparison;
+        Set<String> affected = changes.getAffectedObjects();
+        ComparisonBatch batch = new ComparisonBatch(affected.size());
+        for (String objectId : affected) {
+            FlatObjectModel leftObj = left.getObject(objectId);
+            FlatObjectModel rightObj = right.getObject(objectId);
+            if (leftObj == null && rightObj == null) {
+                previous.removeObjectResult(objectId);
+            } else {
+                batch.add(objectId, null, leftObj, rightObj);
+            }
+        }
+        batch.run(config, options);
+        batch.addTo(previous);
+        
+        log.debug("Recompared {} of {} objects ({} vs {})", affected.size(),
+                previous.getObjectComparisons().size(), previous.getLeftNamespace(), previous.getRightNamespace());
+        return previous;
+    }
+    
+    /**
+     * Ordered list of object comparisons of one namespace pair
+     * Slots are filled either directly (objects known to match) or by comparing the object pair,
+     * sequentially or split across a fork/join pool; results are always added in slot order, so
+     * both modes produce the same output.
+     * With a difference limit, comparing stops once that many objects differ; in parallel mode
+     * the objects compared up to then may include some beyond the first differing ones.
+     * A streaming batch (with a listener) instead runs and emits its slots whenever a chunk is full.
+     */
+    private static final class ComparisonBatch {
+        private final List<String> objectIds;
+        private final List<String> pairedIds;
+        private final List<FlatObjectModel> lefts;
+        private final List<FlatObjectModel> rights;
+        private final List<ObjectComparison> results;
+        private final AtomicInteger differing = new AtomicInteger();
+        private volatile boolean limitReached;
+        private int pending;
+        
+        // Streaming mode only
+        private final ComparisonListener listener;
+        private final ValidationConfig config;
+        private final ComparisonOptions options;
+        private final int chunkSize;
+        private NamespaceComparison.ComparisonSummary summary;
+        private boolean truncated;
+        
+        ComparisonBatch(int expectedSize) {
+            this(expectedSize, null, null, null, Integer.MAX_VALUE);
+        }
+        
+        ComparisonBatch(ComparisonListener listener, ValidationConfig config, ComparisonOptions options) {
+            this(chunkSize(options), listener, config, options, chunkSize(options));
+            this.summary = new NamespaceComparison.ComparisonSummary();
+        }
+        
+        private ComparisonBatch(int expectedSize, ComparisonListener listener, ValidationConfig config,
+                                ComparisonOptions options, int chunkSize) {
+            objectIds = new ArrayList<>(expectedSize);
+            pairedIds = new ArrayList<>(expectedSize);
+            lefts = new ArrayList<>(expectedSize);
+            rights = new ArrayList<>(expectedSize);
+            results = new ArrayList<>(expectedSize);
+            this.listener = listener;
+            this.config = config;
+            this.options = options;
+            this.chunkSize = chunkSize;
+        }
+        
+        /**
+         * @param pairedId right object ID if it differs from objectId (fuzzy pairing), otherwise null
+         */
+        void add(String objectId, String pairedId, FlatObjectModel left, FlatObjectModel right) {
+            objectIds.add(objectId);
+            pairedIds.add(pairedId);
+            lefts.add(left);
+            rights.add(right);
+            results.add(null);
+            pending++;
+            flushIfFull();
+        }
+        
+        void addResult(String objectId, ObjectComparison result) {
+            objectIds.add(objectId);
+            pairedIds.add(null);
+            lefts.add(null);
+            rights.add(null);
+            results.add(result);
+            flushIfFull();
+        }
+        
+        private static int chunkSize(ComparisonOptions options) {
+            return PARALLEL_BATCH_SIZE * Math.max(1, options.getParallelism());
+        }
+        
+        private void flushIfFull() {
+            if (listener != null && objectIds.size() >= chunkSize) {
+                flush();
+            }
+        }
+        
+        /**
+         * Run the queued slots and emit them in order to the listener, then release them
+         */
+        private void flush() {
+            if (!limitReached) {
+                run(config, options);
+            }
+            for (ObjectComparison result : results) {
+                if (result == null) {
+                    truncated = true;
+                    continue;
+                }
+                for (KeyComparison difference : result.getDifferences()) {
+                    listener.onDifference(result, difference);
+                }
+                listener.onObject(result);
+                summary = NamespaceComparison.adjust(summary, null, result);
+            }
+            objectIds.clear();
+            pairedIds.clear();
+            lefts.clear();
+            rights.clear();
+            results.clear();
+            pending = 0;
+        }
+        
+        /**
+         * Emit the remaining slots and complete the stream
+         */
+        NamespaceComparison.ComparisonSummary finish() {
+            flush();
+            listener.onComplete(summary, truncated);
+            return summary;
+        }
+        
+        void run(ValidationConfig config, ComparisonOptions options) {
+            ObjectComparison[] slots = results.toArray(new ObjectComparison[0]);
+            if (options.getParallelism() > 1 && pending > PARALLEL_BATCH_SIZE) {
+                options.getPool().invoke(new CompareTask(this, slots, 0, slots.length, config, options));
+            } else {
+                compareRange(slots, 0, slots.length, config, options);
+            }
+            for (int i = 0; i < slots.length; i++) {
+                results.set(i, slots[i]);
+            }
+            pending = 0;
+        }
+        
+        void compareRange(ObjectComparison[] slots, int from, int to, ValidationConfig config,
+                          ComparisonOptions options) {
+            int limit = options.getDifferenceLimit();
+            for (int i = from; i < to && !limitReached; i++) {
+                if (slots[i] == null) {
+                    slots[i] = compareObjects(objectIds.get(i), pairedIds.get(i), lefts.get(i), rights.get(i),
+                            config, options);
+                    if (limit > 0 && !slots[i].isFullMatch() && differing.incrementAndGet() >= limit) {
+                        limitReached = true;
+                    }
+                }
+            }
+        }
+        
+        /**
+         * Add the results in slot order; objects not compared because of the limit are left out
+         */
+        void addTo(NamespaceComparison comparison) {
+            for (int i = 0; i < objectIds.size(); i++) {
+                if (results.get(i) != null) {
+                    comparison.addObjectResult(objectIds.get(i), results.get(i));
+                } else {
+                    comparison.setTruncated(true);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Fork/join task comparing a range of batch slots, split in halves down to PARALLEL_BATCH_SIZE
+     */
+    private static final class CompareTask extends RecursiveAction {
+        private final ComparisonBatch batch;
+        private final ObjectComparison[] slots;
+        private final int from;
+        private final int to;
+        private final ValidationConfig config;
+        private final ComparisonOptions options;
+        
+        CompareTask(ComparisonBatch batch, ObjectComparison[] slots, int from, int to,
+                    ValidationConfig config, ComparisonOptions options) {
+            this.batch = batch;
+            this.slots = slots;
+            this.from = from;
+            this.to = to;
+            this.config = config;
+            this.options = options;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_BATCH_SIZE) {
+                batch.compareRange(slots, from, to, config, options);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new CompareTask(batch, slots, from, mid, config, options),
+                    new CompareTask(batch, slots, mid, to, config, options));
+        }
     }
     
     /**
      * Compare two FlatObjectModel instances
+     *
+     * @param pairedObjectId ID of the right object if it was paired under another ID (null = same ID)
      */
     private static ObjectComparison compareObjects(String objectId, 
+                                                   String pairedObjectId,
                                                    FlatObjectModel left, 
                                                    FlatObjectModel right,
-                                                   ValidationConfig config) {
-        ObjectComparison comparison = new ObjectComparison();
-        comparison.setObjectId(objectId);
-        
+                                                   ValidationConfig config,
+                                                   ComparisonOptions options) {
         // Determine object type
         String type = null;
         if (left != null) {
@@ -70,59 +459,208 @@ public class NamespaceComparator {
         } else if (right != null) {
             type = right.getKind();
         }
-        comparison.setObjectType(type);
         
         // Handle cases where object exists only on one side
-        if (left == null) {
-            // Object only in right
-            KeyComparison item = new KeyComparison();
-            item.setKey(objectId);
-            item.setLeftValue(null);
-            item.setRightValue("exists");
-            item.setStatus(ComparisonStatus.ONLY_IN_RIGHT);
-            comparison.addItem(item);
-            return comparison;
+        if (left == null || right == null) {
+            return onlyOnOneSide(objectId, type, left != null, options);
         }
+        ObjectComparison comparison = newObjectComparison(objectId, type, options);
+        comparison.setPairedObjectId(pairedObjectId);
         
-        if (right == null) {
-            // Object only in left
-            KeyComparison item = new KeyComparison();
-            item.setKey(objectId);
-            item.setLeftValue("exists");
-            item.setRightValue(null);
-            item.setStatus(ComparisonStatus.ONLY_IN_LEFT);
-            comparison.addItem(item);
+        // Same canonical content instances (or identical filtered content) - record as fully matched
+        if (left.sharesContentWith(right)) {
+            comparison.addMatchedFields(left.getFilteredFieldCount(config));
+            return comparison;
+        }
+        if (left.getFingerprint(config).equals(right.getFingerprint(config)) && sameContent(left, right, config)) {
+            comparison.addMatchedFields(left.getFilteredFieldCount(config));
             return comparison;
         }
         
-        // Both objects exist - compare all fields (filtered if config is provided)
-        Map<String, String> leftFields = config != null ? left.getAllFieldsFiltered(config) : left.getAllFields();
-        Map<String, String> rightFields = config != null ? right.getAllFieldsFiltered(config) : right.getAllFields();
+        // Differing pairs seen in an earlier run are served from the result cache
+        ResultCache cache = options.getResultCache();
+        if (cache != null) {
+            ObjectComparison cached = cache.get(objectId, pairedObjectId, left.getValueFingerprint(config),
+                    right.getValueFingerprint(config), config, options);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        compareFields(left, right, config, comparison);
+        if (cache != null) {
+            cache.put(objectId, pairedObjectId, left.getValueFingerprint(config), right.getValueFingerprint(config),
+                    config, options, comparison);
+        }
+        return comparison;
+    }
+    
+    /**
+     * Confirm equal fingerprints on the field trees, so a hash collision is not reported as a match
+     * Objects without field trees are trusted on their fingerprints alone.
+     */
+    private static boolean sameContent(FlatObjectModel left, FlatObjectModel right, ValidationConfig config) {
+        FieldNode leftTree = left.getFilteredFieldTree(config);
+        FieldNode rightTree = right.getFilteredFieldTree(config);
+        return leftTree == null || rightTree == null || leftTree.contentEquals(rightTree);
+    }
+    
+    /**
+     * Compare the fields of two objects whose content differs
+     */
+    private static void compareFields(FlatObjectModel left, FlatObjectModel right, ValidationConfig config,
+                                      ObjectComparison comparison) {
+        // Walk both field trees side by side, skipping identical subtrees
+        FieldNode leftTree = left.getFilteredFieldTree(config);
+        FieldNode rightTree = right.getFilteredFieldTree(config);
+        if (leftTree != null && rightTree != null) {
+            compareFieldTrees("", leftTree, rightTree, comparison);
+            return;
+        }
+        
+        // Only descend into top-level subtrees whose hashes differ; equal subtrees count as matched
+        Map<String, NamespaceMerkleTree.SubtreeNode> rightSubtrees = right.getSubtreeFingerprints(config);
+        Set<String> matchedSubtrees = new HashSet<>();
+        for (Map.Entry<String, NamespaceMerkleTree.SubtreeNode> entry : left.getSubtreeFingerprints(config).entrySet()) {
+            NamespaceMerkleTree.SubtreeNode other = rightSubtrees.get(entry.getKey());
+            if (other != null && other.getHash().equals(entry.getValue().getHash())) {
+                matchedSubtrees.add(entry.getKey());
+                comparison.addMatchedFields(entry.getValue().getFieldCount());
+            }
+        }
         
-        Set<String> allKeys = new HashSet<>();
-        allKeys.addAll(leftFields.keySet());
-        allKeys.addAll(rightFields.keySet());
+        // Both objects exist - merge-join the sorted fields (filtered if config is provided)
+        FlatObjectModel.SortedFields leftFields = left.getSortedFields(config);
+        FlatObjectModel.SortedFields rightFields = right.getSortedFields(config);
+        int i = 0;
+        int j = 0;
+        while (i < leftFields.size() || j < rightFields.size()) {
+            int cmp = i == leftFields.size() ? 1
+                    : j == rightFields.size() ? -1
+                    : leftFields.keyAt(i).compareTo(rightFields.keyAt(j));
+            String key = cmp <= 0 ? leftFields.keyAt(i) : rightFields.keyAt(j);
+            String leftValue = cmp <= 0 ? leftFields.valueAt(i) : null;
+            String rightValue = cmp >= 0 ? rightFields.valueAt(j) : null;
+            boolean equal = cmp == 0 && Objects.equals(leftFields.canonicalAt(i), rightFields.canonicalAt(j));
+            i += cmp <= 0 ? 1 : 0;
+            j += cmp >= 0 ? 1 : 0;
         
-        for (String key : allKeys) {
-            String leftValue = leftFields.get(key);
-            String rightValue = rightFields.get(key);
+            if (!matchedSubtrees.isEmpty() && matchedSubtrees.contains(FlatObjectModel.subtreeOf(key))) {
+                continue;
+            }
             
+            addItem(comparison, key, leftValue, rightValue, equal);
+        }
+    }
+    
+    /**
+     * Compare two field trees, descending only where subtrees differ
+     * Children are kept sorted, so each level is a single merge over both child lists.
+     */
+    private static void compareFieldTrees(String path, FieldNode left, FieldNode right,
+                                          ObjectComparison comparison) {
+        if (left.sameAs(right)) {
+            comparison.addMatchedFields(left.getLeafCount());
+            return;
+        }
+        
+        if (left.isLeaf() && right.isLeaf()) {
+            addItem(comparison, path, left.getValue(), right.getValue(),
+                    Objects.equals(left.getCanonical(), right.getCanonical()));
+            return;
+        }
+        
+        if (left.isLeaf() || right.isLeaf()) {
+            // Scalar on one side, structure on the other - the paths never line up
+            addLeaves(path, left, ComparisonStatus.ONLY_IN_LEFT, comparison);
+            addLeaves(path, right, ComparisonStatus.ONLY_IN_RIGHT, comparison);
+            return;
+        }
+        
+        Iterator<Map.Entry<String, FieldNode>> leftChildren = left.getChildren().entrySet().iterator();
+        Iterator<Map.Entry<String, FieldNode>> rightChildren = right.getChildren().entrySet().iterator();
+        Map.Entry<String, FieldNode> l = leftChildren.hasNext() ? leftChildren.next() : null;
+        Map.Entry<String, FieldNode> r = rightChildren.hasNext() ? rightChildren.next() : null;
+        
+        while (l != null || r != null) {
+            int cmp = l == null ? 1 : r == null ? -1 : l.getKey().compareTo(r.getKey());
+            if (cmp == 0) {
+                compareFieldTrees(FieldNode.childPath(path, l.getKey()), l.getValue(), r.getValue(), comparison);
+                l = leftChildren.hasNext() ? leftChildren.next() : null;
+                r = rightChildren.hasNext() ? rightChildren.next() : null;
+            } else if (cmp < 0) {
+                addLeaves(FieldNode.childPath(path, l.getKey()), l.getValue(), ComparisonStatus.ONLY_IN_LEFT, comparison);
+                l = leftChildren.hasNext() ? leftChildren.next() : null;
+            } else {
+                addLeaves(FieldNode.childPath(path, r.getKey()), r.getValue(), ComparisonStatus.ONLY_IN_RIGHT, comparison);
+                r = rightChildren.hasNext() ? rightChildren.next() : null;
+            }
+        }
+    }
+    
+    /**
+     * Add every leaf of a subtree that exists on one side only
+     */
+    private static void addLeaves(String path, FieldNode node, ComparisonStatus status,
+                                  ObjectComparison comparison) {
+        if (node.isLeaf()) {
             KeyComparison item = new KeyComparison();
-            item.setKey(key);
-            item.setLeftValue(leftValue);
-            item.setRightValue(rightValue);
-            item.setStatus(determineStatus(leftValue, rightValue));
-            
+            item.setKey(path);
+            item.setLeftValue(status == ComparisonStatus.ONLY_IN_LEFT ? node.getValue() : null);
+            item.setRightValue(status == ComparisonStatus.ONLY_IN_RIGHT ? node.getValue() : null);
+            item.setStatus(status);
             comparison.addItem(item);
+            return;
         }
-        
+        for (Map.Entry<String, FieldNode> child : node.getChildren().entrySet()) {
+            addLeaves(FieldNode.childPath(path, child.getKey()), child.getValue(), status, comparison);
+        }
+    }
+    
+    /**
+     * Result for an object that exists in one namespace only
+     */
+    static ObjectComparison onlyOnOneSide(String objectId, String type, boolean inLeft, ComparisonOptions options) {
+        ObjectComparison comparison = newObjectComparison(objectId, type, options);
+        KeyComparison item = new KeyComparison();
+        item.setKey(objectId);
+        item.setLeftValue(inLeft ? "exists" : null);
+        item.setRightValue(inLeft ? null : "exists");
+        item.setStatus(inLeft ? ComparisonStatus.ONLY_IN_LEFT : ComparisonStatus.ONLY_IN_RIGHT);
+        comparison.addItem(item);
+        return comparison;
+    }
+    
+    static ObjectComparison newObjectComparison(String objectId, String type, ComparisonOptions options) {
+        ObjectComparison comparison = new ObjectComparison();
+        comparison.setObjectId(objectId);
+        comparison.setObjectType(type);
+        comparison.setSparse(options.isSparse());
         return comparison;
     }
     
+    /**
+     * Add a field item whose values were already matched (by their canonical forms)
+     * The stored values are kept for display, so a match may show two spellings of the same value.
+     */
+    static void addItem(ObjectComparison comparison, String key, String leftValue, String rightValue,
+                        boolean equal) {
+        // Sparse results only count matches - don't allocate an item for them
+        if (comparison.isSparse() && equal) {
+            comparison.addMatchedFields(1);
+            return;
+        }
+        KeyComparison item = new KeyComparison();
+        item.setKey(key);
+        item.setLeftValue(leftValue);
+        item.setRightValue(rightValue);
+        item.setStatus(determineStatus(leftValue, rightValue, equal));
+        comparison.addItem(item);
+    }
+    
     /**
      * Determine comparison status for two values
      */
-    private static ComparisonStatus determineStatus(String left, String right) {
+    private static ComparisonStatus determineStatus(String left, String right, boolean equal) {
         if (left == null && right == null) {
             return ComparisonStatus.BOTH_NULL;
         }
@@ -132,7 +670,7 @@ public class NamespaceComparator {
         if (right == null) {
             return ComparisonStatus.ONLY_IN_LEFT;
         }
-        if (left.equals(right)) {
+        if (equal) {
             return ComparisonStatus.MATCH;
         }
         return ComparisonStatus.DIFFERENT;
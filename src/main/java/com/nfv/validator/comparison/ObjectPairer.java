@@ -0,0 +1,227 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.NameNormalizer;
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.util.Fingerprint;
+import com.nfv.validator.util.MinHash;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Pairs objects that exist on only one side of a comparison because their names differ
+ * (e.g. "ConfigMap/upf-cfg-site1" and "ConfigMap/upf-cfg-site2"). Only objects of the same kind
+ * are paired, in two stages:
+ * 1. names rewritten by the configured name rules: objects whose rewritten names are equal (and
+ *    unique on each side) are paired;
+ * 2. the rest by the similarity of their filtered fields: each object is reduced to a MinHash
+ *    signature over its (path=value) set, leaving out metadata.name and rewriting values with the
+ *    name rules. Signatures are split into bands and only left/right objects sharing a band bucket
+ *    are scored, so unrelated objects are never compared; pairs at or above the threshold are then
+ *    taken best-first, each object at most once.
+ */
+@Slf4j
+public final class ObjectPairer {
+    
+    /**
+     * Default minimum estimated similarity for pairing objects by their fields
+     */
+    public static final double DEFAULT_THRESHOLD = 0.5;
+    
+    /**
+     * Signature positions per LSH band: 64 bands of 2 over 128 hashes find pairs with a
+     * similarity of 0.3 or more with a probability above 99%
+     */
+    private static final int ROWS_PER_BAND = 2;
+    
+    private static final String NAME_FIELD = "metadata.name";
+    
+    private ObjectPairer() {
+    }
+    
+    /**
+     * Pair the objects found on only one side
+     *
+     * @param left objects of the left namespace by object ID
+     * @param right objects of the right namespace by object ID
+     * @param config name rules and field filtering (may be null)
+     * @param threshold minimum estimated similarity (0..1) for pairing objects by their fields
+     * @return right object ID by left object ID, for the paired objects only
+     */
+    public static Map<String, String> pair(Map<String, FlatObjectModel> left, Map<String, FlatObjectModel> right,
+                                           ValidationConfig config, double threshold) {
+        Map<String, List<String>> leftByKind = unpairedByKind(left, right);
+        Map<String, List<String>> rightByKind = unpairedByKind(right, left);
+        NameNormalizer names = config != null ? config.getNameNormalizer() : new NameNormalizer(null);
+        
+        Map<String, String> pairs = new TreeMap<>();
+        for (Map.Entry<String, List<String>> entry : leftByKind.entrySet()) {
+            List<String> rightIds = rightByKind.get(entry.getKey());
+            if (rightIds != null) {
+                pairKind(entry.getKey(), entry.getValue(), rightIds, left, right, config, names, threshold, pairs);
+            }
+        }
+        if (!pairs.isEmpty()) {
+            log.debug("Paired {} objects with different names", pairs.size());
+        }
+        return pairs;
+    }
+    
+    private static Map<String, List<String>> unpairedByKind(Map<String, FlatObjectModel> side,
+                                                            Map<String, FlatObjectModel> other) {
+        Map<String, List<String>> byKind = new TreeMap<>();
+        for (Map.Entry<String, FlatObjectModel> entry : side.entrySet()) {
+            if (!other.containsKey(entry.getKey())) {
+                byKind.computeIfAbsent(Objects.toString(entry.getValue().getKind(), ""), k -> new ArrayList<>())
+                        .add(entry.getKey());
+            }
+        }
+        for (List<String> ids : byKind.values()) {
+            Collections.sort(ids);
+        }
+        return byKind;
+    }
+    
+    private static void pairKind(String kind, List<String> leftIds, List<String> rightIds,
+                                 Map<String, FlatObjectModel> left, Map<String, FlatObjectModel> right,
+                                 ValidationConfig config, NameNormalizer names, double threshold,
+                                 Map<String, String> pairs) {
+        // Stage 1: equal names after the name rules
+        if (!names.isEmpty()) {
+            Map<String, String> rightNames = normalizedNames(kind, rightIds, names);
+            for (Map.Entry<String, String> entry : normalizedNames(kind, leftIds, names).entrySet()) {
+                String rightId = rightNames.get(entry.getKey());
+                if (entry.getValue() != null && rightId != null) {
+                    pairs.put(entry.getValue(), rightId);
+                }
+            }
+            Set<String> pairedRight = new HashSet<>(pairs.values());
+            leftIds = remaining(leftIds, pairs.keySet());
+            rightIds = remaining(rightIds, pairedRight);
+        }
+        if (leftIds.isEmpty() || rightIds.isEmpty()) {
+            return;
+        }
+        
+        // Stage 2: similar fields, scoring only pairs that share an LSH bucket
+        MinHash minHash = new MinHash(MinHash.DEFAULT_HASHES);
+        long[][] leftSignatures = signatures(minHash, kind, leftIds, left, config, names);
+        long[][] rightSignatures = signatures(minHash, kind, rightIds, right, config, names);
+        Set<Long> candidates = new HashSet<>();
+        int bands = minHash.getHashCount() / ROWS_PER_BAND;
+        for (int band = 0; band < bands; band++) {
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int i = 0; i < leftSignatures.length; i++) {
+                if (leftSignatures[i] != null) {
+                    buckets.computeIfAbsent(MinHash.bandHash(leftSignatures[i], band, ROWS_PER_BAND),
+                            b -> new ArrayList<>()).add(i);
+                }
+            }
+            for (int j = 0; j < rightSignatures.length; j++) {
+                List<Integer> bucket = rightSignatures[j] != null
+                        ? buckets.get(MinHash.bandHash(rightSignatures[j], band, ROWS_PER_BAND)) : null;
+                if (bucket != null) {
+                    for (int i : bucket) {
+                        candidates.add(((long) i << 32) | j);
+                    }
+                }
+            }
+        }
+        
+        List<Candidate> scored = new ArrayList<>();
+        for (long candidate : candidates) {
+            int i = (int) (candidate >>> 32);
+            int j = (int) candidate;
+            double similarity = MinHash.similarity(leftSignatures[i], rightSignatures[j]);
+            if (similarity >= threshold) {
+                scored.add(new Candidate(i, j, similarity));
+            }
+        }
+        scored.sort((a, b) -> a.similarity != b.similarity ? Double.compare(b.similarity, a.similarity)
+                : a.left != b.left ? Integer.compare(a.left, b.left) : Integer.compare(a.right, b.right));
+        
+        boolean[] leftTaken = new boolean[leftIds.size()];
+        boolean[] rightTaken = new boolean[rightIds.size()];
+        for (Candidate candidate : scored) {
+            if (!leftTaken[candidate.left] && !rightTaken[candidate.right]) {
+                leftTaken[candidate.left] = true;
+                rightTaken[candidate.right] = true;
+                pairs.put(leftIds.get(candidate.left), rightIds.get(candidate.right));
+            }
+        }
+    }
+    
+    /**
+     * Object ID by rewritten name; names shared by several objects map to null
+     */
+    private static Map<String, String> normalizedNames(String kind, List<String> ids, NameNormalizer names) {
+        Map<String, String> byName = new HashMap<>();
+        for (String id : ids) {
+            String name = names.normalize(kind, id.substring(id.indexOf('/') + 1));
+            if (byName.containsKey(name)) {
+                byName.put(name, null);
+            } else {
+                byName.put(name, id);
+            }
+        }
+        return byName;
+    }
+    
+    private static List<String> remaining(List<String> ids, Set<String> paired) {
+        List<String> remaining = new ArrayList<>();
+        for (String id : ids) {
+            if (!paired.contains(id)) {
+                remaining.add(id);
+            }
+        }
+        return remaining;
+    }
+    
+    /**
+     * MinHash signature per object, or null for objects without fields to compare
+     */
+    private static long[][] signatures(MinHash minHash, String kind, List<String> ids,
+                                       Map<String, FlatObjectModel> objects, ValidationConfig config,
+                                       NameNormalizer names) {
+        long[][] signatures = new long[ids.size()][];
+        for (int i = 0; i < ids.size(); i++) {
+            long[] signature = null;
+            Map<String, String> fields = objects.get(ids.get(i)).getCanonicalFieldsFiltered(config);
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                if (NAME_FIELD.equals(field.getKey())) {
+                    continue;
+                }
+                if (signature == null) {
+                    signature = minHash.newSignature();
+                }
+                minHash.add(signature, Fingerprint.builder()
+                        .putString(field.getKey())
+                        .putString(names.normalize(kind, field.getValue()))
+                        .build().getLow());
+            }
+            signatures[i] = signature;
+        }
+        return signatures;
+    }
+    
+    private static final class Candidate {
+        final int left;
+        final int right;
+        final double similarity;
+        
+        Candidate(int left, int right, double similarity) {
+            this.left = left;
+            this.right = right;
+            this.similarity = similarity;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.comparison.ObjectComparison;
+import com.nfv.validator.util.Fingerprint;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * On-disk memo of object comparison results, reused across runs (e.g. repeated CI checks)
+ * An entry is keyed by the IDs of both objects, the fingerprints of their filtered fields with the
+ * stored values, the fingerprint of the validation config and the result mode (sparse or not), so
+ * a stored result is only served for exactly the same inputs. Each entry is a small file in a two-level directory
+ * layout; a hit refreshes its modification time. Eviction drops entries older than the maximum age,
+ * then the least recently used ones until the cache is below its size budget. Entries are written
+ * to a temporary file and moved into place, so several threads or processes can share a directory.
+ * Read or write errors only make the cache miss; they never fail a comparison.
+ */
+@Slf4j
+public class ResultCache {
+    
+    /**
+     * Default size budget of the cache directory (256 MiB)
+     */
+    public static final long DEFAULT_MAX_BYTES = 256L << 20;
+    
+    /**
+     * Default age after which entries are evicted
+     */
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofDays(7);
+    
+    private static final int FORMAT_VERSION = 3;
+    private static final String SUFFIX = ".cmp";
+    private static final Fingerprint NO_CONFIG = Fingerprint.of("");
+    
+    /**
+     * Eviction shrinks the cache to this fraction of the budget, so it does not run on every write
+     */
+    private static final double EVICT_TO = 0.9;
+    
+    private final Path directory;
+    private final long maxBytes;
+    private final Duration maxAge;
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    
+    /**
+     * Open (or create) a cache directory and evict expired entries
+     *
+     * @param maxBytes size budget of all entries in bytes
+     * @param maxAge entries not used for this long are evicted
+     */
+    public ResultCache(Path directory, long maxBytes, Duration maxAge) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxAge = maxAge;
+        Files.createDirectories(directory);
+        evict();
+    }
+    
+    /**
+     * Get the stored result of comparing two objects, or null if there is none
+     *
+     * @param pairedObjectId ID of the right object if it was paired under another ID (null = same ID)
+     * @param left value fingerprint of the left object's filtered fields
+     * @param right value fingerprint of the right object's filtered fields
+     */
+    public ObjectComparison get(String objectId, String pairedObjectId, Fingerprint left, Fingerprint right,
+                                ValidationConfig config, ComparisonOptions options) {
+        Path file = entryFile(key(objectId, pairedObjectId, left, right, config, options));
+        ObjectComparison result;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            result = in.readInt() == FORMAT_VERSION ? ResultCodec.read(in, options) : null;
+        } catch (NoSuchFileException e) {
+            result = null;
+        } catch (IOException | RuntimeException e) {
+            log.debug("Dropping unreadable cache entry {}: {}", file, e.getMessage());
+            delete(file);
+            result = null;
+        }
+        if (result == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            // Entry was evicted concurrently; the result is still valid
+        }
+        return result;
+    }
+    
+    /**
+     * Store the result of comparing two objects
+     */
+    public void put(String objectId, String pairedObjectId, Fingerprint left, Fingerprint right,
+                    ValidationConfig config, ComparisonOptions options, ObjectComparison result) {
+        Path file = entryFile(key(objectId, pairedObjectId, left, right, config, options));
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            temp = Files.createTempFile(file.getParent(), "entry-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FORMAT_VERSION);
+                ResultCodec.write(out, result);
+            }
+            long bytes = Files.size(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (size.addAndGet(bytes) > maxBytes) {
+                evict();
+            }
+        } catch (IOException e) {
+            log.debug("Failed to write cache entry {}: {}", file, e.getMessage());
+            if (temp != null) {
+                delete(temp);
+            }
+        }
+    }
+    
+    /**
+     * Delete entries older than the maximum age, then the least recently used ones while the
+     * cache exceeds its size budget
+     *
+     * @return size of the remaining entries in bytes
+     */
+    public synchronized long evict() throws IOException {
+        Instant expiry = Instant.now().minus(maxAge);
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(f -> f.toString().endsWith(SUFFIX)).collect(Collectors.toList())) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime().toInstant()));
+                } catch (NoSuchFileException e) {
+                    // Evicted by another process
+                }
+            }
+        }
+        
+        long total = 0;
+        int evicted = 0;
+        List<Entry> live = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry.lastUsed.isBefore(expiry)) {
+                delete(entry.file);
+                evicted++;
+            } else {
+                live.add(entry);
+                total += entry.size;
+            }
+        }
+        if (total > maxBytes) {
+            live.sort(Comparator.comparing((Entry e) -> e.lastUsed));
+            long target = (long) (maxBytes * EVICT_TO);
+            for (int i = 0; i < live.size() && total > target; i++) {
+                delete(live.get(i).file);
+                total -= live.get(i).size;
+                evicted++;
+            }
+        }
+        size.set(total);
+        if (evicted > 0) {
+            log.debug("Evicted {} cached results from {}, {} bytes remaining", evicted, directory, total);
+        }
+        return total;
+    }
+    
+    public int getHitCount() {
+        return hits.get();
+    }
+    
+    public int getMissCount() {
+        return misses.get();
+    }
+    
+    private static Fingerprint key(String objectId, String pairedObjectId, Fingerprint left, Fingerprint right,
+                                   ValidationConfig config, ComparisonOptions options) {
+        return Fingerprint.builder()
+                .putLong(FORMAT_VERSION)
+                .putString(objectId)
+                .putString(pairedObjectId)
+                .putFingerprint(left)
+                .putFingerprint(right)
+                .putFingerprint(config != null ? config.getFingerprint() : NO_CONFIG)
+                .putLong(options.isSparse() ? 1 : 0)
+                .build();
+    }
+    
+    private Path entryFile(Fingerprint key) {
+        String hex = key.toHex();
+        return directory.resolve(hex.substring(0, 2)).resolve(hex + SUFFIX);
+    }
+    
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cache file {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private static final class Entry {
+        final Path file;
+        final long size;
+        final Instant lastUsed;
+        
+        Entry(Path file, long size, Instant lastUsed) {
+            this.file = file;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.model.comparison.ComparisonStatus;
+import com.nfv.validator.model.comparison.KeyComparison;
+import com.nfv.validator.model.comparison.ObjectComparison;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding of object results, for results stored on disk or exchanged between processes
+ * Stored items, the unlisted match count and the identifiers are kept, so a decoded result has the
+ * same items, counters and aggregates as the encoded one.
+ */
+final class ResultCodec {
+    
+    private ResultCodec() {
+    }
+    
+    static void write(DataOutputStream out, ObjectComparison result) throws IOException {
+        writeString(out, result.getObjectId());
+        writeString(out, result.getObjectType());
+        writeString(out, result.getPairedObjectId());
+        out.writeInt(result.getUnlistedMatchCount());
+        out.writeInt(result.getItems().size());
+        for (KeyComparison item : result.getItems()) {
+            writeString(out, item.getKey());
+            writeString(out, item.getLeftValue());
+            writeString(out, item.getRightValue());
+            out.writeUTF(item.getStatus().name());
+        }
+    }
+    
+    /**
+     * Decode a result written by write()
+     *
+     * @param options result mode (sparse or not) of the decoded result
+     */
+    static ObjectComparison read(DataInputStream in, ComparisonOptions options) throws IOException {
+        String objectId = readString(in);
+        ObjectComparison result = NamespaceComparator.newObjectComparison(objectId, readString(in), options);
+        result.setPairedObjectId(readString(in));
+        result.addMatchedFields(in.readInt());
+        int items = in.readInt();
+        for (int i = 0; i < items; i++) {
+            String key = readString(in);
+            String leftValue = readString(in);
+            String rightValue = readString(in);
+            ComparisonStatus status;
+            try {
+                status = ComparisonStatus.valueOf(in.readUTF());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown comparison status", e);
+            }
+            result.addItem(new KeyComparison(key, leftValue, rightValue, status));
+        }
+        return result;
+    }
+    
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
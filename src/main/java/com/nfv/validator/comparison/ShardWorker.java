@@ -0,0 +1,57 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Worker process of a sharded comparison (see ShardedComparator)
+ * Loads one shard of every namespace from the work directory, compares it for every pair of the
+ * job and writes the shard's result file. Usage: ShardWorker &lt;work-dir&gt; &lt;shard&gt;
+ */
+@Slf4j
+public class ShardWorker {
+    
+    private ShardWorker() {
+    }
+    
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: " + ShardWorker.class.getName() + " <work-dir> <shard>");
+            System.exit(2);
+        }
+        try {
+            run(Paths.get(args[0]), Integer.parseInt(args[1]));
+        } catch (Exception e) {
+            log.error("Shard worker {} failed", args[1], e);
+            System.err.println("❌ Shard worker " + args[1] + " failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Compare one shard of a prepared job
+     */
+    public static void run(Path workDir, int shard) throws IOException {
+        ShardedComparator.ShardJob job = ShardedComparator.readJob(workDir);
+        if (shard < 0 || shard >= job.getShards()) {
+            throw new IllegalArgumentException("Shard " + shard + " out of range (0-" + (job.getShards() - 1) + ")");
+        }
+        List<FlatNamespaceModel> namespaces = ShardedComparator.readShard(workDir, shard);
+        ComparisonOptions options = job.toOptions();
+        
+        List<NamespaceComparison> results = new ArrayList<>(job.getPairs().size());
+        for (int[] pair : job.getPairs()) {
+            results.add(NamespaceComparator.compareNamespace(
+                    namespaces.get(pair[0]), namespaces.get(pair[1]), job.getConfig(), options));
+        }
+        ShardedComparator.writeResults(workDir, shard, results);
+        log.info("Shard {}/{}: compared {} pairs", shard, job.getShards(), results.size());
+    }
+}
@@ -0,0 +1,384 @@
+package com.nfv.validator.comparison;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.MappedModelStore;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import com.nfv.validator.model.comparison.ObjectComparison;
+import com.nfv.validator.util.Fingerprint;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Coordinator of a comparison split across worker processes
+ * Objects are partitioned by a hash of their object key into K shards. The coordinator writes the
+ * shard of every namespace to one file per shard, plus a job file (namespace pairs, options and
+ * validation config), in a work directory. Each worker (ShardWorker) loads only its own shard,
+ * compares it for every pair and writes a result file. The coordinator then merges the partial
+ * results into one NamespaceComparison per pair, identical to an unsharded comparison.
+ * Workers are started as local processes, or on other machines sharing the work directory.
+ * An object's two sides always land in the same shard, so no object pair spans workers; fuzzy
+ * pairing and the result cache are therefore not available in sharded mode, and a difference
+ * limit applies per shard.
+ */
+@Slf4j
+public class ShardedComparator {
+    
+    static final int FORMAT_VERSION = 1;
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String JOB_FILE = "job.json";
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+    
+    /**
+     * Merged results are ordered like NamespaceComparator's: by kind, then object ID
+     */
+    private static final Comparator<ObjectComparison> RESULT_ORDER = Comparator
+            .comparing(ObjectComparison::getObjectType, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+            .thenComparing(ObjectComparison::getObjectId);
+    
+    private final Path workDir;
+    private final int shards;
+    
+    /**
+     * @param workDir directory for shard, job and result files (shared with remote workers)
+     * @param shards number of shards, one worker each
+     */
+    public ShardedComparator(Path workDir, int shards) {
+        this.workDir = workDir;
+        this.shards = shards;
+    }
+    
+    /**
+     * Shard of an object key
+     */
+    public static int shardOf(String objectId, int shards) {
+        return (int) Math.floorMod(Fingerprint.of(objectId).getLow(), (long) shards);
+    }
+    
+    /**
+     * Compare namespace pairs on local worker processes
+     *
+     * @return results in the order of the pairs
+     */
+    public List<NamespaceComparison> compare(List<FlatNamespaceModel[]> pairs, ValidationConfig config,
+                                             ComparisonOptions options) throws IOException, InterruptedException {
+        prepare(pairs, config, options);
+        runLocalWorkers();
+        return merge();
+    }
+    
+    /**
+     * Write the job and shard files for comparing namespace pairs (removes results of earlier jobs)
+     * Each namespace is written once, however many pairs it is part of.
+     */
+    public void prepare(List<FlatNamespaceModel[]> pairs, ValidationConfig config,
+                        ComparisonOptions options) throws IOException {
+        Files.createDirectories(workDir);
+        for (int shard = 0; shard < shards; shard++) {
+            Files.deleteIfExists(resultFile(workDir, shard));
+        }
+        
+        ShardJob job = new ShardJob();
+        job.setShards(shards);
+        job.setSparse(options.isSparse());
+        job.setParallelism(options.getParallelism());
+        job.setDifferenceLimit(options.getDifferenceLimit());
+        job.setConfig(config != null ? config : new ValidationConfig());
+        Map<FlatNamespaceModel, Integer> indices = new IdentityHashMap<>();
+        List<FlatNamespaceModel> namespaces = new ArrayList<>();
+        for (FlatNamespaceModel[] pair : pairs) {
+            int[] indexPair = new int[2];
+            for (int side = 0; side < 2; side++) {
+                Integer index = indices.get(pair[side]);
+                if (index == null) {
+                    index = namespaces.size();
+                    indices.put(pair[side], index);
+                    namespaces.add(pair[side]);
+                    job.getNamespaces().add(pair[side].getName());
+                }
+                indexPair[side] = index;
+            }
+            job.getPairs().add(indexPair);
+        }
+        
+        writeShards(namespaces);
+        MAPPER.writeValue(workDir.resolve(JOB_FILE).toFile(), job);
+        log.debug("Prepared sharded job in {}: {} namespaces, {} pairs, {} shards",
+                workDir, namespaces.size(), pairs.size(), shards);
+    }
+    
+    /**
+     * Start one worker process per shard on this machine and wait for all of them
+     * Worker output goes to worker-N.log in the work directory.
+     */
+    public void runLocalWorkers() throws IOException, InterruptedException {
+        List<Process> processes = new ArrayList<>(shards);
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                ProcessBuilder builder = new ProcessBuilder(workerCommand(shard));
+                builder.redirectErrorStream(true);
+                builder.redirectOutput(workDir.resolve("worker-" + shard + ".log").toFile());
+                processes.add(builder.start());
+            }
+            for (int shard = 0; shard < shards; shard++) {
+                int exitCode = processes.get(shard).waitFor();
+                if (exitCode != 0) {
+                    throw new IOException("Shard worker " + shard + " failed with exit code " + exitCode
+                            + ", see " + workDir.resolve("worker-" + shard + ".log"));
+                }
+            }
+        } finally {
+            for (Process process : processes) {
+                if (process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Command line starting the worker of one shard with this JVM and class path
+     * On another machine, run the same main class with the shared work directory and shard number.
+     */
+    public List<String> workerCommand(int shard) {
+        return Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                ShardWorker.class.getName(),
+                workDir.toAbsolutePath().toString(),
+                String.valueOf(shard));
+    }
+    
+    /**
+     * Wait until every shard has a result file (for workers started elsewhere)
+     */
+    public void awaitResults(Duration timeout) throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (int shard = 0; shard < shards; shard++) {
+            while (!Files.exists(resultFile(workDir, shard))) {
+                if (System.nanoTime() > deadline) {
+                    throw new IOException("Timed out waiting for the result of shard " + shard + " in " + workDir);
+                }
+                Thread.sleep(POLL_INTERVAL.toMillis());
+            }
+        }
+    }
+    
+    /**
+     * Merge the result files of all shards
+     *
+     * @return one comparison per pair, in the order of the pairs
+     */
+    public List<NamespaceComparison> merge() throws IOException {
+        ShardJob job = readJob(workDir);
+        ComparisonOptions options = job.toOptions();
+        int pairCount = job.getPairs().size();
+        List<List<ObjectComparison>> merged = new ArrayList<>(pairCount);
+        boolean[] truncated = new boolean[pairCount];
+        for (int p = 0; p < pairCount; p++) {
+            merged.add(new ArrayList<>());
+        }
+        
+        for (int shard = 0; shard < job.getShards(); shard++) {
+            Path file = resultFile(workDir, shard);
+            if (!Files.exists(file)) {
+                throw new IOException("Missing result of shard " + shard + " in " + workDir);
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                if (in.readInt() != FORMAT_VERSION || in.readInt() != pairCount) {
+                    throw new IOException("Result of shard " + shard + " does not belong to this job");
+                }
+                for (int p = 0; p < pairCount; p++) {
+                    truncated[p] |= in.readBoolean();
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        merged.get(p).add(ResultCodec.read(in, options));
+                    }
+                }
+            }
+        }
+        
+        List<NamespaceComparison> results = new ArrayList<>(pairCount);
+        for (int p = 0; p < pairCount; p++) {
+            int[] pair = job.getPairs().get(p);
+            NamespaceComparison comparison = new NamespaceComparison();
+            comparison.setLeftNamespace(job.getNamespaces().get(pair[0]));
+            comparison.setRightNamespace(job.getNamespaces().get(pair[1]));
+            List<ObjectComparison> objects = merged.get(p);
+            objects.sort(RESULT_ORDER);
+            for (ObjectComparison object : objects) {
+                comparison.addObjectResult(object.getObjectId(), object);
+            }
+            comparison.setTruncated(truncated[p]);
+            results.add(comparison);
+        }
+        return results;
+    }
+    
+    /**
+     * Delete the job, shard, result and log files of this coordinator
+     */
+    public void cleanup() throws IOException {
+        Files.deleteIfExists(workDir.resolve(JOB_FILE));
+        for (int shard = 0; shard < shards; shard++) {
+            Files.deleteIfExists(shardFile(workDir, shard));
+            Files.deleteIfExists(resultFile(workDir, shard));
+            Files.deleteIfExists(workDir.resolve("worker-" + shard + ".log"));
+        }
+    }
+    
+    /**
+     * Write every namespace's objects to the file of their shard
+     * Per namespace: name, cluster, then (key, encoded object) entries ended by a null key.
+     */
+    private void writeShards(List<FlatNamespaceModel> namespaces) throws IOException {
+        DataOutputStream[] outs = new DataOutputStream[shards];
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                outs[shard] = new DataOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(shardFile(workDir, shard))));
+                outs[shard].writeInt(FORMAT_VERSION);
+                outs[shard].writeInt(namespaces.size());
+            }
+            for (FlatNamespaceModel namespace : namespaces) {
+                for (DataOutputStream out : outs) {
+                    ResultCodec.writeString(out, namespace.getName());
+                    ResultCodec.writeString(out, namespace.getClusterName());
+                }
+                for (Map.Entry<String, FlatObjectModel> entry : namespace.getObjects().entrySet()) {
+                    DataOutputStream out = outs[shardOf(entry.getKey(), shards)];
+                    byte[] encoded = MappedModelStore.encode(entry.getValue());
+                    ResultCodec.writeString(out, entry.getKey());
+                    out.writeInt(encoded.length);
+                    out.write(encoded);
+                }
+                for (DataOutputStream out : outs) {
+                    ResultCodec.writeString(out, null);
+                }
+            }
+        } finally {
+            for (DataOutputStream out : outs) {
+                if (out != null) {
+                    out.close();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Read the namespaces of one shard, in job order
+     */
+    static List<FlatNamespaceModel> readShard(Path workDir, int shard) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(shardFile(workDir, shard))))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported shard file format: " + shardFile(workDir, shard));
+            }
+            int count = in.readInt();
+            List<FlatNamespaceModel> namespaces = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                FlatNamespaceModel namespace = new FlatNamespaceModel();
+                namespace.setName(ResultCodec.readString(in));
+                namespace.setClusterName(ResultCodec.readString(in));
+                String key;
+                while ((key = ResultCodec.readString(in)) != null) {
+                    byte[] encoded = new byte[in.readInt()];
+                    in.readFully(encoded);
+                    namespace.addObject(key, MappedModelStore.decode(ByteBuffer.wrap(encoded)));
+                }
+                namespaces.add(namespace);
+            }
+            return namespaces;
+        }
+    }
+    
+    /**
+     * Write the results of one shard (to a temporary file first, so a present result is complete)
+     */
+    static void writeResults(Path workDir, int shard, List<NamespaceComparison> results) throws IOException {
+        Path temp = Files.createTempFile(workDir, "result-" + shard + "-", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(results.size());
+                for (NamespaceComparison result : results) {
+                    out.writeBoolean(result.isTruncated());
+                    out.writeInt(result.getObjectComparisons().size());
+                    for (ObjectComparison object : result.getObjectComparisons().values()) {
+                        ResultCodec.write(out, object);
+                    }
+                }
+            }
+            Files.move(temp, resultFile(workDir, shard), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    static ShardJob readJob(Path workDir) throws IOException {
+        return MAPPER.readValue(workDir.resolve(JOB_FILE).toFile(), ShardJob.class);
+    }
+    
+    private static Path shardFile(Path workDir, int shard) {
+        return workDir.resolve("shard-" + shard + ".bin");
+    }
+    
+    private static Path resultFile(Path workDir, int shard) {
+        return workDir.resolve("result-" + shard + ".bin");
+    }
+    
+    /**
+     * Job description shared with the workers
+     */
+    @Data
+    @NoArgsConstructor
+    public static class ShardJob {
+        private int shards;
+        private boolean sparse;
+        private int parallelism = 1;
+        private int differenceLimit;
+        
+        /**
+         * Namespace names, in shard file order
+         */
+        private List<String> namespaces = new ArrayList<>();
+        
+        /**
+         * Pairs of namespace indices to compare
+         */
+        private List<int[]> pairs = new ArrayList<>();
+        
+        private ValidationConfig config;
+        
+        ComparisonOptions toOptions() {
+            ComparisonOptions options = new ComparisonOptions();
+            options.setSparse(sparse);
+            options.setParallelism(parallelism);
+            options.setDifferenceLimit(differenceLimit);
+            return options;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.comparison.FleetSimilarity;
+import com.nfv.validator.util.Fingerprint;
+import com.nfv.validator.util.MinHash;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Groups similar namespaces of a fleet with MinHash and locality-sensitive hashing
+ * Each namespace is reduced to a MinHash signature over its (object, path=value) set. Signatures
+ * are split into bands; namespaces with an identical band land in the same bucket and are checked
+ * against the bucket's earlier members (up to BUCKET_CANDIDATES of them, skipping those already in
+ * their group), and pairs at or above the threshold are merged into one group. Work is linear in the
+ * number of namespaces times the number of bands, instead of quadratic.
+ */
+@Slf4j
+public class SimilarityClusterer {
+    
+    /**
+     * Signature positions per LSH band: 32 bands of 4 over 128 hashes find pairs with a
+     * similarity of 0.6 or more with a probability above 98%
+     */
+    private static final int ROWS_PER_BAND = 4;
+    
+    /**
+     * Members of an LSH bucket kept as candidates for the namespaces landing in it later
+     */
+    private static final int BUCKET_CANDIDATES = 16;
+    
+    /**
+     * Members considered when picking a group's representative (the medoid of these)
+     */
+    private static final int MEDOID_SAMPLE = 64;
+    
+    private SimilarityClusterer() {
+    }
+    
+    /**
+     * Build the similarity map of a fleet
+     *
+     * @param threshold minimum estimated similarity (0..1) for two namespaces to be grouped
+     */
+    public static FleetSimilarity cluster(List<FlatNamespaceModel> namespaces, ValidationConfig config,
+                                          double threshold) {
+        MinHash minHash = new MinHash(MinHash.DEFAULT_HASHES);
+        int n = namespaces.size();
+        long[][] signatures = new long[n][];
+        for (int i = 0; i < n; i++) {
+            signatures[i] = signature(minHash, namespaces.get(i), config);
+        }
+        
+        int[] parent = link(signatures, threshold);
+        
+        Map<Integer, FleetSimilarity.Group> groups = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(find(parent, i), root -> new FleetSimilarity.Group()).getMembers().add(i);
+        }
+        
+        FleetSimilarity result = new FleetSimilarity();
+        result.setThreshold(threshold);
+        result.setSignatures(signatures);
+        for (FlatNamespaceModel namespace : namespaces) {
+            result.getNamespaces().add(namespace.getClusterName() + "/" + namespace.getName());
+        }
+        for (FleetSimilarity.Group group : groups.values()) {
+            group.setRepresentative(medoid(group.getMembers(), signatures));
+            result.getGroups().add(group);
+        }
+        result.getGroups().sort((a, b) -> Integer.compare(b.getMembers().size(), a.getMembers().size()));
+        
+        log.debug("Grouped {} namespaces into {} clusters and {} outliers", n,
+                result.getClusters().size(), result.getOutliers().size());
+        return result;
+    }
+    
+    /**
+     * MinHash signature over the filtered fields of all objects of a namespace
+     */
+    static long[] signature(MinHash minHash, FlatNamespaceModel namespace, ValidationConfig config) {
+        long[] signature = minHash.newSignature();
+        for (Map.Entry<String, FlatObjectModel> entry : namespace.getObjects().entrySet()) {
+            // The object itself is an element too, so empty objects still count
+            minHash.add(signature, Fingerprint.of(entry.getKey()).getLow());
+            for (Map.Entry<String, String> field : entry.getValue().getCanonicalFieldsFiltered(config).entrySet()) {
+                minHash.add(signature, Fingerprint.builder()
+                        .putString(entry.getKey())
+                        .putString(field.getKey())
+                        .putString(field.getValue())
+                        .build().getLow());
+            }
+        }
+        return signature;
+    }
+    
+    /**
+     * Merge namespaces whose signatures share a band and reach the threshold
+     *
+     * @return union-find parents; namespaces with the same root form one group
+     */
+    static int[] link(long[][] signatures, double threshold) {
+        int n = signatures.length;
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        int bands = n > 0 ? signatures[0].length / ROWS_PER_BAND : 0;
+        for (int band = 0; band < bands; band++) {
+            Map<Long, List<Integer>> buckets = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                List<Integer> bucket = buckets.computeIfAbsent(
+                        MinHash.bandHash(signatures[i], band, ROWS_PER_BAND), k -> new ArrayList<>(2));
+                for (int member : bucket) {
+                    if (find(parent, member) != find(parent, i)
+                            && MinHash.similarity(signatures[member], signatures[i]) >= threshold) {
+                        parent[find(parent, i)] = find(parent, member);
+                    }
+                }
+                if (bucket.size() < BUCKET_CANDIDATES) {
+                    bucket.add(i);
+                }
+            }
+        }
+        return parent;
+    }
+    
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+    
+    /**
+     * Member with the highest total similarity to the other (sampled) members
+     */
+    private static int medoid(List<Integer> members, long[][] signatures) {
+        List<Integer> sample = members.size() > MEDOID_SAMPLE ? members.subList(0, MEDOID_SAMPLE) : members;
+        int best = members.get(0);
+        double bestTotal = -1;
+        for (int candidate : sample) {
+            double total = 0;
+            for (int other : sample) {
+                total += MinHash.similarity(signatures[candidate], signatures[other]);
+            }
+            if (total > bestTotal) {
+                bestTotal = total;
+                best = candidate;
+            }
+        }
+        return best;
+    }
+}
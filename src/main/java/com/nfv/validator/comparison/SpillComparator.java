@@ -0,0 +1,398 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.ValueNormalizer;
+import com.nfv.validator.model.comparison.KeyComparison;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import com.nfv.validator.model.comparison.ObjectComparison;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Namespace comparison in external memory, for models whose flattened fields do not fit in the heap
+ * Each namespace is spilled once as (object, path, value, canonical value) tuples into sorted run files of at most
+ * the memory budget each; a comparison then k-way merges the runs of each side and merge-joins
+ * the two sorted streams, holding only one read buffer per run and the current object's result.
+ * Results are the same as NamespaceComparator's (objects ordered by object ID).
+ */
+@Slf4j
+public class SpillComparator {
+    
+    /**
+     * Default heap budget for buffering tuples before a run is written (64 MiB)
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+    
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * Estimated heap cost of a buffered tuple besides its characters (tuple, strings, list slot)
+     */
+    private static final int TUPLE_OVERHEAD = 96;
+    
+    /**
+     * Orders tuples by object ID, then path; the object marker (empty path) comes first
+     */
+    private static final Comparator<Tuple> TUPLE_ORDER =
+            Comparator.comparing((Tuple t) -> t.objectId).thenComparing(t -> t.path);
+    
+    private final Path workDir;
+    private final long memoryBudget;
+    
+    /**
+     * @param workDir directory for run files (created if missing)
+     * @param memoryBudget heap budget in bytes for buffering tuples while spilling
+     */
+    public SpillComparator(Path workDir, long memoryBudget) {
+        this.workDir = workDir;
+        this.memoryBudget = memoryBudget;
+    }
+    
+    /**
+     * Write the filtered fields of a namespace to sorted run files
+     * The model may be a mapped (off-heap) model; objects are read one at a time.
+     */
+    public SpilledNamespace spill(FlatNamespaceModel model, ValidationConfig config) throws IOException {
+        Files.createDirectories(workDir);
+        SpilledNamespace spilled = new SpilledNamespace(model.getName());
+        ValueNormalizer normalizer = config != null ? config.getValueNormalizer() : null;
+        List<Tuple> buffer = new ArrayList<>();
+        long bufferedBytes = 0;
+        try {
+            for (Map.Entry<String, FlatObjectModel> entry : model.getObjects().entrySet()) {
+                String objectId = entry.getKey();
+                FlatObjectModel object = entry.getValue();
+                buffer.add(new Tuple(objectId, "", object.getKind(), object.getKind()));
+                bufferedBytes += TUPLE_OVERHEAD + objectId.length();
+                for (Map.Entry<String, String> field : object.getAllFieldsFiltered(config).entrySet()) {
+                    String value = field.getValue();
+                    String canonical = normalizer != null
+                            ? normalizer.normalize(object.getKind(), field.getKey(), value) : value;
+                    buffer.add(new Tuple(objectId, field.getKey(), value, canonical));
+                    bufferedBytes += TUPLE_OVERHEAD + field.getKey().length() + (value != null ? value.length() : 0)
+                            + (!Objects.equals(canonical, value) ? canonical.length() : 0);
+                }
+                if (bufferedBytes >= memoryBudget) {
+                    spilled.runs.add(writeRun(buffer));
+                    buffer.clear();
+                    bufferedBytes = 0;
+                }
+            }
+            if (!buffer.isEmpty() || spilled.runs.isEmpty()) {
+                spilled.runs.add(writeRun(buffer));
+            }
+        } catch (IOException | RuntimeException e) {
+            spilled.close();
+            throw e;
+        }
+        log.debug("Spilled namespace {} into {} run(s)", model.getName(), spilled.runs.size());
+        return spilled;
+    }
+    
+    /**
+     * Compare two namespaces through run files (spilled and deleted within this call)
+     */
+    public NamespaceComparison compare(FlatNamespaceModel left, FlatNamespaceModel right,
+                                       ValidationConfig config, ComparisonOptions options) throws IOException {
+        try (SpilledNamespace leftRuns = spill(left, config);
+             SpilledNamespace rightRuns = spill(right, config)) {
+            return compare(leftRuns, rightRuns, options);
+        }
+    }
+    
+    /**
+     * Compare two spilled namespaces into a NamespaceComparison
+     */
+    public NamespaceComparison compare(SpilledNamespace left, SpilledNamespace right,
+                                       ComparisonOptions options) throws IOException {
+        NamespaceComparison comparison = new NamespaceComparison();
+        comparison.setLeftNamespace(left.getName());
+        comparison.setRightNamespace(right.getName());
+        ComparisonListener listener = new ComparisonListener() {
+            @Override
+            public void onObject(ObjectComparison result) {
+                comparison.addObjectResult(result.getObjectId(), result);
+            }
+            
+            @Override
+            public void onComplete(NamespaceComparison.ComparisonSummary summary, boolean truncated) {
+                comparison.setTruncated(truncated);
+            }
+        };
+        stream(left, right, options, listener);
+        return comparison;
+    }
+    
+    /**
+     * Compare two spilled namespaces, pushing each object result to a listener as it is completed
+     *
+     * @return summary of the emitted results
+     */
+    public NamespaceComparison.ComparisonSummary stream(SpilledNamespace left, SpilledNamespace right,
+                                                        ComparisonOptions options,
+                                                        ComparisonListener listener) throws IOException {
+        NamespaceComparison.ComparisonSummary summary = new NamespaceComparison.ComparisonSummary();
+        boolean truncated = false;
+        int differing = 0;
+        try (MergedRuns l = left.open(); MergedRuns r = right.open()) {
+            while (l.peek() != null || r.peek() != null) {
+                if (options.getDifferenceLimit() > 0 && differing >= options.getDifferenceLimit()) {
+                    truncated = true;
+                    break;
+                }
+                int cmp = l.peek() == null ? 1
+                        : r.peek() == null ? -1
+                        : l.peek().objectId.compareTo(r.peek().objectId);
+                ObjectComparison result;
+                if (cmp < 0) {
+                    Tuple marker = l.skipObject();
+                    result = NamespaceComparator.onlyOnOneSide(marker.objectId, marker.value, true, options);
+                } else if (cmp > 0) {
+                    Tuple marker = r.skipObject();
+                    result = NamespaceComparator.onlyOnOneSide(marker.objectId, marker.value, false, options);
+                } else {
+                    result = compareObject(l, r, options);
+                }
+                
+                for (KeyComparison difference : result.getDifferences()) {
+                    listener.onDifference(result, difference);
+                }
+                listener.onObject(result);
+                summary = NamespaceComparison.adjust(summary, null, result);
+                differing += result.isFullMatch() ? 0 : 1;
+            }
+        }
+        listener.onComplete(summary, truncated);
+        return summary;
+    }
+    
+    /**
+     * Merge-join the fields of the object both streams are positioned at
+     */
+    private static ObjectComparison compareObject(MergedRuns left, MergedRuns right, ComparisonOptions options)
+            throws IOException {
+        Tuple leftMarker = left.next();
+        right.next();
+        String objectId = leftMarker.objectId;
+        ObjectComparison comparison = NamespaceComparator.newObjectComparison(objectId, leftMarker.value, options);
+        
+        Tuple l = left.peekField(objectId);
+        Tuple r = right.peekField(objectId);
+        while (l != null || r != null) {
+            int cmp = l == null ? 1 : r == null ? -1 : l.path.compareTo(r.path);
+            String key = cmp <= 0 ? l.path : r.path;
+            Tuple leftField = cmp <= 0 ? left.next() : null;
+            Tuple rightField = cmp >= 0 ? right.next() : null;
+            NamespaceComparator.addItem(comparison, key,
+                    leftField != null ? leftField.value : null, rightField != null ? rightField.value : null,
+                    cmp == 0 && Objects.equals(leftField.canonical, rightField.canonical));
+            l = left.peekField(objectId);
+            r = right.peekField(objectId);
+        }
+        return comparison;
+    }
+    
+    private Path writeRun(List<Tuple> buffer) throws IOException {
+        buffer.sort(TUPLE_ORDER);
+        Path file = Files.createTempFile(workDir, "run-", ".spill");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), WRITE_BUFFER_SIZE))) {
+            for (Tuple tuple : buffer) {
+                writeString(out, tuple.objectId);
+                writeString(out, tuple.path);
+                writeString(out, tuple.value);
+                // Written only where normalizing changed the value
+                writeString(out, Objects.equals(tuple.canonical, tuple.value) ? null : tuple.canonical);
+            }
+        }
+        return file;
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Sorted run files of one namespace; closing deletes them
+     */
+    public static final class SpilledNamespace implements Closeable {
+        @Getter
+        private final String name;
+        private final List<Path> runs = new ArrayList<>();
+        
+        private SpilledNamespace(String name) {
+            this.name = name;
+        }
+        
+        public int getRunCount() {
+            return runs.size();
+        }
+        
+        private MergedRuns open() throws IOException {
+            MergedRuns merged = new MergedRuns();
+            try {
+                for (Path run : runs) {
+                    merged.add(new RunReader(run));
+                }
+            } catch (IOException e) {
+                merged.close();
+                throw e;
+            }
+            return merged;
+        }
+        
+        @Override
+        public void close() {
+            for (Path run : runs) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException e) {
+                    log.warn("Failed to delete run file {}: {}", run, e.getMessage());
+                }
+            }
+            runs.clear();
+        }
+    }
+    
+    private static final class Tuple {
+        final String objectId;
+        final String path;
+        final String value;
+        final String canonical;
+        
+        Tuple(String objectId, String path, String value, String canonical) {
+            this.objectId = objectId;
+            this.path = path;
+            this.value = value;
+            this.canonical = canonical;
+        }
+    }
+    
+    /**
+     * Sequential reader of one run file, positioned at its current tuple
+     */
+    private static final class RunReader implements Closeable {
+        private final DataInputStream in;
+        private Tuple current;
+        
+        RunReader(Path file) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), READ_BUFFER_SIZE));
+            advance();
+        }
+        
+        void advance() throws IOException {
+            try {
+                String objectId = readString(in);
+                String path = readString(in);
+                String value = readString(in);
+                String canonical = readString(in);
+                current = new Tuple(objectId, path, value, canonical != null ? canonical : value);
+            } catch (EOFException e) {
+                current = null;
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+    
+    /**
+     * K-way merge of the run files of one namespace into a single sorted tuple stream
+     */
+    private static final class MergedRuns implements Closeable {
+        private final List<RunReader> readers = new ArrayList<>();
+        private final PriorityQueue<RunReader> queue =
+                new PriorityQueue<>((a, b) -> TUPLE_ORDER.compare(a.current, b.current));
+        
+        void add(RunReader reader) {
+            readers.add(reader);
+            if (reader.current != null) {
+                queue.add(reader);
+            }
+        }
+        
+        Tuple peek() {
+            RunReader head = queue.peek();
+            return head != null ? head.current : null;
+        }
+        
+        /**
+         * Next field tuple of the given object, or null once the stream has moved past it
+         */
+        Tuple peekField(String objectId) {
+            Tuple next = peek();
+            return next != null && next.objectId.equals(objectId) ? next : null;
+        }
+        
+        Tuple next() throws IOException {
+            RunReader head = queue.poll();
+            if (head == null) {
+                return null;
+            }
+            Tuple tuple = head.current;
+            head.advance();
+            if (head.current != null) {
+                queue.add(head);
+            }
+            return tuple;
+        }
+        
+        /**
+         * Consume all tuples of the current object
+         *
+         * @return its marker tuple (value = kind)
+         */
+        Tuple skipObject() throws IOException {
+            Tuple marker = next();
+            while (peekField(marker.objectId) != null) {
+                next();
+            }
+            return marker;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+}
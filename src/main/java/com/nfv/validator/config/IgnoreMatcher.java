@@ -0,0 +1,256 @@
+package com.nfv.validator.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ignore configuration compiled into a character trie, one per resource kind
+ * Covers plain ignore fields (all kinds) and IgnoreRule entries (scoped by resourceType).
+ * A pattern matches a field path when it equals the path or is a prefix of it ending at a
+ * '.' or '[' boundary ("status" matches "status.replicas" and "status.conditions[0].type").
+ * Two wildcards are supported: "[*]" matches any list index ("containers[*].image") and a
+ * "*" segment matches any single segment ("metadata.*", "spec.*.image").
+ * Matching walks the trie along the path: it does not allocate and its cost depends on the
+ * path length, not on the number of rules.
+ */
+public final class IgnoreMatcher {
+    
+    /**
+     * Result of matching a path
+     */
+    public enum Match {
+        /** No rule matches this path or any path below it */
+        NONE,
+        /** The path itself is not ignored, but some paths below it may be */
+        PARTIAL,
+        /** The path and everything below it is ignored */
+        IGNORED
+    }
+    
+    private final Node global;
+    private final Map<String, List<String>> patternsByKind;
+    private final List<String> globalPatterns;
+    private final Map<String, Node> kindTries = new ConcurrentHashMap<>();
+    
+    /**
+     * Compile ignore fields and rules
+     *
+     * @param ignoreFields paths ignored for all kinds (may be null)
+     * @param ignoreRules rules, optionally scoped to a resource type (may be null)
+     */
+    public IgnoreMatcher(List<String> ignoreFields, List<IgnoreRule> ignoreRules) {
+        globalPatterns = new ArrayList<>();
+        patternsByKind = new TreeMap<>();
+        if (ignoreFields != null) {
+            globalPatterns.addAll(ignoreFields);
+        }
+        if (ignoreRules != null) {
+            for (IgnoreRule rule : ignoreRules) {
+                if (rule.getJsonPath() == null) {
+                    continue;
+                }
+                if (rule.getResourceType() == null || rule.getResourceType().isEmpty()) {
+                    globalPatterns.add(rule.getJsonPath());
+                } else {
+                    patternsByKind.computeIfAbsent(rule.getResourceType(), k -> new ArrayList<>())
+                            .add(rule.getJsonPath());
+                }
+            }
+        }
+        global = compile(globalPatterns, Collections.emptyList());
+    }
+    
+    /**
+     * Check whether a field path is ignored for a kind
+     *
+     * @param kind resource kind (null = only rules that apply to all kinds)
+     */
+    public boolean matches(String kind, String fieldPath) {
+        return match(kind, fieldPath) == Match.IGNORED;
+    }
+    
+    /**
+     * Match a field path (or the path of a subtree) for a kind
+     */
+    public Match match(String kind, String fieldPath) {
+        if (fieldPath == null) {
+            return Match.NONE;
+        }
+        return match(trieFor(kind), fieldPath, 0);
+    }
+    
+    /**
+     * Get the matcher for one kind, for callers matching many paths of the same object
+     */
+    public Scope forKind(String kind) {
+        return new Scope(trieFor(kind));
+    }
+    
+    private Node trieFor(String kind) {
+        if (kind == null || !patternsByKind.containsKey(kind)) {
+            return global;
+        }
+        Node trie = kindTries.get(kind);
+        if (trie == null) {
+            trie = compile(globalPatterns, patternsByKind.get(kind));
+            kindTries.put(kind, trie);
+        }
+        return trie;
+    }
+    
+    private static Match match(Node node, String path, int i) {
+        int length = path.length();
+        if (node.terminal && (i == length || path.charAt(i) == '.' || path.charAt(i) == '[')) {
+            return Match.IGNORED;
+        }
+        if (i == length) {
+            return node.isEmpty() ? Match.NONE : Match.PARTIAL;
+        }
+        
+        Match result = Match.NONE;
+        char c = path.charAt(i);
+        
+        Node next = node.child(c);
+        if (next != null) {
+            result = match(next, path, i + 1);
+            if (result == Match.IGNORED) {
+                return result;
+            }
+        }
+        
+        if (node.anyIndex != null && c == '[') {
+            int end = path.indexOf(']', i);
+            Match r = end < 0 ? Match.PARTIAL : match(node.anyIndex, path, end + 1);
+            if (r == Match.IGNORED) {
+                return r;
+            }
+            result = r.compareTo(result) > 0 ? r : result;
+        }
+        
+        if (node.anySegment != null) {
+            int end = i;
+            while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                end++;
+            }
+            if (end > i) {
+                Match r = match(node.anySegment, path, end);
+                if (r == Match.IGNORED) {
+                    return r;
+                }
+                result = r.compareTo(result) > 0 ? r : result;
+            }
+        }
+        
+        return result;
+    }
+    
+    private static Node compile(List<String> patterns, List<String> morePatterns) {
+        Builder root = new Builder();
+        for (String pattern : patterns) {
+            root.add(pattern);
+        }
+        for (String pattern : morePatterns) {
+            root.add(pattern);
+        }
+        return root.build();
+    }
+    
+    /**
+     * Ignore configuration of a single kind
+     */
+    public static final class Scope {
+        private final Node root;
+        
+        private Scope(Node root) {
+            this.root = root;
+        }
+        
+        /**
+         * Match a field path (or the path of a subtree)
+         */
+        public Match match(String fieldPath) {
+            return fieldPath != null ? IgnoreMatcher.match(root, fieldPath, 0) : Match.NONE;
+        }
+    }
+    
+    /**
+     * Compiled trie node; child edges are kept in sorted arrays for allocation-free lookup
+     */
+    private static final class Node {
+        final char[] keys;
+        final Node[] children;
+        final Node anyIndex;
+        final Node anySegment;
+        final boolean terminal;
+        
+        Node(char[] keys, Node[] children, Node anyIndex, Node anySegment, boolean terminal) {
+            this.keys = keys;
+            this.children = children;
+            this.anyIndex = anyIndex;
+            this.anySegment = anySegment;
+            this.terminal = terminal;
+        }
+        
+        Node child(char c) {
+            int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? children[index] : null;
+        }
+        
+        boolean isEmpty() {
+            return keys.length == 0 && anyIndex == null && anySegment == null;
+        }
+    }
+    
+    /**
+     * Mutable trie node used while compiling
+     */
+    private static final class Builder {
+        final TreeMap<Character, Builder> children = new TreeMap<>();
+        Builder anyIndex;
+        Builder anySegment;
+        boolean terminal;
+        
+        void add(String pattern) {
+            if (pattern == null || pattern.isEmpty()) {
+                return;
+            }
+            Builder node = this;
+            int i = 0;
+            while (i < pattern.length()) {
+                char c = pattern.charAt(i);
+                if (pattern.startsWith("[*]", i)) {
+                    node = node.anyIndex != null ? node.anyIndex : (node.anyIndex = new Builder());
+                    i += 3;
+                } else if (c == '*' && (i == 0 || pattern.charAt(i - 1) == '.')
+                        && (i + 1 == pattern.length() || pattern.charAt(i + 1) == '.' || pattern.charAt(i + 1) == '[')) {
+                    node = node.anySegment != null ? node.anySegment : (node.anySegment = new Builder());
+                    i++;
+                } else {
+                    node = node.children.computeIfAbsent(c, k -> new Builder());
+                    i++;
+                }
+            }
+            node.terminal = true;
+        }
+        
+        Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int index = 0;
+            for (Map.Entry<Character, Builder> entry : children.entrySet()) {
+                keys[index] = entry.getKey();
+                nodes[index] = entry.getValue().build();
+                index++;
+            }
+            return new Node(keys, nodes,
+                    anyIndex != null ? anyIndex.build() : null,
+                    anySegment != null ? anySegment.build() : null,
+                    terminal);
+        }
+    }
+}
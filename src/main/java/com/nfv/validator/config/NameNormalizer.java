@@ -0,0 +1,55 @@
+package com.nfv.validator.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Name rules compiled into regular expressions, applied in order
+ * Used to pair objects whose names differ only by a site-specific part (e.g. "upf-cfg-site1"
+ * and "upf-cfg-site2" both become "upf-cfg" with the rule "-site\\d+$").
+ */
+public final class NameNormalizer {
+    
+    private final List<NameRule> rules = new ArrayList<>();
+    private final List<Pattern> patterns = new ArrayList<>();
+    
+    /**
+     * Compile name rules
+     *
+     * @param nameRules rules, optionally scoped to a resource type (may be null)
+     * @throws java.util.regex.PatternSyntaxException if a pattern is not a valid regular expression
+     */
+    public NameNormalizer(List<NameRule> nameRules) {
+        if (nameRules != null) {
+            for (NameRule rule : nameRules) {
+                if (rule.getPattern() == null) {
+                    continue;
+                }
+                rules.add(rule);
+                patterns.add(Pattern.compile(rule.getPattern()));
+            }
+        }
+    }
+    
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+    
+    /**
+     * Apply the rules for a kind to a name (or to any value mentioning it)
+     */
+    public String normalize(String kind, String name) {
+        if (name == null) {
+            return null;
+        }
+        String result = name;
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i).appliesTo(kind)) {
+                String replacement = rules.get(i).getReplacement();
+                result = patterns.get(i).matcher(result).replaceAll(replacement != null ? replacement : "");
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,36 @@
+package com.nfv.validator.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a rule rewriting object names before unpaired objects are matched across namespaces
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NameRule {
+    /**
+     * Resource type to apply this rule to (e.g., "ConfigMap", "Service")
+     * Empty string means apply to all resource types
+     */
+    private String resourceType;
+    
+    /**
+     * Regular expression matched against the object name (e.g., "-site\\d+$")
+     */
+    private String pattern;
+    
+    /**
+     * Replacement for each match, may refer to groups as $1 (empty string removes the match)
+     */
+    private String replacement = "";
+    
+    /**
+     * Check if this rule applies to a given resource type
+     */
+    public boolean appliesTo(String kind) {
+        return resourceType == null || resourceType.isEmpty() || resourceType.equals(kind);
+    }
+}
@@ -0,0 +1,31 @@
+package com.nfv.validator.config;
+
+import com.nfv.validator.model.ValueNormalizer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a rule selecting fields whose values are compared in canonical form
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NormalizeRule {
+    /**
+     * Resource type to apply this rule to (e.g., "Deployment", "Service")
+     * Empty string means apply to all resource types
+     */
+    private String resourceType;
+    
+    /**
+     * Path of the field or subtree to normalize, with the same syntax as ignore rules
+     * (e.g., "spec.template.spec.containers[*].resources", "spec.ports[*].port")
+     */
+    private String jsonPath;
+    
+    /**
+     * How values are canonicalized
+     */
+    private ValueNormalizer.Type type;
+}
@@ -1,14 +1,27 @@
 package com.nfv.validator.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.nfv.validator.model.LargeValues;
+import com.nfv.validator.model.ValueNormalizer;
+import com.nfv.validator.util.Fingerprint;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration for validation and comparison
@@ -24,6 +37,38 @@ public class ValidationConfig {
      */
     private List<String> ignoreFields = new ArrayList<>();
     
+    /**
+     * Ignore rules scoped to a resource type (empty resourceType = all kinds)
+     * Paths may use "[*]" for any list index and "*" for any single segment,
+     * e.g. {resourceType: Deployment, jsonPath: "spec.template.spec.containers[*].image"}
+     */
+    private List<IgnoreRule> ignoreRules = new ArrayList<>();
+    
+    /**
+     * Rules selecting fields that are compared in canonical form (quantities, ports, booleans, durations)
+     * e.g. {jsonPath: "spec.template.spec.containers[*].resources", type: QUANTITY} makes "1000m" equal "1"
+     */
+    private List<NormalizeRule> normalizeRules = new ArrayList<>();
+    
+    /**
+     * Merge keys of lists, by list field name (e.g. containers: [name], ports: [name, containerPort])
+     * Elements of these lists are flattened as "containers[name=web]" instead of "containers[0]", using
+     * the first candidate key that every element has with a unique value; other lists stay positional.
+     */
+    private Map<String, List<String>> listKeys = new LinkedHashMap<>();
+    
+    /**
+     * Rules rewriting object names for fuzzy pairing (see ComparisonOptions.fuzzyPairing)
+     * e.g. {pattern: "-site\\d+$", replacement: ""} pairs "upf-cfg-site1" with "upf-cfg-site2"
+     */
+    private List<NameRule> nameRules = new ArrayList<>();
+    
+    /**
+     * Leaf values longer than this (characters) are stored as digest + length + preview
+     * instead of verbatim (e.g. certificate chains, embedded config files); 0 disables
+     */
+    private int largeValueThreshold = LargeValues.DEFAULT_THRESHOLD;
+    
     /**
      * Load configuration from YAML file
      */
@@ -55,28 +100,185 @@ public class ValidationConfig {
     }
     
     /**
-     * Check if a field should be ignored
+     * Compiled form of ignoreFields and ignoreRules, rebuilt after they are changed through this class
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile IgnoreMatcher ignoreMatcher;
+    
+    /**
+     * Compiled form of normalizeRules, rebuilt after they are changed through this class
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile ValueNormalizer valueNormalizer;
+    
+    /**
+     * Compiled form of nameRules, rebuilt after they are changed through this class
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile NameNormalizer nameNormalizer;
+    
+    /**
+     * Fingerprint of all settings, recomputed after they are changed through this class
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile Fingerprint fingerprint;
+    
+    /**
+     * Check if a field should be ignored (rules that apply to all kinds)
      * @param fieldPath Full field path (e.g., "metadata.uid", "spec.replicas")
      * @return true if field should be ignored
      */
     public boolean shouldIgnore(String fieldPath) {
-        if (fieldPath == null || ignoreFields == null) {
-            return false;
+        return shouldIgnore(null, fieldPath);
+    }
+    
+    /**
+     * Check if a field of an object of the given kind should be ignored
+     * Prefix match: "status" also matches "status.replicas", "status.conditions[0].type"
+     * @param kind Resource kind (e.g., "Deployment"), null for rules that apply to all kinds
+     * @param fieldPath Full field path
+     * @return true if field should be ignored
+     */
+    public boolean shouldIgnore(String kind, String fieldPath) {
+        return getIgnoreMatcher().matches(kind, fieldPath);
+    }
+    
+    /**
+     * Get the compiled ignore matcher
+     * The instance changes whenever the ignore configuration changes, so it can be used as a cache key.
+     */
+    @JsonIgnore
+    public IgnoreMatcher getIgnoreMatcher() {
+        IgnoreMatcher matcher = ignoreMatcher;
+        if (matcher == null) {
+            matcher = new IgnoreMatcher(ignoreFields, ignoreRules);
+            ignoreMatcher = matcher;
         }
+        return matcher;
+    }
         
-        // Direct match
-        if (ignoreFields.contains(fieldPath)) {
-            return true;
+    /**
+     * Get the compiled value normalizer (holds the memoized canonical values)
+     */
+    @JsonIgnore
+    public ValueNormalizer getValueNormalizer() {
+        ValueNormalizer normalizer = valueNormalizer;
+        if (normalizer == null) {
+            normalizer = new ValueNormalizer(normalizeRules);
+            valueNormalizer = normalizer;
         }
-        
-        // Prefix match (e.g., "status" matches "status.replicas", "status.conditions[0].type")
-        for (String ignorePattern : ignoreFields) {
-            if (fieldPath.equals(ignorePattern) || fieldPath.startsWith(ignorePattern + ".") || fieldPath.startsWith(ignorePattern + "[")) {
-                return true;
+        return normalizer;
+    }
+    
+    public void setNormalizeRules(List<NormalizeRule> normalizeRules) {
+        this.normalizeRules = normalizeRules;
+        this.valueNormalizer = null;
+        this.fingerprint = null;
+    }
+    
+    /**
+     * Add a normalize rule scoped to a resource type (empty = all kinds)
+     */
+    public void addNormalizeRule(String resourceType, String jsonPath, ValueNormalizer.Type type) {
+        normalizeRules.add(new NormalizeRule(resourceType, jsonPath, type));
+        valueNormalizer = null;
+        fingerprint = null;
+    }
+    
+    /**
+     * Get a fingerprint of all settings (e.g. to key results cached across runs)
+     * Configs with the same settings have the same fingerprint in every run.
+     */
+    @JsonIgnore
+    public Fingerprint getFingerprint() {
+        Fingerprint result = fingerprint;
+        if (result == null) {
+            try {
+                result = Fingerprint.of(new ObjectMapper().writeValueAsString(this));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Cannot serialize validation config", e);
             }
+            fingerprint = result;
         }
+        return result;
+    }
+    
+    /**
+     * Get the compiled name rules
+     */
+    @JsonIgnore
+    public NameNormalizer getNameNormalizer() {
+        NameNormalizer normalizer = nameNormalizer;
+        if (normalizer == null) {
+            normalizer = new NameNormalizer(nameRules);
+            nameNormalizer = normalizer;
+        }
+        return normalizer;
+    }
+    
+    public void setNameRules(List<NameRule> nameRules) {
+        this.nameRules = nameRules;
+        this.nameNormalizer = null;
+        this.fingerprint = null;
+    }
+    
+    /**
+     * Add a name rule scoped to a resource type (empty = all kinds)
+     */
+    public void addNameRule(String resourceType, String pattern, String replacement) {
+        nameRules.add(new NameRule(resourceType, pattern, replacement));
+        nameNormalizer = null;
+        fingerprint = null;
+    }
+    
+    /**
+     * Get the merge key candidates of a list field (empty if the list is matched by position)
+     */
+    public List<String> getListKeys(String listField) {
+        List<String> keys = listKeys.get(listField);
+        return keys != null ? keys : Collections.<String>emptyList();
+    }
+    
+    /**
+     * Add a merge key candidate for a list field
+     */
+    public void addListKey(String listField, String key) {
+        listKeys.computeIfAbsent(listField, f -> new ArrayList<>()).add(key);
+        fingerprint = null;
+    }
+    
+    public void setListKeys(Map<String, List<String>> listKeys) {
+        this.listKeys = listKeys;
+        this.fingerprint = null;
+    }
+    
+    public void setLargeValueThreshold(int largeValueThreshold) {
+        this.largeValueThreshold = largeValueThreshold;
+        this.fingerprint = null;
+    }
+    
+    public void setIgnoreFields(List<String> ignoreFields) {
+        this.ignoreFields = ignoreFields;
+        this.ignoreMatcher = null;
+        this.fingerprint = null;
+    }
         
-        return false;
+    public void setIgnoreRules(List<IgnoreRule> ignoreRules) {
+        this.ignoreRules = ignoreRules;
+        this.ignoreMatcher = null;
+        this.fingerprint = null;
     }
     
     /**
@@ -85,6 +287,17 @@ public class ValidationConfig {
     public void addIgnoreField(String fieldPath) {
         if (!ignoreFields.contains(fieldPath)) {
             ignoreFields.add(fieldPath);
+            ignoreMatcher = null;
+            fingerprint = null;
         }
     }
+    
+    /**
+     * Add an ignore rule scoped to a resource type
+     */
+    public void addIgnoreRule(String resourceType, String jsonPath) {
+        ignoreRules.add(new IgnoreRule(resourceType, jsonPath));
+        ignoreMatcher = null;
+        fingerprint = null;
+    }
 }
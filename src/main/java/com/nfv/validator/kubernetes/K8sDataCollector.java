@@ -2,8 +2,15 @@ package com.nfv.validator.kubernetes;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nfv.validator.config.IgnoreMatcher;
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FieldNode;
 import com.nfv.validator.model.FlatNamespaceModel;
 import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.KeyedList;
+import com.nfv.validator.model.LargeValues;
+import com.nfv.validator.model.ModelInterner;
+import com.nfv.validator.model.ValueNormalizer;
 import io.fabric8.kubernetes.api.model.*;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.api.model.apps.StatefulSet;
@@ -20,10 +27,45 @@ import java.util.*;
 public class K8sDataCollector {
 
     private final KubernetesClient client;
+    private final ValidationConfig validationConfig;
+    private final boolean filterIgnored;
+    private final ModelInterner interner;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public K8sDataCollector(KubernetesClient client) {
+        this(client, null);
+    }
+
+    /**
+     * @param client Kubernetes client
+     * @param validationConfig config the collected objects will be compared with; ignored fields
+     *                         are skipped while flattening
+     */
+    public K8sDataCollector(KubernetesClient client, ValidationConfig validationConfig) {
+        this(client, validationConfig, true);
+    }
+    
+    /**
+     * @param client Kubernetes client
+     * @param validationConfig config the collected objects will be compared with (used for fingerprints)
+     * @param filterIgnored skip ignored fields while flattening; false keeps every field (e.g. for snapshots)
+     */
+    public K8sDataCollector(KubernetesClient client, ValidationConfig validationConfig, boolean filterIgnored) {
+        this(client, validationConfig, filterIgnored, new ModelInterner());
+    }
+    
+    /**
+     * @param client Kubernetes client
+     * @param validationConfig config the collected objects will be compared with (used for fingerprints)
+     * @param filterIgnored skip ignored fields while flattening; false keeps every field (e.g. for snapshots)
+     * @param interner content store shared with the other collectors of the same run
+     */
+    public K8sDataCollector(KubernetesClient client, ValidationConfig validationConfig, boolean filterIgnored,
+                            ModelInterner interner) {
         this.client = client;
+        this.validationConfig = validationConfig;
+        this.filterIgnored = filterIgnored;
+        this.interner = interner;
     }
 
     /**
@@ -46,7 +88,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (Deployment deployment : deployments) {
             FlatObjectModel flatObj = convertToFlatObjectModel(deployment);
-            model.addObject(deployment.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
         log.debug("Collected {} Deployments", deployments.size());
 
@@ -55,7 +97,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (StatefulSet statefulSet : statefulSets) {
             FlatObjectModel flatObj = convertToFlatObjectModel(statefulSet);
-            model.addObject(statefulSet.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
         log.debug("Collected {} StatefulSets", statefulSets.size());
 
@@ -64,7 +106,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (DaemonSet daemonSet : daemonSets) {
             FlatObjectModel flatObj = convertToFlatObjectModel(daemonSet);
-            model.addObject(daemonSet.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
         log.debug("Collected {} DaemonSets", daemonSets.size());
 
@@ -73,7 +115,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (Service service : services) {
             FlatObjectModel flatObj = convertToFlatObjectModel(service);
-            model.addObject(service.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
         log.debug("Collected {} Services", services.size());
 
@@ -82,7 +124,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (ConfigMap configMap : configMaps) {
             FlatObjectModel flatObj = convertToFlatObjectModel(configMap);
-            model.addObject(configMap.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
         log.debug("Collected {} ConfigMaps", configMaps.size());
 
@@ -91,7 +133,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (Secret secret : secrets) {
             FlatObjectModel flatObj = convertToFlatObjectModel(secret);
-            model.addObject(secret.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
         log.debug("Collected {} Secrets", secrets.size());
 
@@ -100,7 +142,7 @@ public class K8sDataCollector {
         //         .inNamespace(namespace).list().getItems();
         // for (Pod pod : pods) {
         //     FlatObjectModel flatObj = convertToFlatObjectModel(pod);
-        //     model.addObject(pod.getMetadata().getName(), flatObj);
+        //     model.addObject(flatObj);
         // }
         // log.debug("Collected {} Pods", pods.size());
 
@@ -125,44 +167,76 @@ public class K8sDataCollector {
         model.setName(kubernetesObject.getMetadata().getName());
         model.setNamespace(kubernetesObject.getMetadata().getNamespace());
 
+        // Field tree built alongside the flat maps
+        FieldNode fieldTree = FieldNode.inner();
+
+        // Ignored subtrees are skipped while flattening, so they are never materialized
+        IgnoreMatcher matcher = filterIgnored && validationConfig != null ? validationConfig.getIgnoreMatcher() : null;
+        IgnoreMatcher.Scope ignore = matcher != null ? matcher.forKind(kubernetesObject.getKind()) : null;
+        
         // Flatten and set metadata
-        Map<String, String> flattenedMetadata = flattenMetadata(kubernetesObject.getMetadata());
+        Map<String, String> flattenedMetadata = flattenMetadata(kubernetesObject.getMetadata(), fieldTree, ignore);
         model.setMetadata(flattenedMetadata);
 
         // Flatten and set spec
-        Map<String, String> flattenedSpec = flattenSpec(kubernetesObject);
+        Map<String, String> flattenedSpec = flattenSpec(kubernetesObject, fieldTree, ignore);
         model.setSpec(flattenedSpec);
 
+        // Set the tree and filter mark last - setting the flat maps drops them
+        model.setFieldTree(fieldTree);
+        model.markPrefiltered(matcher);
+
+        // Share content with identical objects collected earlier in this run
+        interner.intern(model);
+
+        // Precompute the content fingerprint so comparisons can skip identical objects
+        model.getFingerprint(validationConfig);
+
         return model;
     }
 
     /**
      * Flatten Kubernetes object metadata
      */
-    private Map<String, String> flattenMetadata(ObjectMeta metadata) {
+    private Map<String, String> flattenMetadata(ObjectMeta metadata, FieldNode fieldTree, IgnoreMatcher.Scope ignore) {
         Map<String, String> flattened = new HashMap<>();
         
         if (metadata == null) return flattened;
+        FieldNode tree = fieldTree.child("metadata");
 
         // Basic metadata fields (store without prefix - it will be added by getAllFields())
-        if (metadata.getName() != null) {
+        if (metadata.getName() != null && !isIgnored(ignore, "metadata.name")) {
             flattened.put("name", metadata.getName());
+            tree.putLeaf("name", metadata.getName());
         }
-        if (metadata.getNamespace() != null) {
+        if (metadata.getNamespace() != null && !isIgnored(ignore, "metadata.namespace")) {
             flattened.put("namespace", metadata.getNamespace());
+            tree.putLeaf("namespace", metadata.getNamespace());
         }
 
         // Labels
-        if (metadata.getLabels() != null) {
+        if (metadata.getLabels() != null && !isIgnored(ignore, "metadata.labels")) {
+            FieldNode labels = tree.child("labels");
             for (Map.Entry<String, String> label : metadata.getLabels().entrySet()) {
-                flattened.put("labels." + label.getKey(), label.getValue());
+                if (isIgnored(ignore, "metadata.labels." + label.getKey())) {
+                    continue;
+                }
+                String value = leafValue(label.getValue());
+                flattened.put("labels." + label.getKey(), value);
+                labels.putLeaf(label.getKey(), value);
             }
         }
 
         // Annotations
-        if (metadata.getAnnotations() != null) {
+        if (metadata.getAnnotations() != null && !isIgnored(ignore, "metadata.annotations")) {
+            FieldNode annotations = tree.child("annotations");
             for (Map.Entry<String, String> annotation : metadata.getAnnotations().entrySet()) {
-                flattened.put("annotations." + annotation.getKey(), annotation.getValue());
+                if (isIgnored(ignore, "metadata.annotations." + annotation.getKey())) {
+                    continue;
+                }
+                String value = leafValue(annotation.getValue());
+                flattened.put("annotations." + annotation.getKey(), value);
+                annotations.putLeaf(annotation.getKey(), value);
             }
         }
 
@@ -172,7 +246,7 @@ public class K8sDataCollector {
     /**
      * Flatten Kubernetes object spec
      */
-    private Map<String, String> flattenSpec(HasMetadata kubernetesObject) {
+    private Map<String, String> flattenSpec(HasMetadata kubernetesObject, FieldNode fieldTree, IgnoreMatcher.Scope ignore) {
         Map<String, String> flattened = new HashMap<>();
 
         try {
@@ -181,8 +255,8 @@ public class K8sDataCollector {
             
             // Extract spec node (store without prefix - it will be added by getAllFields())
             JsonNode specNode = node.get("spec");
-            if (specNode != null) {
-                flattenJsonNode("", specNode, flattened);
+            if (specNode != null && !isIgnored(ignore, "spec")) {
+                flattenJsonNode(kubernetesObject.getKind(), "", specNode, flattened, fieldTree, "spec", ignore);
             }
         } catch (Exception e) {
             log.error("Failed to flatten spec for {}: {}", 
@@ -194,25 +268,92 @@ public class K8sDataCollector {
 
     /**
      * Recursively flatten a JsonNode
+     * The node is also added to the field tree as child {@code segment} of {@code parent}.
+     * Children matched by {@code ignore} are skipped; below a subtree no rule can reach, the
+     * checks stop ({@code ignore} = null).
      */
-    private void flattenJsonNode(String currentPath, JsonNode node, Map<String, String> result) {
+    private void flattenJsonNode(String kind, String currentPath, JsonNode node, Map<String, String> result,
+                                 FieldNode parent, String segment, IgnoreMatcher.Scope ignore) {
         if (node.isObject()) {
+            FieldNode tree = parent.child(segment);
             Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
             while (fields.hasNext()) {
                 Map.Entry<String, JsonNode> field = fields.next();
                 String fieldName = field.getKey();
                 String newPath = currentPath.isEmpty() ? fieldName : currentPath + "." + fieldName;
-                flattenJsonNode(newPath, field.getValue(), result);
+                IgnoreMatcher.Match match = ignore != null ? ignore.match("spec." + newPath) : IgnoreMatcher.Match.NONE;
+                if (match != IgnoreMatcher.Match.IGNORED) {
+                    flattenJsonNode(kind, newPath, field.getValue(), result, tree, fieldName,
+                            match == IgnoreMatcher.Match.PARTIAL ? ignore : null);
+                }
             }
         } else if (node.isArray()) {
+            FieldNode tree = parent.child(segment);
+            String[] segments = keyedSegments(kind, currentPath, segment, node);
             for (int i = 0; i < node.size(); i++) {
-                String newPath = currentPath + "[" + i + "]";
-                flattenJsonNode(newPath, node.get(i), result);
+                String itemSegment = segments != null ? segments[i] : KeyedList.segment(i);
+                String newPath = currentPath + itemSegment;
+                IgnoreMatcher.Match match = ignore != null ? ignore.match("spec." + newPath) : IgnoreMatcher.Match.NONE;
+                if (match != IgnoreMatcher.Match.IGNORED) {
+                    flattenJsonNode(kind, newPath, node.get(i), result, tree, itemSegment,
+                            match == IgnoreMatcher.Match.PARTIAL ? ignore : null);
+                }
             }
         } else {
             // Leaf node - store the value
-            result.put(currentPath, node.asText());
+            String value = leafValue(node.asText());
+            result.put(currentPath, value);
+            parent.putLeaf(segment, value);
+        }
+    }
+    
+    /**
+     * Get keyed segments ("containers[name=web]") for the elements of an array with a configured
+     * merge key, or null to index them by position
+     */
+    private String[] keyedSegments(String kind, String currentPath, String listField, JsonNode array) {
+        if (validationConfig == null || array.size() == 0) {
+            return null;
+        }
+        for (String key : validationConfig.getListKeys(listField)) {
+            List<String> values = new ArrayList<>(array.size());
+            for (int i = 0; i < array.size(); i++) {
+                JsonNode value = array.get(i).get(key);
+                values.add(value == null || !value.isValueNode() || value.isNull() ? null
+                        : keyValue(kind, "spec.", currentPath + KeyedList.segment(i) + "." + key, value.asText()));
+            }
+            String[] segments = KeyedList.segments(key, values);
+            if (segments != null) {
+                return segments;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean isIgnored(IgnoreMatcher.Scope ignore, String fieldPath) {
+        return ignore != null && ignore.match(fieldPath) == IgnoreMatcher.Match.IGNORED;
+    }
+    
+    /**
+     * Leaf value as held in the model: the value as written, or its LargeValues digest reference
+     * if it is longer than the large value threshold (normalize rules apply only when comparing)
+     */
+    private String leafValue(String value) {
+        int threshold = validationConfig != null
+                ? validationConfig.getLargeValueThreshold() : LargeValues.DEFAULT_THRESHOLD;
+        return LargeValues.compact(value, threshold);
+    }
+    
+    /**
+     * Value of a list merge key as used in keyed segments, canonicalized per the normalize rules
+     * so that equivalent spellings of a key address the same element
+     */
+    private String keyValue(String kind, String section, String path, String value) {
+        ValueNormalizer normalizer = validationConfig.getValueNormalizer();
+        if (!normalizer.isEmpty()) {
+            value = normalizer.normalize(kind, section + path, value);
         }
+        return leafValue(value);
     }
 
     /**
@@ -271,7 +412,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (Deployment deployment : deployments) {
             FlatObjectModel flatObj = convertToFlatObjectModel(deployment);
-            model.addObject(deployment.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
     }
 
@@ -280,7 +421,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (StatefulSet statefulSet : statefulSets) {
             FlatObjectModel flatObj = convertToFlatObjectModel(statefulSet);
-            model.addObject(statefulSet.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
     }
 
@@ -289,7 +430,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (DaemonSet daemonSet : daemonSets) {
             FlatObjectModel flatObj = convertToFlatObjectModel(daemonSet);
-            model.addObject(daemonSet.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
     }
 
@@ -298,7 +439,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (Service service : services) {
             FlatObjectModel flatObj = convertToFlatObjectModel(service);
-            model.addObject(service.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
     }
 
@@ -307,7 +448,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (ConfigMap configMap : configMaps) {
             FlatObjectModel flatObj = convertToFlatObjectModel(configMap);
-            model.addObject(configMap.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
     }
 
@@ -316,7 +457,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (Secret secret : secrets) {
             FlatObjectModel flatObj = convertToFlatObjectModel(secret);
-            model.addObject(secret.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
     }
 
@@ -325,7 +466,7 @@ public class K8sDataCollector {
                 .inNamespace(namespace).list().getItems();
         for (Pod pod : pods) {
             FlatObjectModel flatObj = convertToFlatObjectModel(pod);
-            model.addObject(pod.getMetadata().getName(), flatObj);
+            model.addObject(flatObj);
         }
     }
 
@@ -5,8 +5,8 @@ import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientBuilder;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manager for multiple Kubernetes cluster connections
@@ -14,7 +14,8 @@ import java.util.Map;
 @Slf4j
 public class KubernetesClusterManager {
     
-    private Map<String, KubernetesClient> clients = new HashMap<>();
+    // Concurrent: gate mode collects several namespaces at once
+    private Map<String, KubernetesClient> clients = new ConcurrentHashMap<>();
     private KubernetesClient defaultClient;
     
     public KubernetesClusterManager() {
@@ -0,0 +1,35 @@
+package com.nfv.validator.model;
+
+import com.nfv.validator.config.IgnoreMatcher;
+import com.nfv.validator.config.ValidationConfig;
+
+/**
+ * Identity of what a validation config compiles to for filtering and canonicalizing fields
+ * A config compiles to new matcher / normalizer instances whenever its ignore or normalize settings
+ * change, so unlike the config instance itself this can key results cached per config.
+ */
+final class ConfigKey {
+    
+    private final IgnoreMatcher matcher;
+    private final ValueNormalizer normalizer;
+    
+    private ConfigKey(IgnoreMatcher matcher, ValueNormalizer normalizer) {
+        this.matcher = matcher;
+        this.normalizer = normalizer;
+    }
+    
+    static ConfigKey of(ValidationConfig config) {
+        return config == null ? new ConfigKey(null, null)
+                : new ConfigKey(config.getIgnoreMatcher(), config.getValueNormalizer());
+    }
+    
+    /**
+     * Check whether a config still compiles to the same matcher and normalizer
+     */
+    boolean matches(ValidationConfig config) {
+        if (config == null) {
+            return matcher == null && normalizer == null;
+        }
+        return matcher == config.getIgnoreMatcher() && normalizer == config.getValueNormalizer();
+    }
+}
@@ -0,0 +1,332 @@
+package com.nfv.validator.model;
+
+import com.nfv.validator.config.IgnoreMatcher;
+import com.nfv.validator.util.Fingerprint;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Hierarchical (trie) representation of an object's fields
+ * Inner nodes are maps or lists, leaves carry the scalar value, and in trees derived for a config
+ * with normalize rules also its canonical form, which the hash covers instead. Child segments are map keys
+ * (kept intact, even when they contain dots such as "app.kubernetes.io/name") or "[i]" for list items.
+ * Each node lazily caches the hash and leaf count of its subtree, so a tree must not be modified
+ * once it has been hashed; derived trees (e.g. with ignored paths removed) share unchanged subtrees
+ * by reference.
+ */
+public final class FieldNode {
+    
+    private final String value;
+    private final String canonical;
+    private final TreeMap<String, FieldNode> children;
+    
+    private Fingerprint hash;
+    private int leafCount = -1;
+    
+    private FieldNode(String value, TreeMap<String, FieldNode> children) {
+        this(value, value, children);
+    }
+    
+    private FieldNode(String value, String canonical, TreeMap<String, FieldNode> children) {
+        this.value = value;
+        this.canonical = canonical;
+        this.children = children;
+    }
+    
+    /**
+     * Create an empty inner node
+     */
+    public static FieldNode inner() {
+        return new FieldNode(null, new TreeMap<>());
+    }
+    
+    /**
+     * Create a leaf node
+     */
+    public static FieldNode leaf(String value) {
+        return new FieldNode(value, null);
+    }
+    
+    public boolean isLeaf() {
+        return children == null;
+    }
+    
+    public String getValue() {
+        return value;
+    }
+    
+    /**
+     * Canonical form of the leaf value that comparisons use (the value itself unless normalized)
+     */
+    public String getCanonical() {
+        return canonical;
+    }
+    
+    /**
+     * Child nodes by segment, sorted (read-only)
+     */
+    public Map<String, FieldNode> getChildren() {
+        return children != null ? Collections.unmodifiableMap(children) : Collections.emptyMap();
+    }
+    
+    public FieldNode getChild(String segment) {
+        return children != null ? children.get(segment) : null;
+    }
+    
+    /**
+     * Get or create an inner child node (used while building)
+     */
+    public FieldNode child(String segment) {
+        return children.computeIfAbsent(segment, s -> inner());
+    }
+    
+    /**
+     * Set a leaf child (used while building)
+     */
+    public void putLeaf(String segment, String leafValue) {
+        children.put(segment, leaf(leafValue));
+    }
+    
+    /**
+     * Join a parent path and a child segment the same way the flatteners do
+     * ("spec" + "replicas" -> "spec.replicas", "containers" + "[0]" -> "containers[0]")
+     */
+    public static String childPath(String parentPath, String segment) {
+        if (parentPath.isEmpty()) {
+            return segment;
+        }
+        return segment.startsWith("[") ? parentPath + segment : parentPath + "." + segment;
+    }
+    
+    /**
+     * Number of leaves in this subtree (= number of flattened fields)
+     */
+    public int getLeafCount() {
+        if (leafCount < 0) {
+            if (isLeaf()) {
+                leafCount = 1;
+            } else {
+                int count = 0;
+                for (FieldNode child : children.values()) {
+                    count += child.getLeafCount();
+                }
+                leafCount = count;
+            }
+        }
+        return leafCount;
+    }
+    
+    /**
+     * Hash of this subtree (segments and values of all descendants)
+     */
+    public Fingerprint getHash() {
+        if (hash == null) {
+            Fingerprint.Builder builder = Fingerprint.builder();
+            if (isLeaf()) {
+                builder.putLong(0).putString(canonical);
+            } else {
+                builder.putLong(children.size());
+                for (Map.Entry<String, FieldNode> entry : children.entrySet()) {
+                    builder.putString(entry.getKey()).putFingerprint(entry.getValue().getHash());
+                }
+            }
+            hash = builder.build();
+        }
+        return hash;
+    }
+    
+    /**
+     * Check whether two subtrees are identical, by reference first and then by hash
+     */
+    public boolean sameAs(FieldNode other) {
+        return this == other || (other != null && getHash().equals(other.getHash()));
+    }
+    
+    /**
+     * Check whether two subtrees have the same segments, values and canonical values, field by field
+     * Unlike sameAs this does not trust hashes, so it also tells apart subtrees whose hashes collide.
+     */
+    public boolean contentEquals(FieldNode other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || isLeaf() != other.isLeaf()) {
+            return false;
+        }
+        if (isLeaf()) {
+            return Objects.equals(value, other.value) && Objects.equals(canonical, other.canonical);
+        }
+        if (children.size() != other.children.size()) {
+            return false;
+        }
+        Iterator<Map.Entry<String, FieldNode>> otherChildren = other.children.entrySet().iterator();
+        for (Map.Entry<String, FieldNode> child : children.entrySet()) {
+            Map.Entry<String, FieldNode> otherChild = otherChildren.next();
+            if (!child.getKey().equals(otherChild.getKey()) || !child.getValue().contentEquals(otherChild.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Return a tree without the subtrees selected by an ignore path
+     * The path uses the flattened notation and the same prefix semantics as ignore fields:
+     * "status" removes "status" and everything below it, and a path may end inside a segment
+     * at a '.' or '[' boundary ("metadata.annotations.kubectl" removes the
+     * "kubectl.kubernetes.io/last-applied-configuration" annotation). Whole subtrees are removed
+     * in one step and untouched subtrees are shared with this tree.
+     *
+     * @return this node if nothing was removed, otherwise a new node
+     */
+    public FieldNode without(String path) {
+        if (isLeaf() || path == null || path.isEmpty()) {
+            return this;
+        }
+        
+        TreeMap<String, FieldNode> copy = null;
+        
+        // Children whose segment is the path itself or a prefix of it ending at a boundary
+        for (int i = 1; i <= path.length(); i++) {
+            if (i < path.length() && !isBoundary(path, i)) {
+                continue;
+            }
+            String segment = path.substring(0, i);
+            FieldNode child = children.get(segment);
+            if (child == null) {
+                continue;
+            }
+            
+            FieldNode replacement = null;
+            if (i < path.length()) {
+                int next = path.charAt(i) == '.' ? i + 1 : i;
+                replacement = child.without(path.substring(next));
+            }
+            if (replacement != child) {
+                copy = copy != null ? copy : new TreeMap<>(children);
+                if (replacement == null) {
+                    copy.remove(segment);
+                } else {
+                    copy.put(segment, replacement);
+                }
+            }
+        }
+        
+        // Children whose segment continues the path past a boundary are covered entirely
+        for (String segment : children.subMap(path, false, path + Character.MAX_VALUE, false).keySet()) {
+            if (isBoundary(segment, path.length())) {
+                copy = copy != null ? copy : new TreeMap<>(children);
+                copy.remove(segment);
+            }
+        }
+        
+        return copy != null ? new FieldNode(null, copy) : this;
+    }
+    
+    /**
+     * Return a tree without the subtrees ignored by a compiled ignore matcher
+     * Subtrees that no rule can reach are kept (and shared) without being visited.
+     *
+     * @param path flattened path of this node ("" for the root)
+     * @param matcher compiled ignore configuration
+     * @param kind resource kind the tree belongs to
+     * @return this node if nothing was removed, otherwise a new node
+     */
+    public FieldNode without(String path, IgnoreMatcher matcher, String kind) {
+        if (isLeaf()) {
+            return this;
+        }
+        
+        TreeMap<String, FieldNode> copy = null;
+        for (Map.Entry<String, FieldNode> entry : children.entrySet()) {
+            String childPath = childPath(path, entry.getKey());
+            IgnoreMatcher.Match match = matcher.match(kind, childPath);
+            if (match == IgnoreMatcher.Match.NONE) {
+                continue;
+            }
+            
+            FieldNode replacement = match == IgnoreMatcher.Match.IGNORED
+                    ? null : entry.getValue().without(childPath, matcher, kind);
+            if (replacement != entry.getValue()) {
+                copy = copy != null ? copy : new TreeMap<>(children);
+                if (replacement == null) {
+                    copy.remove(entry.getKey());
+                } else {
+                    copy.put(entry.getKey(), replacement);
+                }
+            }
+        }
+        
+        return copy != null ? new FieldNode(null, copy) : this;
+    }
+    
+    /**
+     * Return a tree whose leaves carry their canonical form per the normalize rules
+     * Leaf values are kept for display; hashes, and so subtree comparisons, cover the canonical
+     * forms. Subtrees that no rule can reach are kept (and shared) without being visited.
+     *
+     * @param path flattened path of this node ("" for the root)
+     * @param normalizer compiled normalize configuration
+     * @param kind resource kind the tree belongs to
+     * @return this node if no value changed, otherwise a new node
+     */
+    public FieldNode normalized(String path, ValueNormalizer normalizer, String kind) {
+        if (isLeaf()) {
+            String normalized = normalizer.normalize(kind, path, value);
+            return Objects.equals(normalized, canonical) ? this : new FieldNode(value, normalized, null);
+        }
+        
+        TreeMap<String, FieldNode> copy = null;
+        for (Map.Entry<String, FieldNode> entry : children.entrySet()) {
+            String childPath = childPath(path, entry.getKey());
+            if (!normalizer.reaches(kind, childPath)) {
+                continue;
+            }
+            FieldNode replacement = entry.getValue().normalized(childPath, normalizer, kind);
+            if (replacement != entry.getValue()) {
+                copy = copy != null ? copy : new TreeMap<>(children);
+                copy.put(entry.getKey(), replacement);
+            }
+        }
+        
+        return copy != null ? new FieldNode(null, copy) : this;
+    }
+    
+    /**
+     * Return a node whose children are replaced by the given function (used for interning)
+     *
+     * @return this node if no child was replaced, otherwise a new node with the same hash
+     */
+    FieldNode mapChildren(UnaryOperator<FieldNode> mapper) {
+        if (isLeaf()) {
+            return this;
+        }
+        
+        TreeMap<String, FieldNode> copy = null;
+        for (Map.Entry<String, FieldNode> entry : children.entrySet()) {
+            FieldNode replacement = mapper.apply(entry.getValue());
+            if (replacement != entry.getValue()) {
+                copy = copy != null ? copy : new TreeMap<>(children);
+                copy.put(entry.getKey(), replacement);
+            }
+        }
+        if (copy == null) {
+            return this;
+        }
+        
+        FieldNode node = new FieldNode(null, copy);
+        node.hash = hash;
+        node.leafCount = leafCount;
+        return node;
+    }
+    
+    private static boolean isBoundary(String s, int index) {
+        char c = s.charAt(index);
+        return c == '.' || c == '[';
+    }
+}
@@ -1,11 +1,19 @@
 package com.nfv.validator.model;
 
+import com.nfv.validator.config.ValidationConfig;
+
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Flattened representation of a Kubernetes namespace
@@ -13,48 +21,187 @@ import lombok.NoArgsConstructor;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class FlatNamespaceModel {
     // Kubernetes Namespace basic fields
     private String name;
-    
+
     // Cluster identifier (for multi-cluster scenarios)
     private String clusterName;
 
-    // Map of object name to FlatObjectModel
-    // Key: object name (e.g., "nginx-deployment")
+    // Map of object key to FlatObjectModel
+    // Key: composite object key "<Kind>[.<group>]/<name>" (e.g., "Deployment.apps/nginx", "Service/nginx")
     // Value: FlatObjectModel containing flattened object data
-    private Map<String, FlatObjectModel> objects;
-    
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<String, FlatObjectModel> objects = new HashMap<>();
+
+    // Secondary index maintained alongside objects
+    // Key: object kind, Value: object key -> FlatObjectModel
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Map<String, Map<String, FlatObjectModel>> objectsByKind = new HashMap<>();
+
+    // Cached Merkle tree and the compiled config it was built with
+    // Reset whenever objects are added or removed, or the fields of a contained object change
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient NamespaceMerkleTree merkleTree;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient ConfigKey merkleTreeKey;
+
+    public FlatNamespaceModel(String name, String clusterName, Map<String, FlatObjectModel> objects) {
+        this.name = name;
+        this.clusterName = clusterName;
+        setObjects(objects);
+    }
+
     /**
-     * Add an object to the namespace model
+     * Build the composite key identifying an object within a namespace
+     * The API group is taken from apiVersion ("apps/v1" -> "apps"); core objects have no group
+     *
+     * @return key such as "Deployment.apps/nginx" or "ConfigMap/app-config"
      */
-    public void addObject(String name, FlatObjectModel object) {
-        if (objects == null) {
-            objects = new HashMap<>();
+    public static String objectKey(String apiVersion, String kind, String name) {
+        String group = "";
+        if (apiVersion != null) {
+            int slash = apiVersion.indexOf('/');
+            if (slash > 0) {
+                group = apiVersion.substring(0, slash);
+            }
         }
-        objects.put(name, object);
+        return group.isEmpty() ? kind + "/" + name : kind + "." + group + "/" + name;
     }
-    
+
     /**
-     * Get object by name
+     * Build the composite key for an object
      */
-    public FlatObjectModel getObject(String name) {
-        return objects != null ? objects.get(name) : null;
+    public static String objectKey(FlatObjectModel object) {
+        return objectKey(object.getApiVersion(), object.getKind(), object.getName());
     }
-    
+
     /**
-     * Get all objects of a specific kind
+     * Get all objects keyed by composite object key (read-only view)
      */
-    public Map<String, FlatObjectModel> getObjectsByKind(String kind) {
-        Map<String, FlatObjectModel> result = new HashMap<>();
+    public Map<String, FlatObjectModel> getObjects() {
+        return Collections.unmodifiableMap(objects);
+    }
+
+    /**
+     * Replace all objects and rebuild the kind index
+     */
+    public void setObjects(Map<String, FlatObjectModel> objects) {
+        if (this.objects != null) {
+            for (FlatObjectModel object : this.objects.values()) {
+                object.removeOwner(this);
+            }
+        }
+        this.objects = new HashMap<>();
+        this.objectsByKind = new HashMap<>();
+        this.merkleTree = null;
         if (objects != null) {
             for (Map.Entry<String, FlatObjectModel> entry : objects.entrySet()) {
-                if (kind.equals(entry.getValue().getKind())) {
-                    result.put(entry.getKey(), entry.getValue());
-                }
+                addObject(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Add an object to the namespace model under its composite key
+     */
+    public void addObject(FlatObjectModel object) {
+        addObject(objectKey(object), object);
+    }
+
+    /**
+     * Add an object to the namespace model under an explicit key
+     */
+    public void addObject(String key, FlatObjectModel object) {
+        merkleTree = null;
+        FlatObjectModel previous = objects.put(key, object);
+        if (previous != null) {
+            unindex(key, previous);
+            previous.removeOwner(this);
+        }
+        object.addOwner(this);
+        objectsByKind.computeIfAbsent(object.getKind(), k -> new HashMap<>()).put(key, object);
+    }
+
+    /**
+     * Remove an object by key
+     *
+     * @return the removed object, or null if not present
+     */
+    public FlatObjectModel removeObject(String key) {
+        FlatObjectModel removed = objects.remove(key);
+        if (removed != null) {
+            unindex(key, removed);
+            removed.removeOwner(this);
+            merkleTree = null;
+        }
+        return removed;
+    }
+
+    /**
+     * Get object by composite key
+     */
+    public FlatObjectModel getObject(String key) {
+        return objects.get(key);
+    }
+
+    /**
+     * Get all objects of a specific kind (read-only view of the kind index)
+     */
+    public Map<String, FlatObjectModel> getObjectsByKind(String kind) {
+        Map<String, FlatObjectModel> byKind = objectsByKind.get(kind);
+        return byKind != null ? Collections.unmodifiableMap(byKind) : Collections.emptyMap();
+    }
+
+    /**
+     * Get all kinds present in the namespace
+     */
+    public Set<String> getKinds() {
+        return Collections.unmodifiableSet(objectsByKind.keySet());
+    }
+
+    /**
+     * Get the Merkle tree summary (kind -> object -> subtree hashes) of this namespace
+     * The tree is cached until objects are added, removed or modified, or a config with different
+     * ignore or normalize settings is used; safe to call from concurrent comparisons of the same namespace
+     *
+     * @param config validation config used for field filtering (null = all fields)
+     */
+    public synchronized NamespaceMerkleTree getMerkleTree(ValidationConfig config) {
+        NamespaceMerkleTree tree = merkleTree;
+        if (tree == null || !merkleTreeKey.matches(config)) {
+            tree = NamespaceMerkleTree.build(this, config);
+            merkleTree = tree;
+            merkleTreeKey = ConfigKey.of(config);
+        }
+        return tree;
+    }
+
+    /**
+     * Drop the cached Merkle tree after the fields of a contained object changed
+     */
+    synchronized void objectChanged() {
+        merkleTree = null;
+    }
+
+    private void unindex(String key, FlatObjectModel object) {
+        Map<String, FlatObjectModel> byKind = objectsByKind.get(object.getKind());
+        if (byKind != null) {
+            byKind.remove(key);
+            if (byKind.isEmpty()) {
+                objectsByKind.remove(object.getKind());
             }
         }
-        return result;
     }
 }
@@ -1,13 +1,24 @@
 package com.nfv.validator.model;
 
+import com.nfv.validator.config.IgnoreMatcher;
 import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.util.Fingerprint;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Flattened representation of a Kubernetes object
@@ -15,7 +26,6 @@ import lombok.NoArgsConstructor;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class FlatObjectModel {
     // Basic Kubernetes object fields
     private String kind;
@@ -31,24 +41,224 @@ public class FlatObjectModel {
     // e.g., "replicas": "3", "template.spec.containers[0].image": "nginx:1.19"
     private Map<String, String> spec;
     
+    // Hierarchical (trie) form of metadata + spec, built by the collectors alongside the flat maps
+    // Dropped when the flat maps are modified afterwards, since it would no longer match them
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private FieldNode fieldTree;
+    
+    // Cached field tree with ignored subtrees pruned and leaves normalized, for the config it was derived with
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient FilteredTreeCache filteredTreeCache;
+    
+    // Cached fingerprint of the filtered fields with their canonical values
+    // Valid only for the compiled config it was computed with; reset on any field change
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient FingerprintCache fingerprintCache;
+    
+    // Cached filtered fields as sorted key/value arrays, built on first use by the comparator
+    // Valid only for the compiled config they were built with; reset on any field change
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient SortedFields sortedFields;
+    
+    // True while metadata/spec are canonical instances shared with other objects (see ModelInterner)
+    // They are read-only and copied before the first modification
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient boolean sharedContent;
+    
+    // Compiled ignore config the collector already applied while flattening (ignored fields were never added)
+    // Filtering with the same config is then a no-op; reset on any field change
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient IgnoreMatcher prefilteredBy;
+    
+    // Namespace models holding this object; their cached Merkle trees are dropped when its fields change
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient List<FlatNamespaceModel> owners;
+    
+    public FlatObjectModel(String kind, String apiVersion, String name, String namespace,
+                           Map<String, String> metadata, Map<String, String> spec) {
+        this.kind = kind;
+        this.apiVersion = apiVersion;
+        this.name = name;
+        this.namespace = namespace;
+        this.metadata = metadata;
+        this.spec = spec;
+    }
+    
+    /**
+     * Get metadata entries as a read-only view
+     * Use addMetadata or setMetadata to modify them, so cached fingerprints and trees are dropped.
+     */
+    public Map<String, String> getMetadata() {
+        return metadata != null ? Collections.unmodifiableMap(metadata) : null;
+    }
+    
+    /**
+     * Get spec entries as a read-only view
+     * Use addSpec or setSpec to modify them, so cached fingerprints and trees are dropped.
+     */
+    public Map<String, String> getSpec() {
+        return spec != null ? Collections.unmodifiableMap(spec) : null;
+    }
+    
+    /**
+     * Replace metadata entries
+     */
+    public void setMetadata(Map<String, String> metadata) {
+        beforeContentChange();
+        this.metadata = metadata;
+        this.fingerprintCache = null;
+        this.sortedFields = null;
+        this.fieldTree = null;
+    }
+    
+    /**
+     * Replace spec entries
+     */
+    public void setSpec(Map<String, String> spec) {
+        beforeContentChange();
+        this.spec = spec;
+        this.fingerprintCache = null;
+        this.sortedFields = null;
+        this.fieldTree = null;
+    }
+    
     /**
      * Add a metadata entry
      */
     public void addMetadata(String key, String value) {
+        beforeContentChange();
         if (metadata == null) {
             metadata = new HashMap<>();
         }
         metadata.put(key, value);
+        fingerprintCache = null;
+        sortedFields = null;
+        fieldTree = null;
     }
     
     /**
      * Add a spec entry
      */
     public void addSpec(String key, String value) {
+        beforeContentChange();
         if (spec == null) {
             spec = new HashMap<>();
         }
         spec.put(key, value);
+        fingerprintCache = null;
+        sortedFields = null;
+        fieldTree = null;
+    }
+    
+    /**
+     * Check whether this object has the same content instances as another one
+     * True for objects interned by the same ModelInterner with equal content; a cheap
+     * reference check that never looks at the fields.
+     */
+    public boolean sharesContentWith(FlatObjectModel other) {
+        return other == this || (other != null && sharedContent && other.sharedContent
+                && metadata == other.metadata && spec == other.spec);
+    }
+    
+    /**
+     * Get the metadata map itself, not a view (used by ModelInterner)
+     */
+    Map<String, String> metadataMap() {
+        return metadata;
+    }
+    
+    /**
+     * Get the spec map itself, not a view (used by ModelInterner)
+     */
+    Map<String, String> specMap() {
+        return spec;
+    }
+    
+    /**
+     * Switch to canonical content instances with the same content (used by ModelInterner)
+     * Fingerprint and filtered tree caches stay valid since the content is unchanged.
+     */
+    void shareContent(Map<String, String> metadata, Map<String, String> spec, FieldNode fieldTree) {
+        this.metadata = metadata;
+        this.spec = spec;
+        this.fieldTree = fieldTree;
+        this.sharedContent = true;
+    }
+    
+    /**
+     * Record that ignored fields were skipped while this object was built
+     * Must be called after the fields have been set, since modifying them clears the mark.
+     */
+    public void markPrefiltered(IgnoreMatcher matcher) {
+        this.prefilteredBy = matcher;
+    }
+    
+    /**
+     * Check whether filtering with the given config would not remove anything
+     */
+    public boolean isPrefiltered(ValidationConfig config) {
+        return config != null && prefilteredBy != null && prefilteredBy == config.getIgnoreMatcher();
+    }
+    
+    /**
+     * Register a namespace model holding this object (used by FlatNamespaceModel)
+     */
+    void addOwner(FlatNamespaceModel owner) {
+        if (owners == null) {
+            owners = new ArrayList<>(1);
+        }
+        owners.add(owner);
+    }
+    
+    /**
+     * Unregister a namespace model that no longer holds this object
+     */
+    void removeOwner(FlatNamespaceModel owner) {
+        if (owners != null) {
+            for (int i = 0; i < owners.size(); i++) {
+                if (owners.get(i) == owner) {
+                    owners.remove(i);
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Drop what no longer holds once fields change: the prefilter mark, owners' Merkle trees,
+     * and shared maps (copied)
+     */
+    private void beforeContentChange() {
+        prefilteredBy = null;
+        if (owners != null) {
+            for (FlatNamespaceModel owner : owners) {
+                owner.objectChanged();
+            }
+        }
+        if (sharedContent) {
+            metadata = metadata != null ? new HashMap<>(metadata) : null;
+            spec = spec != null ? new HashMap<>(spec) : null;
+            sharedContent = false;
+        }
     }
     
     /**
@@ -76,7 +286,7 @@ public class FlatObjectModel {
      * Get all fields, excluding ignored fields based on validation config
      */
     public Map<String, String> getAllFieldsFiltered(ValidationConfig config) {
-        if (config == null) {
+        if (config == null || isPrefiltered(config)) {
             return getAllFields();
         }
         
@@ -85,12 +295,261 @@ public class FlatObjectModel {
         
         for (Map.Entry<String, String> entry : allFields.entrySet()) {
             String fieldPath = entry.getKey();
-            if (!config.shouldIgnore(fieldPath)) {
+            if (!config.shouldIgnore(kind, fieldPath)) {
                 filtered.put(fieldPath, entry.getValue());
             }
         }
         
         return filtered;
     }
+    
+    /**
+     * Get all fields with their canonical values per the normalize rules, excluding ignored fields
+     * Comparisons match these values; the stored values (getAllFieldsFiltered) are the ones to display.
+     */
+    public Map<String, String> getCanonicalFieldsFiltered(ValidationConfig config) {
+        Map<String, String> fields = getAllFieldsFiltered(config);
+        if (config == null || config.getValueNormalizer().isEmpty()) {
+            return fields;
+        }
+        ValueNormalizer normalizer = config.getValueNormalizer();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            field.setValue(normalizer.normalize(kind, field.getKey(), field.getValue()));
+        }
+        return fields;
+    }
+    
+    /**
+     * Get the field tree with subtrees matching ignore fields and rules pruned, and leaves
+     * selected by normalize rules carrying their canonical values
+     * An ignored subtree is removed in one step and subtrees no rule can reach are not visited,
+     * instead of testing every leaf path; unaffected subtrees are shared with the unfiltered tree.
+     *
+     * @param config validation config (null = unfiltered tree)
+     * @return derived tree, or null if no field tree was built for this object
+     */
+    public FieldNode getFilteredFieldTree(ValidationConfig config) {
+        FieldNode tree = fieldTree;
+        if (tree == null || config == null) {
+            return tree;
+        }
+        
+        FilteredTreeCache cache = filteredTreeCache;
+        if (cache != null && cache.key.matches(config) && cache.source == tree) {
+            return cache.tree;
+        }
+        
+        IgnoreMatcher matcher = config.getIgnoreMatcher();
+        ValueNormalizer normalizer = config.getValueNormalizer();
+        FieldNode derived = matcher == prefilteredBy ? tree : tree.without("", matcher, kind);
+        if (!normalizer.isEmpty()) {
+            derived = derived.normalized("", normalizer, kind);
+        }
+        filteredTreeCache = new FilteredTreeCache(ConfigKey.of(config), tree, derived);
+        return derived;
+    }
+    
+    /**
+     * Get the 128-bit fingerprint of the filtered fields and their canonical values
+     * Fields are sorted by path before hashing, so the value does not depend on map order.
+     * The result is cached until the object changes, or a config with other ignore or normalize
+     * settings is used.
+     *
+     * @param config validation config used for filtering (null = all fields)
+     */
+    public Fingerprint getFingerprint(ValidationConfig config) {
+        return fingerprintFor(config).fingerprint;
+    }
+    
+    /**
+     * Get the 128-bit fingerprint of the filtered fields and their stored values
+     * Differs from getFingerprint only when normalize rules map different spellings to the same
+     * value; results that show the stored values (e.g. cached ones) must be keyed on this one.
+     *
+     * @param config validation config used for filtering (null = all fields)
+     */
+    public Fingerprint getValueFingerprint(ValidationConfig config) {
+        SortedFields fields = getSortedFields(config);
+        return fields.canonicals == fields.values ? getFingerprint(config) : fields.valueFingerprint();
+    }
+    
+    /**
+     * Get the number of fields remaining after filtering with the given config
+     */
+    public int getFilteredFieldCount(ValidationConfig config) {
+        return fingerprintFor(config).fieldCount;
+    }
+    
+    /**
+     * Get fingerprints of the top-level subtrees of the filtered fields
+     * (e.g. "metadata.labels", "spec.replicas", "spec.template"), sorted by subtree path
+     */
+    public Map<String, NamespaceMerkleTree.SubtreeNode> getSubtreeFingerprints(ValidationConfig config) {
+        return fingerprintFor(config).subtrees;
+    }
+    
+    /**
+     * Get the filtered fields as parallel key/value/canonical value arrays sorted by key
+     * Two objects can be diffed with a single merge over their arrays, without building a key set.
+     * The result is cached until the object changes, or a config with other ignore or normalize
+     * settings is used.
+     *
+     * @param config validation config used for filtering (null = all fields)
+     */
+    public SortedFields getSortedFields(ValidationConfig config) {
+        SortedFields fields = sortedFields;
+        if (fields != null && fields.key.matches(config)) {
+            return fields;
+        }
+        
+        Map<String, String> filtered = getAllFieldsFiltered(config);
+        String[] keys = filtered.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        String[] values = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = filtered.get(keys[i]);
+        }
+        String[] canonicals = values;
+        if (config != null && !config.getValueNormalizer().isEmpty()) {
+            ValueNormalizer normalizer = config.getValueNormalizer();
+            canonicals = new String[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                canonicals[i] = normalizer.normalize(kind, keys[i], values[i]);
+            }
+        }
+        
+        fields = new SortedFields(ConfigKey.of(config), keys, values, canonicals);
+        sortedFields = fields;
+        return fields;
+    }
+    
+    /**
+     * Get the top-level subtree a flattened field path belongs to
+     * e.g. "spec.template.spec.containers[0].image" -> "spec.template", "spec.ports[0].port" -> "spec.ports"
+     */
+    public static String subtreeOf(String fieldPath) {
+        int sectionEnd = fieldPath.indexOf('.');
+        if (sectionEnd < 0) {
+            return fieldPath;
+        }
+        for (int i = sectionEnd + 1; i < fieldPath.length(); i++) {
+            char c = fieldPath.charAt(i);
+            if (c == '.' || c == '[') {
+                return fieldPath.substring(0, i);
+            }
+        }
+        return fieldPath;
+    }
+    
+    private FingerprintCache fingerprintFor(ValidationConfig config) {
+        FingerprintCache cache = fingerprintCache;
+        if (cache != null && cache.key.matches(config)) {
+            return cache;
+        }
+        
+        Map<String, String> sorted = new TreeMap<>(getCanonicalFieldsFiltered(config));
+        Fingerprint.Builder builder = Fingerprint.builder();
+        Map<String, Fingerprint.Builder> subtreeBuilders = new TreeMap<>();
+        Map<String, Integer> subtreeCounts = new HashMap<>();
+        for (Map.Entry<String, String> field : sorted.entrySet()) {
+            builder.putString(field.getKey()).putString(field.getValue());
+            
+            String subtree = subtreeOf(field.getKey());
+            subtreeBuilders.computeIfAbsent(subtree, k -> Fingerprint.builder())
+                    .putString(field.getKey()).putString(field.getValue());
+            subtreeCounts.merge(subtree, 1, Integer::sum);
+        }
+        
+        Map<String, NamespaceMerkleTree.SubtreeNode> subtrees = new TreeMap<>();
+        for (Map.Entry<String, Fingerprint.Builder> entry : subtreeBuilders.entrySet()) {
+            subtrees.put(entry.getKey(), new NamespaceMerkleTree.SubtreeNode(
+                    entry.getValue().build(), subtreeCounts.get(entry.getKey())));
+        }
+        
+        cache = new FingerprintCache(ConfigKey.of(config), builder.build(), sorted.size(),
+                Collections.unmodifiableMap(subtrees));
+        fingerprintCache = cache;
+        return cache;
+    }
+    
+    /**
+     * Filtered fields of an object as key/value arrays in ascending key order
+     * Values are the stored ones; canonical values are those to compare.
+     */
+    public static final class SortedFields {
+        private final ConfigKey key;
+        private final String[] keys;
+        private final String[] values;
+        private final String[] canonicals;
+        private Fingerprint valueFingerprint;
+        
+        private SortedFields(ConfigKey key, String[] keys, String[] values, String[] canonicals) {
+            this.key = key;
+            this.keys = keys;
+            this.values = values;
+            this.canonicals = canonicals;
+        }
+        
+        public int size() {
+            return keys.length;
+        }
+        
+        public String keyAt(int index) {
+            return keys[index];
+        }
+        
+        public String valueAt(int index) {
+            return values[index];
+        }
+        
+        public String canonicalAt(int index) {
+            return canonicals[index];
+        }
+        
+        private Fingerprint valueFingerprint() {
+            Fingerprint fingerprint = valueFingerprint;
+            if (fingerprint == null) {
+                Fingerprint.Builder builder = Fingerprint.builder();
+                for (int i = 0; i < keys.length; i++) {
+                    builder.putString(keys[i]).putString(values[i]);
+                }
+                fingerprint = builder.build();
+                valueFingerprint = fingerprint;
+            }
+            return fingerprint;
+        }
+    }
+    
+    /**
+     * Derived field tree together with the compiled config and source tree it was derived from
+     */
+    private static final class FilteredTreeCache {
+        final ConfigKey key;
+        final FieldNode source;
+        final FieldNode tree;
+        
+        FilteredTreeCache(ConfigKey key, FieldNode source, FieldNode tree) {
+            this.key = key;
+            this.source = source;
+            this.tree = tree;
+        }
+    }
+    
+    /**
+     * Fingerprints together with the compiled config they were computed for
+     */
+    private static final class FingerprintCache {
+        final ConfigKey key;
+        final Fingerprint fingerprint;
+        final int fieldCount;
+        final Map<String, NamespaceMerkleTree.SubtreeNode> subtrees;
+        
+        FingerprintCache(ConfigKey key, Fingerprint fingerprint, int fieldCount,
+                         Map<String, NamespaceMerkleTree.SubtreeNode> subtrees) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.fieldCount = fieldCount;
+            this.subtrees = subtrees;
+        }
+    }
 }
-
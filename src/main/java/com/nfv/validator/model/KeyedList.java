@@ -0,0 +1,50 @@
+package com.nfv.validator.model;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Path segments for list elements identified by a merge key instead of their position
+ * e.g. "env[name=HTTP_PORT]" instead of "env[3]". Inserting, removing or reordering elements
+ * then leaves the paths of the other elements unchanged, so the comparators (which join fields
+ * by path) match elements by key and only report the elements that actually changed.
+ */
+public final class KeyedList {
+    
+    private KeyedList() {
+    }
+    
+    /**
+     * Build one segment per element from the merge key values of a list
+     * The key is usable only if every element has a value, and the values are unique
+     * and free of path separators.
+     *
+     * @param key merge key field (e.g. "name")
+     * @param values key value per element, null where the element has no such scalar field
+     * @return segments "[key=value]", or null if the key does not identify the elements
+     */
+    public static String[] segments(String key, List<String> values) {
+        String[] segments = new String[values.size()];
+        Set<String> seen = new HashSet<>(values.size() * 2);
+        for (int i = 0; i < segments.length; i++) {
+            String value = values.get(i);
+            if (value == null || !seen.add(value) || !isPlain(value)) {
+                return null;
+            }
+            segments[i] = "[" + key + "=" + value + "]";
+        }
+        return segments;
+    }
+    
+    /**
+     * Positional segment of a list element, "[index]"
+     */
+    public static String segment(int index) {
+        return "[" + index + "]";
+    }
+    
+    private static boolean isPlain(String value) {
+        return !value.isEmpty() && value.indexOf('.') < 0 && value.indexOf('[') < 0 && value.indexOf(']') < 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.nfv.validator.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Digest references for large leaf values (certificate chains, embedded XML/properties files, ...)
+ * Values above a size threshold are replaced in the models by a compact reference holding the
+ * SHA-256 digest, the length and a short preview. Equal values always yield equal references, so
+ * comparisons work on the references directly. The full value is dropped and never written to disk,
+ * as such values often carry credentials (e.g. last-applied-configuration annotations).
+ */
+public final class LargeValues {
+    
+    /**
+     * Default size threshold (characters) above which values are replaced by a digest reference
+     */
+    public static final int DEFAULT_THRESHOLD = 16384;
+    
+    private static final String PREFIX = "⟦sha256:";
+    private static final String LENGTH_SEPARATOR = " len=";
+    private static final String SUFFIX = "⟧ ";
+    private static final int DIGEST_LENGTH = 64;
+    private static final int PREVIEW_LENGTH = 64;
+    
+    private LargeValues() {
+    }
+    
+    /**
+     * Replace a value by a digest reference if it is longer than the threshold
+     *
+     * @param value leaf value
+     * @param threshold maximum length kept verbatim (0 or less = never replace)
+     * @return the value itself, or a compact reference
+     */
+    public static String compact(String value, int threshold) {
+        if (value == null || threshold <= 0 || value.length() <= threshold) {
+            return value;
+        }
+        
+        String digest = sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+        return PREFIX + digest + LENGTH_SEPARATOR + value.length() + SUFFIX + preview(value);
+    }
+    
+    /**
+     * Check whether a value is a digest reference
+     */
+    public static boolean isReference(String value) {
+        return value != null && value.startsWith(PREFIX);
+    }
+    
+    /**
+     * Human-readable form for reports: preview, size and abbreviated digest
+     * Plain values are returned unchanged.
+     */
+    public static String display(String value) {
+        if (!isReference(value)) {
+            return value;
+        }
+        int suffix = value.indexOf(SUFFIX, PREFIX.length());
+        String length = value.substring(PREFIX.length() + DIGEST_LENGTH + LENGTH_SEPARATOR.length(), suffix);
+        String preview = value.substring(suffix + SUFFIX.length());
+        return preview + "… [" + length + " chars, sha256:" + digestOf(value).substring(0, 12) + "]";
+    }
+    
+    private static String digestOf(String reference) {
+        return reference.substring(PREFIX.length(), PREFIX.length() + DIGEST_LENGTH);
+    }
+    
+    private static String preview(String value) {
+        String head = value.substring(0, Math.min(PREVIEW_LENGTH, value.length()));
+        return head.replace('\n', ' ').replace('\r', ' ');
+    }
+    
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(DIGEST_LENGTH);
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
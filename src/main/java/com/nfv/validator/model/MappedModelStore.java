@@ -0,0 +1,380 @@
+package com.nfv.validator.model;
+
+import com.nfv.validator.util.Fingerprint;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Off-heap storage for flattened namespace models
+ * Objects are encoded into an append-only file that is memory-mapped read-only, so their fields
+ * live outside the Java heap. Only a compact index (namespace -> kind -> object key -> location)
+ * stays on the heap. Stored namespaces are exposed as {@link MappedNamespaceModel} views with the
+ * usual FlatNamespaceModel API, decoding objects lazily when they are accessed.
+ * Objects with identical content are stored once and shared by all namespaces. Records leave out
+ * the object's namespace, which the namespace view supplies, so the same object deployed to many
+ * namespaces is stored once; the content table behind this keeps two fingerprint words, a packed
+ * location and the length per distinct record in primitive arrays. A fingerprint hit is only reused
+ * if the stored bytes are equal, so a hash collision never makes two objects share a record.
+ */
+@Slf4j
+public class MappedModelStore implements Closeable {
+    
+    /**
+     * Maximum size of one mapped segment (a single mapping is limited to 2 GB)
+     */
+    static final int MAX_SEGMENT_SIZE = 1 << 30;
+    
+    private final Path file;
+    private final boolean isTemporary;
+    private final FileChannel channel;
+    
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final ContentTable locationsByContent = new ContentTable();
+    private final Map<String, MappedNamespaceModel> namespaces = new TreeMap<>();
+    
+    private long segmentStart;
+    private long position;
+    
+    /**
+     * Create a store in a temporary file inside the given directory, deleted on close
+     */
+    public static MappedModelStore createTemporary(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        return new MappedModelStore(Files.createTempFile(directory, "kvalidator-models", ".bin"), true);
+    }
+    
+    /**
+     * @param file backing file (truncated)
+     * @param isTemporary delete the file on close
+     */
+    public MappedModelStore(Path file, boolean isTemporary) throws IOException {
+        this.file = file;
+        this.isTemporary = isTemporary;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+    
+    /**
+     * Write a namespace model to the store
+     *
+     * @return read-only view of the stored namespace, replacing the given model
+     */
+    public synchronized MappedNamespaceModel store(FlatNamespaceModel model) throws IOException {
+        Map<String, Map<String, Location>> index = new HashMap<>();
+        Map<String, String> otherNamespaces = new HashMap<>();
+        int reused = 0;
+        
+        for (String kind : model.getKinds()) {
+            Map<String, Location> kindIndex = new TreeMap<>();
+            for (Map.Entry<String, FlatObjectModel> entry : model.getObjectsByKind(kind).entrySet()) {
+                FlatObjectModel object = entry.getValue();
+                if (!Objects.equals(object.getNamespace(), model.getName())) {
+                    otherNamespaces.put(entry.getKey(), object.getNamespace());
+                }
+                
+                byte[] encoded = encode(object, false);
+                Fingerprint content = Fingerprint.builder().putBytes(encoded).build();
+                
+                Location location = locationsByContent.get(content);
+                if (location == null) {
+                    location = append(encoded);
+                    locationsByContent.put(content, location);
+                } else if (holds(location, encoded)) {
+                    reused++;
+                } else {
+                    location = append(encoded);
+                }
+                kindIndex.put(entry.getKey(), location);
+            }
+            index.put(kind, kindIndex);
+        }
+        sealSegment();
+        
+        MappedNamespaceModel view = new MappedNamespaceModel(model.getName(), model.getClusterName(), this,
+                index, otherNamespaces);
+        namespaces.put(model.getClusterName() + "/" + model.getName(), view);
+        log.debug("Stored namespace {}/{} off-heap: {} objects ({} shared), store size {} bytes",
+                model.getClusterName(), model.getName(), model.getObjects().size(), reused, position);
+        return view;
+    }
+    
+    /**
+     * Get a stored namespace by cluster and name
+     */
+    public synchronized MappedNamespaceModel getNamespace(String clusterName, String name) {
+        return namespaces.get(clusterName + "/" + name);
+    }
+    
+    /**
+     * Get all stored namespaces keyed by "cluster/namespace"
+     */
+    public synchronized Map<String, MappedNamespaceModel> getNamespaces() {
+        return Collections.unmodifiableMap(new TreeMap<>(namespaces));
+    }
+    
+    /**
+     * Total bytes written to the backing file
+     */
+    public synchronized long size() {
+        return position;
+    }
+    
+    /**
+     * Decode the object stored at a location (its record holds no namespace)
+     */
+    FlatObjectModel read(Location location) {
+        ByteBuffer buffer = segment(location.segment).duplicate();
+        buffer.position(location.offset);
+        return decode(buffer);
+    }
+        
+    /**
+     * Decode an object written by {@link #encode(FlatObjectModel)}, starting at the buffer's position
+     */
+    public static FlatObjectModel decode(ByteBuffer buffer) {
+        FlatObjectModel object = new FlatObjectModel();
+        object.setKind(readString(buffer));
+        object.setApiVersion(readString(buffer));
+        object.setName(readString(buffer));
+        object.setNamespace(readString(buffer));
+        object.setMetadata(readFields(buffer));
+        object.setSpec(readFields(buffer));
+        return object;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        segments.clear();
+        locationsByContent.clear();
+        namespaces.clear();
+        channel.close();
+        if (isTemporary) {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    private synchronized MappedByteBuffer segment(int index) {
+        return segments.get(index);
+    }
+    
+    /**
+     * Check whether the record at a location consists of exactly the given bytes
+     */
+    private boolean holds(Location location, byte[] encoded) throws IOException {
+        if (location.length != encoded.length) {
+            return false;
+        }
+        ByteBuffer stored;
+        if (location.segment < segments.size()) {
+            stored = segments.get(location.segment).duplicate();
+            stored.position(location.offset);
+            stored.limit(location.offset + location.length);
+        } else {
+            // Appended by the current store() call, not mapped yet
+            stored = ByteBuffer.allocate(location.length);
+            long start = segmentStart + location.offset;
+            while (stored.hasRemaining()) {
+                if (channel.read(stored, start + stored.position()) < 0) {
+                    return false;
+                }
+            }
+            stored.flip();
+        }
+        return stored.equals(ByteBuffer.wrap(encoded));
+    }
+    
+    private Location append(byte[] encoded) throws IOException {
+        if (encoded.length > MAX_SEGMENT_SIZE) {
+            throw new IOException("Object too large for model store: " + encoded.length + " bytes");
+        }
+        if (position - segmentStart + encoded.length > MAX_SEGMENT_SIZE) {
+            sealSegment();
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+        Location location = new Location(segments.size(), (int) (position - segmentStart), encoded.length);
+        position += encoded.length;
+        return location;
+    }
+    
+    /**
+     * Map everything written since the last seal as a new read-only segment
+     */
+    private void sealSegment() throws IOException {
+        if (position == segmentStart) {
+            return;
+        }
+        segments.add(channel.map(FileChannel.MapMode.READ_ONLY, segmentStart, position - segmentStart));
+        segmentStart = position;
+    }
+    
+    /**
+     * Encode an object in the store format (also used to hand objects to other processes)
+     */
+    public static byte[] encode(FlatObjectModel object) throws IOException {
+        return encode(object, true);
+    }
+    
+    private static byte[] encode(FlatObjectModel object, boolean withNamespace) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, object.getKind());
+        writeString(out, object.getApiVersion());
+        writeString(out, object.getName());
+        writeString(out, withNamespace ? object.getNamespace() : null);
+        writeFields(out, object.getMetadata());
+        writeFields(out, object.getSpec());
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    private static void writeFields(DataOutputStream out, Map<String, String> fields) throws IOException {
+        if (fields == null) {
+            out.writeInt(-1);
+            return;
+        }
+        // Sorted, so equal content always encodes to the same bytes
+        Map<String, String> sorted = new TreeMap<>(fields);
+        out.writeInt(sorted.size());
+        for (Map.Entry<String, String> field : sorted.entrySet()) {
+            writeString(out, field.getKey());
+            writeString(out, field.getValue());
+        }
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static Map<String, String> readFields(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count < 0) {
+            return null;
+        }
+        Map<String, String> fields = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            String key = readString(buffer);
+            fields.put(key, readString(buffer));
+        }
+        return fields;
+    }
+    
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Position of an encoded object: mapped segment, offset within it and record length
+     */
+    static final class Location {
+        final int segment;
+        final int offset;
+        final int length;
+        
+        Location(int segment, int offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+    
+    /**
+     * Open-addressing table from content fingerprint to location, kept in primitive arrays
+     * (28 bytes per record instead of a map entry with boxed key and value objects)
+     */
+    private static final class ContentTable {
+        private long[] highs = new long[1024];
+        private long[] lows = new long[1024];
+        private long[] locations = new long[1024]; // segment << 32 | offset, plus 1 (0 = empty slot)
+        private int[] lengths = new int[1024];
+        private int size;
+        
+        Location get(Fingerprint content) {
+            int slot = slot(content);
+            long packed = locations[slot];
+            return packed != 0 ? new Location((int) ((packed - 1) >>> 32), (int) (packed - 1), lengths[slot]) : null;
+        }
+        
+        void put(Fingerprint content, Location location) {
+            if ((size + 1) * 2 > locations.length) {
+                resize();
+            }
+            int slot = slot(content);
+            if (locations[slot] == 0) {
+                size++;
+            }
+            highs[slot] = content.getHigh();
+            lows[slot] = content.getLow();
+            locations[slot] = (((long) location.segment << 32) | (location.offset & 0xffffffffL)) + 1;
+            lengths[slot] = location.length;
+        }
+        
+        void clear() {
+            Arrays.fill(locations, 0);
+            size = 0;
+        }
+        
+        private int slot(Fingerprint content) {
+            int mask = locations.length - 1;
+            int slot = (int) (content.getHigh() ^ content.getLow()) & mask;
+            while (locations[slot] != 0 && (highs[slot] != content.getHigh() || lows[slot] != content.getLow())) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+        
+        private void resize() {
+            long[] oldHighs = highs;
+            long[] oldLows = lows;
+            long[] oldLocations = locations;
+            int[] oldLengths = lengths;
+            highs = new long[oldLocations.length * 2];
+            lows = new long[oldLocations.length * 2];
+            locations = new long[oldLocations.length * 2];
+            lengths = new int[oldLocations.length * 2];
+            for (int i = 0; i < oldLocations.length; i++) {
+                if (oldLocations[i] != 0) {
+                    int slot = slot(new Fingerprint(oldHighs[i], oldLows[i]));
+                    highs[slot] = oldHighs[i];
+                    lows[slot] = oldLows[i];
+                    locations[slot] = oldLocations[i];
+                    lengths[slot] = oldLengths[i];
+                }
+            }
+        }
+    }
+}
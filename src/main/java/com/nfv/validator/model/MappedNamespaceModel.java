@@ -0,0 +1,155 @@
+package com.nfv.validator.model;
+
+import java.lang.ref.SoftReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only namespace model backed by a {@link MappedModelStore}
+ * Object fields stay in the memory-mapped store; objects are decoded when accessed and kept only
+ * through soft references, so the collector can drop them under memory pressure and decode them
+ * again later. Decoded objects carry no field tree, so comparisons use their flattened fields.
+ * Stored records leave out the namespace: decoded objects get the namespace of this model, or the
+ * one recorded for them at store time if it differed.
+ */
+public class MappedNamespaceModel extends FlatNamespaceModel {
+    
+    private final MappedModelStore store;
+    private final Map<String, Map<String, MappedModelStore.Location>> index;
+    private final Map<String, String> otherNamespaces;
+    private final Map<String, FlatObjectModel> objects;
+    private final Map<String, SoftReference<FlatObjectModel>> decoded = new ConcurrentHashMap<>();
+    
+    /**
+     * @param index object locations by kind and object key
+     * @param otherNamespaces namespace of the objects whose namespace is not this model's name
+     */
+    MappedNamespaceModel(String name, String clusterName, MappedModelStore store,
+                         Map<String, Map<String, MappedModelStore.Location>> index,
+                         Map<String, String> otherNamespaces) {
+        setName(name);
+        setClusterName(clusterName);
+        this.store = store;
+        this.index = index;
+        this.otherNamespaces = otherNamespaces;
+        
+        // The index never changes, so one view over all kinds serves every getObjects() call
+        Map<String, MappedModelStore.Location> all = new HashMap<>();
+        for (Map<String, MappedModelStore.Location> kindIndex : index.values()) {
+            all.putAll(kindIndex);
+        }
+        this.objects = new LazyObjectMap(all);
+    }
+    
+    @Override
+    public Map<String, FlatObjectModel> getObjects() {
+        return objects;
+    }
+    
+    @Override
+    public FlatObjectModel getObject(String key) {
+        return objects.get(key);
+    }
+    
+    @Override
+    public Map<String, FlatObjectModel> getObjectsByKind(String kind) {
+        Map<String, MappedModelStore.Location> kindIndex = index.get(kind);
+        return kindIndex != null ? new LazyObjectMap(kindIndex) : Collections.emptyMap();
+    }
+    
+    @Override
+    public Set<String> getKinds() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+    
+    @Override
+    public void setObjects(Map<String, FlatObjectModel> objects) {
+        throw new UnsupportedOperationException("Mapped namespace models are read-only");
+    }
+    
+    @Override
+    public void addObject(String key, FlatObjectModel object) {
+        throw new UnsupportedOperationException("Mapped namespace models are read-only");
+    }
+    
+    @Override
+    public FlatObjectModel removeObject(String key) {
+        throw new UnsupportedOperationException("Mapped namespace models are read-only");
+    }
+    
+    private FlatObjectModel decode(String key, MappedModelStore.Location location) {
+        SoftReference<FlatObjectModel> ref = decoded.get(key);
+        FlatObjectModel object = ref != null ? ref.get() : null;
+        if (object == null) {
+            object = store.read(location);
+            object.setNamespace(otherNamespaces.containsKey(key) ? otherNamespaces.get(key) : getName());
+            decoded.put(key, new SoftReference<>(object));
+        }
+        return object;
+    }
+    
+    /**
+     * Read-only map view over index entries, decoding values on access
+     */
+    private final class LazyObjectMap extends AbstractMap<String, FlatObjectModel> {
+        private final Map<String, MappedModelStore.Location> locations;
+        
+        LazyObjectMap(Map<String, MappedModelStore.Location> locations) {
+            this.locations = locations;
+        }
+        
+        @Override
+        public int size() {
+            return locations.size();
+        }
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return locations.containsKey(key);
+        }
+        
+        @Override
+        public FlatObjectModel get(Object key) {
+            MappedModelStore.Location location = locations.get(key);
+            return location != null ? decode((String) key, location) : null;
+        }
+        
+        @Override
+        public Set<String> keySet() {
+            return Collections.unmodifiableSet(locations.keySet());
+        }
+        
+        @Override
+        public Set<Entry<String, FlatObjectModel>> entrySet() {
+            return new AbstractSet<Entry<String, FlatObjectModel>>() {
+                @Override
+                public int size() {
+                    return locations.size();
+                }
+                
+                @Override
+                public Iterator<Entry<String, FlatObjectModel>> iterator() {
+                    Iterator<Map.Entry<String, MappedModelStore.Location>> it = locations.entrySet().iterator();
+                    return new Iterator<Entry<String, FlatObjectModel>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+                        
+                        @Override
+                        public Entry<String, FlatObjectModel> next() {
+                            Map.Entry<String, MappedModelStore.Location> entry = it.next();
+                            return new SimpleImmutableEntry<>(entry.getKey(), decode(entry.getKey(), entry.getValue()));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.nfv.validator.model;
+
+import com.nfv.validator.util.Fingerprint;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canonicalizing store for object contents, scoped to one collection run
+ * When the same namespace is collected from many sites most objects are identical, so their
+ * flattened metadata/spec maps and field subtrees are stored once here and shared by reference
+ * between all models collected with this instance. Identical content then compares with a
+ * reference check. Canonical maps are read-only; FlatObjectModel copies them before its first
+ * modification. The instance holds every distinct content it has seen, so it should live only as
+ * long as the run (e.g. one CLI invocation) and be dropped or cleared afterwards.
+ */
+public class ModelInterner {
+    
+    private final Map<Map<String, String>, Map<String, String>> maps = new ConcurrentHashMap<>();
+    private final Map<Fingerprint, FieldNode> trees = new ConcurrentHashMap<>();
+    
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    
+    /**
+     * Replace the contents of an object by their canonical instances
+     * The object's fingerprints stay valid since its content does not change.
+     *
+     * @return the same object, now sharing its maps and field tree
+     */
+    public FlatObjectModel intern(FlatObjectModel object) {
+        FieldNode tree = object.getFieldTree();
+        object.shareContent(intern(object.metadataMap()), intern(object.specMap()),
+                tree != null ? intern(tree) : null);
+        return object;
+    }
+    
+    /**
+     * Get the canonical read-only instance of a flattened map
+     */
+    public Map<String, String> intern(Map<String, String> map) {
+        if (map == null) {
+            return null;
+        }
+        lookups.incrementAndGet();
+        Map<String, String> canonical = maps.get(map);
+        if (canonical != null) {
+            hits.incrementAndGet();
+            return canonical;
+        }
+        Map<String, String> candidate = Collections.unmodifiableMap(map);
+        canonical = maps.putIfAbsent(candidate, candidate);
+        return canonical != null ? canonical : candidate;
+    }
+    
+    /**
+     * Get the canonical instance of a field (sub)tree
+     * Inner nodes are interned bottom-up, so equal subtrees of different objects (e.g. the same
+     * container spec in two Deployments) are shared as well. Leaves are not interned individually.
+     * Trees are looked up by hash, but a stored tree is only returned if its content is equal;
+     * on a hash collision the node keeps its own content.
+     */
+    public FieldNode intern(FieldNode node) {
+        if (node.isLeaf()) {
+            return node;
+        }
+        lookups.incrementAndGet();
+        FieldNode canonical = trees.get(node.getHash());
+        if (canonical != null && canonical.contentEquals(node)) {
+            hits.incrementAndGet();
+            return canonical;
+        }
+        FieldNode candidate = node.mapChildren(this::intern);
+        if (canonical == null) {
+            canonical = trees.putIfAbsent(candidate.getHash(), candidate);
+        }
+        return canonical != null && canonical.contentEquals(candidate) ? canonical : candidate;
+    }
+    
+    /**
+     * Number of distinct maps and inner tree nodes held
+     */
+    public int size() {
+        return maps.size() + trees.size();
+    }
+    
+    /**
+     * Fraction of lookups answered by an existing instance (0..1)
+     */
+    public double getHitRate() {
+        long total = lookups.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+    
+    /**
+     * Drop all canonical instances (models keep the instances they already share)
+     */
+    public void clear() {
+        maps.clear();
+        trees.clear();
+        lookups.set(0);
+        hits.set(0);
+    }
+}
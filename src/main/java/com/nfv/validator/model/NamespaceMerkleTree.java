@@ -0,0 +1,176 @@
+package com.nfv.validator.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.util.Fingerprint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Merkle tree summary of a namespace: kind -> object -> top-level subtree
+ * Each node hash covers everything below it, so two sites agree on a kind (or the whole
+ * namespace) when the hashes agree, and a comparison only needs to descend where they differ.
+ * The tree is plain data and can be written to / read from JSON to exchange between sites.
+ */
+@Data
+@NoArgsConstructor
+public class NamespaceMerkleTree {
+    
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    
+    /**
+     * Namespace name
+     */
+    private String namespace;
+    
+    /**
+     * Cluster identifier
+     */
+    private String clusterName;
+    
+    /**
+     * Root hash covering all kinds
+     */
+    private Fingerprint root;
+    
+    /**
+     * Kind nodes by kind name (sorted)
+     */
+    private Map<String, KindNode> kinds = new TreeMap<>();
+    
+    /**
+     * Build the Merkle tree of a namespace model
+     *
+     * @param model namespace model
+     * @param config validation config used for field filtering (null = all fields)
+     */
+    public static NamespaceMerkleTree build(FlatNamespaceModel model, ValidationConfig config) {
+        NamespaceMerkleTree tree = new NamespaceMerkleTree();
+        tree.setNamespace(model.getName());
+        tree.setClusterName(model.getClusterName());
+        
+        Fingerprint.Builder rootHash = Fingerprint.builder();
+        for (String kind : new TreeSet<>(model.getKinds())) {
+            KindNode kindNode = new KindNode();
+            Fingerprint.Builder kindHash = Fingerprint.builder();
+            
+            Map<String, FlatObjectModel> objects = new TreeMap<>(model.getObjectsByKind(kind));
+            for (Map.Entry<String, FlatObjectModel> entry : objects.entrySet()) {
+                FlatObjectModel obj = entry.getValue();
+                ObjectNode objectNode = new ObjectNode(
+                        obj.getFingerprint(config),
+                        obj.getFilteredFieldCount(config),
+                        obj.getSubtreeFingerprints(config));
+                kindNode.getObjects().put(entry.getKey(), objectNode);
+                kindHash.putString(entry.getKey()).putFingerprint(objectNode.getHash());
+            }
+            
+            kindNode.setHash(kindHash.build());
+            tree.getKinds().put(kind, kindNode);
+            rootHash.putString(kind).putFingerprint(kindNode.getHash());
+        }
+        tree.setRoot(rootHash.build());
+        
+        return tree;
+    }
+    
+    /**
+     * Check whether two trees describe identical content
+     */
+    public boolean matches(NamespaceMerkleTree other) {
+        return other != null && root != null && root.equals(other.getRoot());
+    }
+    
+    /**
+     * Get keys of objects whose content differs or which exist only in one tree
+     * Only kinds whose hashes differ are descended into.
+     */
+    public Set<String> diffObjects(NamespaceMerkleTree other) {
+        Set<String> differing = new TreeSet<>();
+        if (matches(other)) {
+            return differing;
+        }
+        
+        Set<String> allKinds = new TreeSet<>(kinds.keySet());
+        allKinds.addAll(other.getKinds().keySet());
+        
+        for (String kind : allKinds) {
+            KindNode mine = kinds.get(kind);
+            KindNode theirs = other.getKinds().get(kind);
+            if (mine != null && theirs != null && mine.getHash().equals(theirs.getHash())) {
+                continue;
+            }
+            if (mine == null || theirs == null) {
+                differing.addAll((mine != null ? mine : theirs).getObjects().keySet());
+                continue;
+            }
+            
+            Set<String> keys = new TreeSet<>(mine.getObjects().keySet());
+            keys.addAll(theirs.getObjects().keySet());
+            for (String key : keys) {
+                ObjectNode a = mine.getObjects().get(key);
+                ObjectNode b = theirs.getObjects().get(key);
+                if (a == null || b == null || !a.getHash().equals(b.getHash())) {
+                    differing.add(key);
+                }
+            }
+        }
+        
+        return differing;
+    }
+    
+    /**
+     * Write the tree as JSON
+     */
+    public void writeTo(File file) throws IOException {
+        MAPPER.writeValue(file, this);
+    }
+    
+    /**
+     * Read a tree previously written with {@link #writeTo(File)}
+     */
+    public static NamespaceMerkleTree readFrom(File file) throws IOException {
+        return MAPPER.readValue(file, NamespaceMerkleTree.class);
+    }
+    
+    /**
+     * Hash node for all objects of one kind
+     */
+    @Data
+    @NoArgsConstructor
+    public static class KindNode {
+        private Fingerprint hash;
+        private Map<String, ObjectNode> objects = new TreeMap<>();
+    }
+    
+    /**
+     * Hash node for one object; its hash equals the object fingerprint
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ObjectNode {
+        private Fingerprint hash;
+        private int fieldCount;
+        private Map<String, SubtreeNode> subtrees = new TreeMap<>();
+    }
+    
+    /**
+     * Hash leaf for one top-level subtree of an object (e.g. "spec.template", "metadata.labels")
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubtreeNode {
+        private Fingerprint hash;
+        private int fieldCount;
+    }
+}
@@ -0,0 +1,207 @@
+package com.nfv.validator.model;
+
+import com.nfv.validator.config.IgnoreMatcher;
+import com.nfv.validator.config.IgnoreRule;
+import com.nfv.validator.config.NormalizeRule;
+import io.fabric8.kubernetes.api.model.Quantity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Canonicalizes leaf values of selected fields so that equivalent spellings compare equal
+ * e.g. quantities "1000m" and "1" -> "1", "1Gi" and "1024Mi" -> "1073741824"; durations
+ * "1m30s" and "90s" -> "90s"; booleans "True" and "yes" -> "true"; ports "08080" -> "8080".
+ * Fields are selected by NormalizeRule path patterns (same syntax as ignore rules).
+ * Values that cannot be parsed are kept as they are. Parsed values are memoized in a bounded
+ * LRU cache per type, since the same values repeat across many objects.
+ */
+public final class ValueNormalizer {
+    
+    /**
+     * Maximum number of memoized values per type
+     */
+    public static final int CACHE_SIZE = 4096;
+    
+    private static final Pattern DURATION_PART = Pattern.compile("(\\d+(?:\\.\\d+)?)(ns|us|µs|ms|s|m|h)");
+    
+    /**
+     * Canonical form of a value
+     */
+    public enum Type {
+        /** Kubernetes resource quantity, as a plain decimal number of base units */
+        QUANTITY,
+        /** Port number without leading zeros (named ports are kept) */
+        PORT,
+        /** "true" or "false" (also accepts yes/no, on/off, any case) */
+        BOOLEAN,
+        /** Go-style duration ("1h30m", "500ms"), as seconds with an "s" suffix */
+        DURATION
+    }
+    
+    private final Map<Type, IgnoreMatcher> matchers = new EnumMap<>(Type.class);
+    private final Map<Type, Map<String, String>> memo = new EnumMap<>(Type.class);
+    
+    /**
+     * Compile normalize rules
+     *
+     * @param rules rules, optionally scoped to a resource type (may be null)
+     */
+    public ValueNormalizer(List<NormalizeRule> rules) {
+        Map<Type, List<IgnoreRule>> patterns = new EnumMap<>(Type.class);
+        if (rules != null) {
+            for (NormalizeRule rule : rules) {
+                if (rule.getType() != null && rule.getJsonPath() != null) {
+                    patterns.computeIfAbsent(rule.getType(), t -> new ArrayList<>())
+                            .add(new IgnoreRule(rule.getResourceType(), rule.getJsonPath()));
+                }
+            }
+        }
+        for (Map.Entry<Type, List<IgnoreRule>> entry : patterns.entrySet()) {
+            matchers.put(entry.getKey(), new IgnoreMatcher(null, entry.getValue()));
+            memo.put(entry.getKey(), Collections.synchronizedMap(new LinkedHashMap<String, String>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            }));
+        }
+    }
+    
+    /**
+     * Check whether no rules are configured (normalize then never changes a value)
+     */
+    public boolean isEmpty() {
+        return matchers.isEmpty();
+    }
+    
+    /**
+     * Get the canonical form of a field value
+     *
+     * @param kind resource kind
+     * @param fieldPath full field path (e.g. "spec.template.spec.containers[0].resources.limits.cpu")
+     * @return canonical value, or the value itself if no rule applies or it cannot be parsed
+     */
+    public String normalize(String kind, String fieldPath, String value) {
+        if (value == null || matchers.isEmpty()) {
+            return value;
+        }
+        Type type = typeOf(kind, fieldPath);
+        if (type == null) {
+            return value;
+        }
+        Map<String, String> cache = memo.get(type);
+        String canonical = cache.get(value);
+        if (canonical == null) {
+            canonical = canonical(type, value);
+            cache.put(value, canonical);
+        }
+        return canonical;
+    }
+    
+    /**
+     * Check whether any rule applies to a field or to fields below it
+     */
+    public boolean reaches(String kind, String fieldPath) {
+        for (IgnoreMatcher matcher : matchers.values()) {
+            if (matcher.match(kind, fieldPath) != IgnoreMatcher.Match.NONE) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Get the type of the first rule matching a field, or null
+     */
+    public Type typeOf(String kind, String fieldPath) {
+        for (Map.Entry<Type, IgnoreMatcher> entry : matchers.entrySet()) {
+            if (entry.getValue().matches(kind, fieldPath)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Canonicalize a value (not memoized)
+     */
+    public static String canonical(Type type, String value) {
+        String trimmed = value.trim();
+        try {
+            switch (type) {
+                case QUANTITY:
+                    return plain(Quantity.getAmountInBytes(new Quantity(trimmed)));
+                case PORT:
+                    return trimmed.matches("\\d+") ? String.valueOf(Integer.parseInt(trimmed)) : value;
+                case BOOLEAN:
+                    return canonicalBoolean(trimmed, value);
+                case DURATION:
+                    return canonicalDuration(trimmed, value);
+                default:
+                    return value;
+            }
+        } catch (RuntimeException e) {
+            return value;
+        }
+    }
+    
+    private static String canonicalBoolean(String trimmed, String value) {
+        switch (trimmed.toLowerCase(Locale.ROOT)) {
+            case "true":
+            case "yes":
+            case "on":
+                return "true";
+            case "false":
+            case "no":
+            case "off":
+                return "false";
+            default:
+                return value;
+        }
+    }
+    
+    private static String canonicalDuration(String trimmed, String value) {
+        Matcher matcher = DURATION_PART.matcher(trimmed);
+        BigDecimal seconds = BigDecimal.ZERO;
+        int end = 0;
+        while (matcher.find() && matcher.start() == end) {
+            seconds = seconds.add(new BigDecimal(matcher.group(1)).multiply(unitSeconds(matcher.group(2))));
+            end = matcher.end();
+        }
+        if (end == 0 || end != trimmed.length()) {
+            return value;
+        }
+        return plain(seconds) + "s";
+    }
+    
+    private static BigDecimal unitSeconds(String unit) {
+        switch (unit) {
+            case "ns":
+                return new BigDecimal("1e-9");
+            case "us":
+            case "µs":
+                return new BigDecimal("1e-6");
+            case "ms":
+                return new BigDecimal("1e-3");
+            case "m":
+                return BigDecimal.valueOf(60);
+            case "h":
+                return BigDecimal.valueOf(3600);
+            default:
+                return BigDecimal.ONE;
+        }
+    }
+    
+    private static String plain(BigDecimal number) {
+        return number.signum() == 0 ? "0" : number.stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.nfv.validator.model.comparison;
+
+import com.nfv.validator.util.MinHash;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Similarity map of a fleet of namespaces: groups of similar namespaces and outliers
+ * Namespaces are referred to by their index in the namespace list.
+ */
+@Data
+public class FleetSimilarity {
+    /**
+     * Namespace labels ("cluster/namespace"), in input order
+     */
+    private List<String> namespaces = new ArrayList<>();
+    
+    /**
+     * Similarity threshold used for grouping
+     */
+    private double threshold;
+    
+    /**
+     * Groups of similar namespaces, largest first; single-member groups are outliers
+     */
+    private List<Group> groups = new ArrayList<>();
+    
+    /**
+     * MinHash signature per namespace
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private long[][] signatures;
+    
+    /**
+     * Estimated Jaccard similarity of the (path=value) sets of two namespaces
+     */
+    public double similarity(int a, int b) {
+        return MinHash.similarity(signatures[a], signatures[b]);
+    }
+    
+    /**
+     * Get the groups with more than one member
+     */
+    public List<Group> getClusters() {
+        List<Group> clusters = new ArrayList<>();
+        for (Group group : groups) {
+            if (group.getMembers().size() > 1) {
+                clusters.add(group);
+            }
+        }
+        return clusters;
+    }
+    
+    /**
+     * Get the namespaces not similar to any other
+     */
+    public List<Integer> getOutliers() {
+        List<Integer> outliers = new ArrayList<>();
+        for (Group group : groups) {
+            if (group.getMembers().size() == 1) {
+                outliers.add(group.getRepresentative());
+            }
+        }
+        return outliers;
+    }
+    
+    /**
+     * Get the representative of the cluster most similar to a namespace, or -1 if there are no clusters
+     */
+    public int nearestRepresentative(int namespace) {
+        int nearest = -1;
+        double best = -1;
+        for (Group cluster : getClusters()) {
+            double similarity = similarity(namespace, cluster.getRepresentative());
+            if (similarity > best) {
+                best = similarity;
+                nearest = cluster.getRepresentative();
+            }
+        }
+        return nearest;
+    }
+    
+    /**
+     * Namespace pairs worth a full comparison: each cluster member against its representative,
+     * and each outlier against the nearest representative (or the first namespace without clusters)
+     *
+     * @return pairs of namespace indices, representative first
+     */
+    public List<int[]> getComparisonPairs() {
+        List<int[]> pairs = new ArrayList<>();
+        for (Group cluster : getClusters()) {
+            for (int member : cluster.getMembers()) {
+                if (member != cluster.getRepresentative()) {
+                    pairs.add(new int[] {cluster.getRepresentative(), member});
+                }
+            }
+        }
+        for (int outlier : getOutliers()) {
+            int nearest = nearestRepresentative(outlier);
+            if (nearest < 0) {
+                nearest = outlier == 0 ? -1 : 0;
+            }
+            if (nearest >= 0) {
+                pairs.add(new int[] {nearest, outlier});
+            }
+        }
+        return pairs;
+    }
+    
+    /**
+     * Group of similar namespaces
+     */
+    @Data
+    public static class Group {
+        /**
+         * Member most similar to the others, compared against the rest
+         */
+        private int representative;
+        
+        /**
+         * Member indices, ascending
+         */
+        private List<Integer> members = new ArrayList<>();
+    }
+}
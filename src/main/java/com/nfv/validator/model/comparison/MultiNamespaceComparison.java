@@ -0,0 +1,197 @@
+package com.nfv.validator.model.comparison;
+
+import lombok.Data;
+import java.util.*;
+
+/**
+ * Comparison result for N namespaces at once, as a value matrix
+ * Each object row holds one column per namespace; only fields whose values are not identical
+ * in every namespace are stored, with their values grouped into distinct value groups.
+ * Pairwise results are derived from the matrix on demand.
+ */
+@Data
+public class MultiNamespaceComparison {
+    /**
+     * Namespace names, in column order
+     */
+    private List<String> namespaces = new ArrayList<>();
+    
+    /**
+     * Object rows by object ID, grouped by kind and sorted by key
+     */
+    private Map<String, ObjectRow> objects = new LinkedHashMap<>();
+    
+    /**
+     * Add an object row
+     */
+    public void addObject(ObjectRow row) {
+        objects.put(row.getObjectId(), row);
+    }
+    
+    /**
+     * Get only objects that are not identical in every namespace
+     */
+    public List<ObjectRow> getObjectsWithDifferences() {
+        List<ObjectRow> result = new ArrayList<>();
+        for (ObjectRow row : objects.values()) {
+            if (!row.isUniform()) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Derive the comparison of two namespace columns
+     * Equivalent to a sparse NamespaceComparator result: differences are listed, matches only counted.
+     *
+     * @param left column of the left namespace
+     * @param right column of the right namespace
+     */
+    public NamespaceComparison pairwise(int left, int right) {
+        NamespaceComparison comparison = new NamespaceComparison();
+        comparison.setLeftNamespace(namespaces.get(left));
+        comparison.setRightNamespace(namespaces.get(right));
+        
+        for (ObjectRow row : objects.values()) {
+            boolean inLeft = row.isPresent(left);
+            boolean inRight = row.isPresent(right);
+            if (!inLeft && !inRight) {
+                continue;
+            }
+            
+            ObjectComparison objComparison = new ObjectComparison();
+            objComparison.setObjectId(row.getObjectId());
+            objComparison.setObjectType(row.getObjectType());
+            objComparison.setSparse(true);
+            
+            if (!inLeft) {
+                objComparison.addItem(new KeyComparison(row.getObjectId(), null, "exists", ComparisonStatus.ONLY_IN_RIGHT));
+            } else if (!inRight) {
+                objComparison.addItem(new KeyComparison(row.getObjectId(), "exists", null, ComparisonStatus.ONLY_IN_LEFT));
+            } else if (row.getContentGroups()[left] == row.getContentGroups()[right]) {
+                objComparison.addMatchedFields(row.getFieldCounts()[left]);
+            } else {
+                objComparison.addMatchedFields(row.getUniformFieldCount());
+                for (FieldRow field : row.getFields()) {
+                    addPairItem(objComparison, field, left, right);
+                }
+            }
+            comparison.addObjectResult(row.getObjectId(), objComparison);
+        }
+        
+        return comparison;
+    }
+    
+    private static void addPairItem(ObjectComparison comparison, FieldRow field, int left, int right) {
+        String leftValue = field.getValues()[left];
+        String rightValue = field.getValues()[right];
+        if (leftValue == null && rightValue == null) {
+            return;
+        }
+        if (field.getGroups()[left] == field.getGroups()[right]) {
+            comparison.addMatchedFields(1);
+            return;
+        }
+        ComparisonStatus status = leftValue == null ? ComparisonStatus.ONLY_IN_RIGHT
+                : rightValue == null ? ComparisonStatus.ONLY_IN_LEFT
+                : ComparisonStatus.DIFFERENT;
+        comparison.addItem(new KeyComparison(field.getKey(), leftValue, rightValue, status));
+    }
+    
+    /**
+     * One object across all namespaces
+     */
+    @Data
+    public static class ObjectRow {
+        private String objectId;
+        private String objectType;
+        
+        /**
+         * Content group per namespace (-1 = object missing); equal groups mean identical filtered fields
+         */
+        private int[] contentGroups;
+        
+        /**
+         * Number of filtered fields per namespace (0 where the object is missing)
+         */
+        private int[] fieldCounts;
+        
+        /**
+         * Number of fields with the same value in every namespace (not stored as field rows)
+         */
+        private int uniformFieldCount;
+        
+        /**
+         * Fields whose values are not identical in every namespace, sorted by key
+         */
+        private List<FieldRow> fields = new ArrayList<>();
+        
+        public boolean isPresent(int namespace) {
+            return contentGroups[namespace] >= 0;
+        }
+        
+        /**
+         * Check if the object exists with identical content in every namespace
+         */
+        public boolean isUniform() {
+            for (int group : contentGroups) {
+                if (group != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+    
+    /**
+     * Values of one field across all namespaces
+     */
+    @Data
+    public static class FieldRow {
+        private String key;
+        
+        /**
+         * Value per namespace (null = field or object missing)
+         */
+        private String[] values;
+        
+        /**
+         * Value group per namespace (-1 = missing); groups are numbered in order of first appearance
+         * Values in one group have the same canonical form, but may be spelled differently.
+         */
+        private int[] groups;
+        
+        /**
+         * Number of distinct values (by canonical form)
+         */
+        private int groupCount;
+        
+        public FieldRow(String key, String[] values) {
+            this(key, values, values);
+        }
+        
+        /**
+         * @param canonicals canonical form of each value, used for grouping (not retained)
+         */
+        public FieldRow(String key, String[] values, String[] canonicals) {
+            this.key = key;
+            this.values = values;
+            this.groups = new int[values.length];
+            List<String> distinct = new ArrayList<>(2);
+            for (int i = 0; i < values.length; i++) {
+                if (canonicals[i] == null) {
+                    groups[i] = -1;
+                    continue;
+                }
+                int group = distinct.indexOf(canonicals[i]);
+                if (group < 0) {
+                    group = distinct.size();
+                    distinct.add(canonicals[i]);
+                }
+                groups[i] = group;
+            }
+            this.groupCount = distinct.size();
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.nfv.validator.model.comparison;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -20,23 +25,99 @@ public class NamespaceComparison {
     private String rightNamespace;
     
     /**
-     * Map of object comparisons by object ID
+     * True if comparing stopped at the difference limit, so not every object has a result
      */
-    private Map<String, ObjectComparison> objectComparisons = new HashMap<>();
+    private boolean truncated;
     
     /**
-     * Add an object comparison result
+     * Map of object comparisons by object ID, in the order they were added
      */
-    public void addObjectResult(String objectId, ObjectComparison comparison) {
-        objectComparisons.put(objectId, comparison);
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<String, ObjectComparison> objectComparisons = new LinkedHashMap<>();
+    
+    // Object comparisons grouped by object type, maintained as results are added
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Map<String, List<ObjectComparison>> objectsByType = new LinkedHashMap<>();
+    
+    // Summary computed on first use; adjusted as results are added, replaced or removed
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient ComparisonSummary summary;
+    
+    /**
+     * Add an object comparison result (safe to call from several threads)
+     * The result should be complete: the cached summary only reflects items present when it is added.
+     * A result with the same object ID is replaced.
+     */
+    public synchronized void addObjectResult(String objectId, ObjectComparison comparison) {
+        ObjectComparison previous = objectComparisons.put(objectId, comparison);
+        if (previous != null) {
+            removeFromIndex(previous);
+        }
+        objectsByType.computeIfAbsent(comparison.getObjectType(), k -> new ArrayList<>()).add(comparison);
+        if (summary != null) {
+            summary = adjust(summary, previous, comparison);
+        }
+    }
+    
+    /**
+     * Remove the result of an object
+     *
+     * @return the removed result, or null if there was none
+     */
+    public synchronized ObjectComparison removeObjectResult(String objectId) {
+        ObjectComparison previous = objectComparisons.remove(objectId);
+        if (previous != null) {
+            removeFromIndex(previous);
+            if (summary != null) {
+                summary = adjust(summary, previous, null);
+            }
+        }
+        return previous;
+    }
+    
+    private void removeFromIndex(ObjectComparison comparison) {
+        List<ObjectComparison> ofType = objectsByType.get(comparison.getObjectType());
+        ofType.remove(comparison);
+        if (ofType.isEmpty()) {
+            objectsByType.remove(comparison.getObjectType());
+        }
+    }
+    
+    /**
+     * Get all object comparisons by object ID (read-only; use addObjectResult to add)
+     */
+    public Map<String, ObjectComparison> getObjectComparisons() {
+        return Collections.unmodifiableMap(objectComparisons);
+    }
+    
+    /**
+     * Replace all object comparisons
+     */
+    public synchronized void setObjectComparisons(Map<String, ObjectComparison> objectComparisons) {
+        this.objectComparisons = new LinkedHashMap<>();
+        this.objectsByType = new LinkedHashMap<>();
+        this.summary = null;
+        for (Map.Entry<String, ObjectComparison> entry : objectComparisons.entrySet()) {
+            addObjectResult(entry.getKey(), entry.getValue());
+        }
     }
     
     /**
      * Get objects grouped by type
      */
-    public Map<String, List<ObjectComparison>> getObjectsByType() {
-        return objectComparisons.values().stream()
-                .collect(Collectors.groupingBy(ObjectComparison::getObjectType));
+    public synchronized Map<String, List<ObjectComparison>> getObjectsByType() {
+        Map<String, List<ObjectComparison>> result = new LinkedHashMap<>();
+        for (Map.Entry<String, List<ObjectComparison>> entry : objectsByType.entrySet()) {
+            result.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+        }
+        return result;
     }
     
     /**
@@ -49,44 +130,72 @@ public class NamespaceComparison {
     }
     
     /**
-     * Get summary statistics
+     * Get summary statistics (computed in one pass over the objects and cached)
      */
-    public ComparisonSummary getSummary() {
-        ComparisonSummary summary = new ComparisonSummary();
-        
-        long onlyInLeft = objectComparisons.values().stream()
-                .filter(obj -> obj.getItems().stream()
-                        .anyMatch(item -> item.getStatus() == ComparisonStatus.ONLY_IN_LEFT))
-                .count();
-        
-        long onlyInRight = objectComparisons.values().stream()
-                .filter(obj -> obj.getItems().stream()
-                        .anyMatch(item -> item.getStatus() == ComparisonStatus.ONLY_IN_RIGHT))
-                .count();
-        
-        long matched = objectComparisons.values().stream()
-                .filter(ObjectComparison::isFullMatch)
-                .count();
-        
-        long withDifferences = objectComparisons.values().stream()
-                .filter(obj -> obj.getDifferenceCount() > 0)
-                .count();
-        
-        summary.setTotalInLeft((int) (objectComparisons.size() - onlyInRight));
-        summary.setTotalInRight((int) (objectComparisons.size() - onlyInLeft));
-        summary.setOnlyInLeft((int) onlyInLeft);
-        summary.setOnlyInRight((int) onlyInRight);
-        summary.setCommonObjects(objectComparisons.size());
-        summary.setMatchedObjects((int) matched);
-        summary.setDifferencesCount((int) withDifferences);
+    public synchronized ComparisonSummary getSummary() {
+        if (summary != null) {
+            return summary;
+        }
         
-        if (objectComparisons.size() > 0) {
-            summary.setMatchPercentage((matched * 100.0) / objectComparisons.size());
+        int onlyInLeft = 0;
+        int onlyInRight = 0;
+        int matched = 0;
+        int withDifferences = 0;
+        for (ObjectComparison obj : objectComparisons.values()) {
+            onlyInLeft += obj.isOnlyInLeft() ? 1 : 0;
+            onlyInRight += obj.isOnlyInRight() ? 1 : 0;
+            matched += obj.isFullMatch() ? 1 : 0;
+            withDifferences += obj.getDifferenceCount() > 0 ? 1 : 0;
         }
         
+        summary = summaryOf(objectComparisons.size(), onlyInLeft, onlyInRight, matched, withDifferences);
         return summary;
     }
     
+    /**
+     * Summary after replacing one object result (either side may be null)
+     * Also used to count streamed results, starting from an empty ComparisonSummary.
+     */
+    public static ComparisonSummary adjust(ComparisonSummary summary, ObjectComparison removed, ObjectComparison added) {
+        int size = summary.getCommonObjects();
+        int onlyInLeft = summary.getOnlyInLeft();
+        int onlyInRight = summary.getOnlyInRight();
+        int matched = summary.getMatchedObjects();
+        int withDifferences = summary.getDifferencesCount();
+        if (removed != null) {
+            size--;
+            onlyInLeft -= removed.isOnlyInLeft() ? 1 : 0;
+            onlyInRight -= removed.isOnlyInRight() ? 1 : 0;
+            matched -= removed.isFullMatch() ? 1 : 0;
+            withDifferences -= removed.getDifferenceCount() > 0 ? 1 : 0;
+        }
+        if (added != null) {
+            size++;
+            onlyInLeft += added.isOnlyInLeft() ? 1 : 0;
+            onlyInRight += added.isOnlyInRight() ? 1 : 0;
+            matched += added.isFullMatch() ? 1 : 0;
+            withDifferences += added.getDifferenceCount() > 0 ? 1 : 0;
+        }
+        return summaryOf(size, onlyInLeft, onlyInRight, matched, withDifferences);
+    }
+    
+    private static ComparisonSummary summaryOf(int size, int onlyInLeft, int onlyInRight,
+                                               int matched, int withDifferences) {
+        ComparisonSummary result = new ComparisonSummary();
+        result.setTotalInLeft(size - onlyInRight);
+        result.setTotalInRight(size - onlyInLeft);
+        result.setOnlyInLeft(onlyInLeft);
+        result.setOnlyInRight(onlyInRight);
+        result.setCommonObjects(size);
+        result.setMatchedObjects(matched);
+        result.setDifferencesCount(withDifferences);
+        
+        if (size > 0) {
+            result.setMatchPercentage((matched * 100.0) / size);
+        }
+        return result;
+    }
+    
     /**
      * Summary statistics for namespace comparison
      */
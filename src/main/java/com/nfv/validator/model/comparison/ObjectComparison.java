@@ -1,12 +1,19 @@
 package com.nfv.validator.model.comparison;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Represents comparison result for a single object (containing multiple field comparisons)
+ * Counters are maintained as items are added, so the aggregate getters do not scan the items.
  */
 @Data
 public class ObjectComparison {
@@ -20,29 +27,115 @@ public class ObjectComparison {
      */
     private String objectType;
     
+    /**
+     * Identifier of the right-side object when it was paired by similarity under a different name
+     * (null when both sides share the object identifier)
+     */
+    private String pairedObjectId;
+    
     /**
      * List of field-level comparison items
      */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private List<KeyComparison> items = new ArrayList<>();
     
     /**
-     * Add a comparison item
+     * Number of matching fields accounted for without an individual item
+     * (e.g. objects short-circuited because their fingerprints are equal)
+     */
+    private int unlistedMatchCount;
+    
+    /**
+     * Sparse mode: matching items are only counted, not stored
+     */
+    private boolean sparse;
+    
+    // Items with differences, in the order they were added
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<KeyComparison> differences = new ArrayList<>();
+    
+    // Number of matching items stored individually
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private int storedMatchCount;
+    
+    /**
+     * True if any item is ONLY_IN_LEFT (e.g. the object exists only in the left namespace)
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean onlyInLeft;
+    
+    /**
+     * True if any item is ONLY_IN_RIGHT
+     */
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean onlyInRight;
+    
+    /**
+     * Add a comparison item (in sparse mode a matching item is only counted)
      */
     public void addItem(KeyComparison item) {
+        if (sparse && item.isMatch()) {
+            unlistedMatchCount++;
+            return;
+        }
         items.add(item);
+        if (item.isMatch()) {
+            storedMatchCount++;
+        } else if (item.hasDifference()) {
+            differences.add(item);
+            onlyInLeft |= item.getStatus() == ComparisonStatus.ONLY_IN_LEFT;
+            onlyInRight |= item.getStatus() == ComparisonStatus.ONLY_IN_RIGHT;
+        }
+    }
+    
+    /**
+     * Record matching fields without storing an item for each of them
+     */
+    public void addMatchedFields(int count) {
+        unlistedMatchCount += count;
+    }
+    
+    /**
+     * Get all stored items (read-only; use addItem to add)
+     */
+    public List<KeyComparison> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+    
+    /**
+     * Replace all items, recomputing the counters
+     */
+    public void setItems(List<KeyComparison> items) {
+        this.items = new ArrayList<>();
+        this.differences = new ArrayList<>();
+        this.storedMatchCount = 0;
+        this.onlyInLeft = false;
+        this.onlyInRight = false;
+        for (KeyComparison item : items) {
+            addItem(item);
+        }
     }
     
     /**
      * Get only items with differences
      */
     public List<KeyComparison> getDifferences() {
-        return items.stream()
-                .filter(KeyComparison::hasDifference)
-                .collect(Collectors.toList());
+        return Collections.unmodifiableList(differences);
     }
     
     /**
-     * Get only matching items
+     * Get only matching items that were stored individually (none in sparse mode)
      */
     public List<KeyComparison> getMatches() {
         return items.stream()
@@ -54,28 +147,29 @@ public class ObjectComparison {
      * Check if all fields match
      */
     public boolean isFullMatch() {
-        return items.stream().allMatch(KeyComparison::isMatch);
+        return storedMatchCount == items.size();
     }
     
     /**
      * Get count of differences
      */
     public int getDifferenceCount() {
-        return (int) items.stream().filter(KeyComparison::hasDifference).count();
+        return differences.size();
     }
     
     /**
      * Get count of matches
      */
     public int getMatchCount() {
-        return (int) items.stream().filter(KeyComparison::isMatch).count();
+        return storedMatchCount + unlistedMatchCount;
     }
     
     /**
      * Get match percentage
      */
     public double getMatchPercentage() {
-        if (items.isEmpty()) return 100.0;
-        return (getMatchCount() * 100.0) / items.size();
+        int total = items.size() + unlistedMatchCount;
+        if (total == 0) return 100.0;
+        return (getMatchCount() * 100.0) / total;
     }
 }
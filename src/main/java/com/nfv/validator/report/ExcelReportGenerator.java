@@ -1,8 +1,11 @@
 package com.nfv.validator.report;
 
+import com.nfv.validator.comparison.MultiNamespaceComparator;
 import com.nfv.validator.config.ValidationConfig;
 import com.nfv.validator.model.FlatNamespaceModel;
 import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.LargeValues;
+import com.nfv.validator.model.comparison.MultiNamespaceComparison;
 import com.nfv.validator.model.comparison.NamespaceComparison;
 import com.nfv.validator.model.comparison.ObjectComparison;
 import lombok.extern.slf4j.Slf4j;
@@ -34,8 +37,50 @@ public class ExcelReportGenerator {
                                Map<String, NamespaceComparison> comparisons,
                                String outputPath,
                                ValidationConfig validationConfig) throws IOException {
+        generateReport(namespaceModels, comparisons, null, outputPath, validationConfig);
+    }
+    
+    /**
+     * Generate Excel report, reusing an N-way comparison of the same namespaces for the value columns
+     * 
+     * @param namespaceModels List of namespace models being compared
+     * @param comparisons Map of comparison results (key: "ns1_vs_ns2")
+     * @param matrix N-way comparison of namespaceModels in the same order (null = computed here)
+     * @param outputPath Path to output Excel file
+     * @param validationConfig Validation config for field filtering
+     */
+    public void generateReport(List<FlatNamespaceModel> namespaceModels,
+                               Map<String, NamespaceComparison> comparisons,
+                               MultiNamespaceComparison matrix,
+                               String outputPath,
+                               ValidationConfig validationConfig) throws IOException {
+        generateReport(namespaceModels, comparisons, matrix, null, outputPath, validationConfig);
+    }
+    
+    /**
+     * Generate Excel report whose Summary shows each namespace against its own reference namespace
+     * Used in fleet mode, where cluster members are compared with their representative and outliers
+     * with the nearest representative instead of everything with the first namespace.
+     * 
+     * @param namespaceModels List of namespace models being compared
+     * @param comparisons Map of comparison results (key: "ns1_vs_ns2")
+     * @param matrix N-way comparison of namespaceModels in the same order (null = computed here)
+     * @param references index of the namespace each one was compared with, -1 for reference
+     *                   namespaces themselves (null = all compared with the first namespace)
+     * @param outputPath Path to output Excel file
+     * @param validationConfig Validation config for field filtering
+     */
+    public void generateReport(List<FlatNamespaceModel> namespaceModels,
+                               Map<String, NamespaceComparison> comparisons,
+                               MultiNamespaceComparison matrix,
+                               int[] references,
+                               String outputPath,
+                               ValidationConfig validationConfig) throws IOException {
         
         log.info("Generating Excel report to: {}", outputPath);
+        if (matrix == null) {
+            matrix = MultiNamespaceComparator.compare(namespaceModels, validationConfig);
+        }
         
         try (Workbook workbook = new XSSFWorkbook()) {
             // Create styles
@@ -46,12 +91,12 @@ public class ExcelReportGenerator {
             CellStyle baselineStyle = createBaselineStyle(workbook);
             
             // Generate Summary Sheet
-            generateSummarySheet(workbook, namespaceModels, comparisons, 
+            generateSummarySheet(workbook, namespaceModels, comparisons, references,
                                headerStyle, matchStyle, differentStyle, missingStyle, baselineStyle);
             
             // Generate Details Sheet
-            generateDetailsSheet(workbook, namespaceModels, comparisons,
-                               headerStyle, matchStyle, differentStyle, missingStyle, baselineStyle, validationConfig);
+            generateDetailsSheet(workbook, namespaceModels, matrix,
+                               headerStyle, matchStyle, differentStyle, missingStyle, baselineStyle);
             
             // Write to file
             try (FileOutputStream fileOut = new FileOutputStream(outputPath)) {
@@ -68,6 +113,7 @@ public class ExcelReportGenerator {
     private void generateSummarySheet(Workbook workbook,
                                      List<FlatNamespaceModel> namespaceModels,
                                      Map<String, NamespaceComparison> comparisons,
+                                     int[] references,
                                      CellStyle headerStyle,
                                      CellStyle matchStyle,
                                      CellStyle differentStyle,
@@ -85,16 +131,34 @@ public class ExcelReportGenerator {
         createCell(headerRow, 1, "Kind", headerStyle);
         createCell(headerRow, 2, "Object Name", headerStyle);
         
-        // Namespace columns (baseline is first)
+        // Reference namespace of each column (baseline is first, unless given per namespace)
+        if (references == null) {
+            references = new int[namespaceModels.size()];
+            references[0] = -1;
+        }
+        
+        // Namespace columns; those compared with another reference than the first namespace name it
         for (int i = 0; i < namespaceModels.size(); i++) {
             FlatNamespaceModel ns = namespaceModels.get(i);
             String label = ns.getClusterName() + "/" + ns.getName();
+            if (references[i] > 0) {
+                label += " (vs " + namespaceModels.get(references[i]).getName() + ")";
+            }
             createCell(headerRow, 3 + i, label, headerStyle);
         }
         
         // Data rows
         int rowNum = 1;
-        FlatNamespaceModel baseline = namespaceModels.get(0);
+        
+        // Look up each namespace's objects and comparison once, not per cell
+        List<Set<String>> objectKeys = new ArrayList<>();
+        List<NamespaceComparison> referenceComparisons = new ArrayList<>();
+        for (int i = 0; i < namespaceModels.size(); i++) {
+            FlatNamespaceModel ns = namespaceModels.get(i);
+            objectKeys.add(ns.getObjects().keySet());
+            referenceComparisons.add(references[i] < 0 ? null
+                    : comparisons.get(getComparisonKey(namespaceModels.get(references[i]), ns)));
+        }
         
         for (Map.Entry<String, ObjectInfo> entry : allObjects.entrySet()) {
             String objectKey = entry.getKey();
@@ -107,19 +171,16 @@ public class ExcelReportGenerator {
             
             // For each namespace, determine comparison status
             for (int i = 0; i < namespaceModels.size(); i++) {
-                FlatNamespaceModel ns = namespaceModels.get(i);
-                
-                if (i == 0) {
-                    // Baseline - always show as "BASELINE"
+                if (references[i] < 0) {
+                    // Baseline (or cluster representative) - always show as "BASELINE"
                     createCell(row, 3 + i, "BASELINE", baselineStyle);
                 } else {
-                    // Compare with baseline
-                    String compKey = getComparisonKey(baseline, ns);
-                    NamespaceComparison comp = comparisons.get(compKey);
+                    // Compare with its reference namespace
+                    NamespaceComparison comp = referenceComparisons.get(i);
                     
                     if (comp != null) {
                         ObjectComparison objComp = comp.getObjectComparisons().get(objectKey);
-                        String status = getObjectStatus(objComp, ns.getObjects().containsKey(objectKey));
+                        String status = getObjectStatus(objComp, objectKeys.get(i).contains(objectKey));
                         CellStyle style = getStatusStyle(status, matchStyle, differentStyle, missingStyle);
                         createCell(row, 3 + i, status, style);
                     } else {
@@ -145,13 +206,12 @@ public class ExcelReportGenerator {
      */
     private void generateDetailsSheet(Workbook workbook,
                                      List<FlatNamespaceModel> namespaceModels,
-                                     Map<String, NamespaceComparison> comparisons,
+                                     MultiNamespaceComparison matrix,
                                      CellStyle headerStyle,
                                      CellStyle matchStyle,
                                      CellStyle differentStyle,
                                      CellStyle missingStyle,
-                                     CellStyle baselineStyle,
-                                     ValidationConfig validationConfig) {
+                                     CellStyle baselineStyle) {
         
         Sheet sheet = workbook.createSheet(SHEET_DETAILS);
         
@@ -176,28 +236,20 @@ public class ExcelReportGenerator {
             String objectKey = entry.getKey();
             ObjectInfo objInfo = entry.getValue();
             
-            // Collect all field values across namespaces
-            Map<String, List<String>> fieldValues = new LinkedHashMap<>();
-            
-            for (FlatNamespaceModel ns : namespaceModels) {
-                FlatObjectModel obj = ns.getObjects().get(objectKey);
-                if (obj != null) {
-                    Map<String, String> fields = obj.getAllFieldsFiltered(validationConfig);
-                    for (Map.Entry<String, String> field : fields.entrySet()) {
-                        fieldValues.computeIfAbsent(field.getKey(), k -> new ArrayList<>());
-                    }
-                }
+            // Fields with the same value everywhere are not in the matrix
+            MultiNamespaceComparison.ObjectRow objectRow = matrix.getObjects().get(objectKey);
+            if (objectRow == null) {
+                continue;
             }
             
-            // For each field, collect values from all namespaces
-            for (String fieldKey : fieldValues.keySet()) {
+            // For each field, take the values of all namespaces from the matrix
+            for (MultiNamespaceComparison.FieldRow fieldRow : objectRow.getFields()) {
+                String fieldKey = fieldRow.getKey();
                 List<String> values = new ArrayList<>();
                 boolean hasDifference = false;
                 String firstValue = null;
                 
-                for (FlatNamespaceModel ns : namespaceModels) {
-                    FlatObjectModel obj = ns.getObjects().get(objectKey);
-                    String value = obj != null ? obj.getAllFieldsFiltered(validationConfig).get(fieldKey) : null;
+                for (String value : fieldRow.getValues()) {
                     values.add(value != null ? value : "");
                     
                     if (firstValue == null && value != null) {
@@ -229,7 +281,7 @@ public class ExcelReportGenerator {
                             style = differentStyle;
                         }
                         
-                        createCell(row, 4 + i, value, style);
+                        createCell(row, 4 + i, LargeValues.display(value), style);
                     }
                 }
             }
@@ -247,22 +299,25 @@ public class ExcelReportGenerator {
     }
     
     /**
-     * Collect all unique objects from all namespaces
+     * Collect all unique objects from all namespaces, grouped by kind and sorted by key
      */
     private Map<String, ObjectInfo> collectAllObjects(List<FlatNamespaceModel> namespaceModels) {
-        Map<String, ObjectInfo> allObjects = new LinkedHashMap<>();
-        
+        Set<String> kinds = new TreeSet<>();
         for (FlatNamespaceModel ns : namespaceModels) {
-            for (Map.Entry<String, FlatObjectModel> entry : ns.getObjects().entrySet()) {
-                String key = entry.getKey();
-                FlatObjectModel obj = entry.getValue();
-                
-                if (!allObjects.containsKey(key)) {
-                    allObjects.put(key, new ObjectInfo(obj.getKind(), obj.getName()));
+            kinds.addAll(ns.getKinds());
+        }
+
+        Map<String, ObjectInfo> allObjects = new LinkedHashMap<>();
+        for (String kind : kinds) {
+            Map<String, ObjectInfo> ofKind = new TreeMap<>();
+            for (FlatNamespaceModel ns : namespaceModels) {
+                for (Map.Entry<String, FlatObjectModel> entry : ns.getObjectsByKind(kind).entrySet()) {
+                    ofKind.putIfAbsent(entry.getKey(), new ObjectInfo(kind, entry.getValue().getName()));
                 }
             }
+            allObjects.putAll(ofKind);
         }
-        
+
         return allObjects;
     }
     
@@ -0,0 +1,156 @@
+package com.nfv.validator.util;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Stable 128-bit content fingerprint
+ * Built from two independent 64-bit FNV-1a lanes followed by an avalanche mix,
+ * so the same input always yields the same value across runs and JVMs
+ */
+public final class Fingerprint implements Comparable<Fingerprint> {
+    
+    private static final long OFFSET_1 = 0xcbf29ce484222325L;
+    private static final long OFFSET_2 = 0x84222325cbf29ce4L;
+    private static final long PRIME_1 = 0x100000001b3L;
+    private static final long PRIME_2 = 0x9e3779b97f4a7c15L;
+    
+    private final long high;
+    private final long low;
+    
+    public Fingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+    
+    public long getHigh() {
+        return high;
+    }
+    
+    public long getLow() {
+        return low;
+    }
+    
+    /**
+     * Start a new fingerprint computation
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * Fingerprint of a single string
+     */
+    public static Fingerprint of(String value) {
+        return builder().putString(value).build();
+    }
+    
+    /**
+     * Parse a fingerprint from its 32-character hex form
+     */
+    @JsonCreator
+    public static Fingerprint fromHex(String hex) {
+        if (hex == null || hex.length() != 32) {
+            throw new IllegalArgumentException("Invalid fingerprint: " + hex);
+        }
+        return new Fingerprint(Long.parseUnsignedLong(hex.substring(0, 16), 16),
+                Long.parseUnsignedLong(hex.substring(16), 16));
+    }
+    
+    /**
+     * 32-character lowercase hex form
+     */
+    @JsonValue
+    public String toHex() {
+        return String.format("%016x%016x", high, low);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Fingerprint)) return false;
+        Fingerprint that = (Fingerprint) o;
+        return high == that.high && low == that.low;
+    }
+    
+    @Override
+    public int hashCode() {
+        return (int) (low ^ (low >>> 32));
+    }
+    
+    @Override
+    public int compareTo(Fingerprint other) {
+        int cmp = Long.compareUnsigned(high, other.high);
+        return cmp != 0 ? cmp : Long.compareUnsigned(low, other.low);
+    }
+    
+    @Override
+    public String toString() {
+        return toHex();
+    }
+    
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    /**
+     * Incremental fingerprint builder
+     * Strings are length-prefixed so that ("ab", "c") and ("a", "bc") differ
+     */
+    public static final class Builder {
+        private long h1 = OFFSET_1;
+        private long h2 = OFFSET_2;
+        
+        private Builder() {
+        }
+        
+        public Builder putString(String value) {
+            if (value == null) {
+                return putLong(-1L);
+            }
+            putLong(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                h1 = (h1 ^ c) * PRIME_1;
+                h2 = (h2 ^ c) * PRIME_2;
+            }
+            return this;
+        }
+        
+        public Builder putBytes(byte[] value) {
+            if (value == null) {
+                return putLong(-1L);
+            }
+            putLong(value.length);
+            for (byte b : value) {
+                h1 = (h1 ^ (b & 0xff)) * PRIME_1;
+                h2 = (h2 ^ (b & 0xff)) * PRIME_2;
+            }
+            return this;
+        }
+        
+        public Builder putLong(long value) {
+            for (int shift = 0; shift < 64; shift += 16) {
+                long c = (value >>> shift) & 0xffffL;
+                h1 = (h1 ^ c) * PRIME_1;
+                h2 = (h2 ^ c) * PRIME_2;
+            }
+            return this;
+        }
+        
+        public Builder putFingerprint(Fingerprint value) {
+            return putLong(value.high).putLong(value.low);
+        }
+        
+        public Fingerprint build() {
+            long a = mix(h1 ^ Long.rotateLeft(h2, 29));
+            long b = mix(h2 + a);
+            return new Fingerprint(a, b);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.nfv.validator.util;
+
+import java.util.Arrays;
+
+/**
+ * MinHash signatures for estimating the Jaccard similarity of large sets
+ * Each of the k hash functions is derived from one 64-bit element hash by a seeded mix; a signature
+ * keeps the minimum of every function over the elements added, and the fraction of equal positions
+ * of two signatures estimates the similarity of the sets (standard error about 1/sqrt(k)).
+ */
+public final class MinHash {
+    
+    /**
+     * Default number of hash functions (estimates within about ±0.09)
+     */
+    public static final int DEFAULT_HASHES = 128;
+    
+    private final long[] seeds;
+    
+    public MinHash(int hashes) {
+        seeds = new long[hashes];
+        long seed = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < hashes; i++) {
+            seed = mix(seed + 0x632be59bd9b4e019L);
+            seeds[i] = seed;
+        }
+    }
+    
+    public int getHashCount() {
+        return seeds.length;
+    }
+    
+    /**
+     * Signature of the empty set
+     */
+    public long[] newSignature() {
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        return signature;
+    }
+    
+    /**
+     * Add an element (given by its 64-bit hash) to a signature
+     */
+    public void add(long[] signature, long elementHash) {
+        for (int i = 0; i < seeds.length; i++) {
+            long h = mix(elementHash ^ seeds[i]);
+            if (h < signature[i]) {
+                signature[i] = h;
+            }
+        }
+    }
+    
+    /**
+     * Estimated Jaccard similarity of the sets behind two signatures
+     */
+    public static double similarity(long[] a, long[] b) {
+        int equal = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / a.length;
+    }
+    
+    /**
+     * Hash of one LSH band (positions band*rows to (band+1)*rows) of a signature
+     * Signatures with an equal band hash are candidates for a similarity check.
+     */
+    public static long bandHash(long[] signature, int band, int rows) {
+        Fingerprint.Builder builder = Fingerprint.builder();
+        for (int i = band * rows; i < (band + 1) * rows; i++) {
+            builder.putLong(signature[i]);
+        }
+        return builder.build().getLow();
+    }
+    
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
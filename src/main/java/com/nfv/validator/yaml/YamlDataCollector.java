@@ -2,8 +2,15 @@ package com.nfv.validator.yaml;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.nfv.validator.config.IgnoreMatcher;
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FieldNode;
 import com.nfv.validator.model.FlatNamespaceModel;
 import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.KeyedList;
+import com.nfv.validator.model.LargeValues;
+import com.nfv.validator.model.ModelInterner;
+import com.nfv.validator.model.ValueNormalizer;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.File;
@@ -22,9 +29,40 @@ import java.util.stream.Stream;
 public class YamlDataCollector {
 
     private final ObjectMapper yamlMapper;
+    private final ValidationConfig validationConfig;
+    private final boolean filterIgnored;
+    private final ModelInterner interner;
 
     public YamlDataCollector() {
+        this(null);
+    }
+
+    /**
+     * @param validationConfig config the collected objects will be compared with; ignored fields
+     *                         are skipped while flattening
+     */
+    public YamlDataCollector(ValidationConfig validationConfig) {
+        this(validationConfig, true);
+    }
+    
+    /**
+     * @param validationConfig config the collected objects will be compared with (used for fingerprints)
+     * @param filterIgnored skip ignored fields while flattening; false keeps every field (e.g. for snapshots)
+     */
+    public YamlDataCollector(ValidationConfig validationConfig, boolean filterIgnored) {
+        this(validationConfig, filterIgnored, new ModelInterner());
+    }
+    
+    /**
+     * @param validationConfig config the collected objects will be compared with (used for fingerprints)
+     * @param filterIgnored skip ignored fields while flattening; false keeps every field (e.g. for snapshots)
+     * @param interner content store shared with the other collectors of the same run
+     */
+    public YamlDataCollector(ValidationConfig validationConfig, boolean filterIgnored, ModelInterner interner) {
         this.yamlMapper = new ObjectMapper(new YAMLFactory());
+        this.validationConfig = validationConfig;
+        this.filterIgnored = filterIgnored;
+        this.interner = interner;
     }
 
     /**
@@ -78,8 +116,8 @@ public class YamlDataCollector {
                 for (Map<String, Object> doc : documents) {
                     FlatObjectModel obj = convertToFlatObject(doc);
                     if (obj != null) {
-                        // Use only object name as key (same as K8sDataCollector)
-                        namespace.addObject(obj.getName(), obj);
+                        // Keyed by kind/group/name (same as K8sDataCollector)
+                        namespace.addObject(obj);
                         totalObjects++;
                     }
                 }
@@ -161,29 +199,48 @@ public class YamlDataCollector {
         obj.setNamespace("baseline");
         obj.setMetadata(new HashMap<>());
         obj.setSpec(new HashMap<>());
+        FieldNode fieldTree = FieldNode.inner();
 
+        // Ignored subtrees are skipped while flattening, so they are never materialized
+        IgnoreMatcher matcher = filterIgnored && validationConfig != null ? validationConfig.getIgnoreMatcher() : null;
+        IgnoreMatcher.Scope ignore = matcher != null ? matcher.forKind(kind) : null;
+        
         // Flatten metadata - store without "metadata." prefix 
         // (it will be added by getAllFields())
         if (metadata != null) {
-            flattenMapWithPrefix("", metadata, obj, true);
+            flattenMapWithPrefix("", metadata, obj, true, fieldTree.child("metadata"), ignore);
         }
 
         // Flatten spec - store without "spec." prefix
         if (doc.containsKey("spec")) {
             Map<String, Object> spec = (Map<String, Object>) doc.get("spec");
-            if (spec != null) {
-                flattenMapWithPrefix("", spec, obj, false);
+            if (spec != null && !isIgnored(ignore, "spec")) {
+                flattenMapWithPrefix("", spec, obj, false, fieldTree.child("spec"), ignore);
             }
         }
 
+        // Set the tree and filter mark last - adding flat entries drops them
+        obj.setFieldTree(fieldTree);
+        obj.markPrefiltered(matcher);
+
+        // Share content with identical objects collected earlier in this run
+        interner.intern(obj);
+
+        // Precompute the content fingerprint so comparisons can skip identical objects
+        obj.getFingerprint(validationConfig);
+
         return obj;
     }
     
     /**
      * Flatten a map with a given prefix (for top-level metadata/spec)
+     * Entries are also added to {@code tree}, the field tree node for the prefix.
+     * Entries matched by {@code ignore} are skipped; below a subtree no rule can reach, the
+     * checks stop ({@code ignore} = null).
      */
     @SuppressWarnings("unchecked")
-    private void flattenMapWithPrefix(String prefix, Map<String, Object> map, FlatObjectModel obj, boolean isMetadata) {
+    private void flattenMapWithPrefix(String prefix, Map<String, Object> map, FlatObjectModel obj, boolean isMetadata,
+                                      FieldNode tree, IgnoreMatcher.Scope ignore) {
         for (Map.Entry<String, Object> entry : map.entrySet()) {
             String key = entry.getKey();
             Object value = entry.getValue();
@@ -192,16 +249,23 @@ public class YamlDataCollector {
             if (value == null) {
                 continue;
             }
+            IgnoreMatcher.Match match = match(ignore, isMetadata, fullKey);
+            if (match == IgnoreMatcher.Match.IGNORED) {
+                continue;
+            }
+            IgnoreMatcher.Scope below = match == IgnoreMatcher.Match.PARTIAL ? ignore : null;
             
             if (value instanceof Map) {
-                flattenMapInternal(fullKey, (Map<String, Object>) value, obj, isMetadata);
+                flattenMapInternal(fullKey, (Map<String, Object>) value, obj, isMetadata, tree.child(key), below);
             } else if (value instanceof List) {
-                flattenListInternal(fullKey, (List<?>) value, obj, isMetadata);
+                flattenListInternal(fullKey, (List<?>) value, obj, isMetadata, tree.child(key), below);
             } else {
+                String leafValue = leafValue(value.toString());
+                tree.putLeaf(key, leafValue);
                 if (isMetadata) {
-                    obj.addMetadata(fullKey, value.toString());
+                    obj.addMetadata(fullKey, leafValue);
                 } else {
-                    obj.addSpec(fullKey, value.toString());
+                    obj.addSpec(fullKey, leafValue);
                 }
             }
         }
@@ -211,7 +275,8 @@ public class YamlDataCollector {
      * Recursively flatten nested maps into dot-notation keys
      */
     @SuppressWarnings("unchecked")
-    private void flattenMapInternal(String prefix, Map<String, Object> map, FlatObjectModel obj, boolean isMetadata) {
+    private void flattenMapInternal(String prefix, Map<String, Object> map, FlatObjectModel obj, boolean isMetadata,
+                                    FieldNode tree, IgnoreMatcher.Scope ignore) {
         for (Map.Entry<String, Object> entry : map.entrySet()) {
             String key = entry.getKey();
             Object value = entry.getValue();
@@ -220,16 +285,23 @@ public class YamlDataCollector {
             if (value == null) {
                 continue;
             }
+            IgnoreMatcher.Match match = match(ignore, isMetadata, fullKey);
+            if (match == IgnoreMatcher.Match.IGNORED) {
+                continue;
+            }
+            IgnoreMatcher.Scope below = match == IgnoreMatcher.Match.PARTIAL ? ignore : null;
 
             if (value instanceof Map) {
-                flattenMapInternal(fullKey, (Map<String, Object>) value, obj, isMetadata);
+                flattenMapInternal(fullKey, (Map<String, Object>) value, obj, isMetadata, tree.child(key), below);
             } else if (value instanceof List) {
-                flattenListInternal(fullKey, (List<?>) value, obj, isMetadata);
+                flattenListInternal(fullKey, (List<?>) value, obj, isMetadata, tree.child(key), below);
             } else {
+                String leafValue = leafValue(value.toString());
+                tree.putLeaf(key, leafValue);
                 if (isMetadata) {
-                    obj.addMetadata(fullKey, value.toString());
+                    obj.addMetadata(fullKey, leafValue);
                 } else {
-                    obj.addSpec(fullKey, value.toString());
+                    obj.addSpec(fullKey, leafValue);
                 }
             }
         }
@@ -237,16 +309,26 @@ public class YamlDataCollector {
 
     /**
      * Recursively flatten nested lists into indexed keys
+     * Lists with a configured merge key are keyed by it ("containers[name=web]") instead of by index.
      */
     @SuppressWarnings("unchecked")
-    private void flattenListInternal(String prefix, List<?> list, FlatObjectModel obj, boolean isMetadata) {
+    private void flattenListInternal(String prefix, List<?> list, FlatObjectModel obj, boolean isMetadata,
+                                     FieldNode tree, IgnoreMatcher.Scope ignore) {
+        String[] segments = keyedSegments(prefix, list, obj.getKind(), isMetadata);
         for (int i = 0; i < list.size(); i++) {
             Object item = list.get(i);
+            String segment = segments != null ? segments[i] : KeyedList.segment(i);
+            String itemKey = prefix + segment;
+            IgnoreMatcher.Match match = match(ignore, isMetadata, itemKey);
+            if (match == IgnoreMatcher.Match.IGNORED) {
+                continue;
+            }
             if (item instanceof Map) {
-                flattenMapInternal(prefix + "[" + i + "]", (Map<String, Object>) item, obj, isMetadata);
+                flattenMapInternal(itemKey, (Map<String, Object>) item, obj, isMetadata,
+                        tree.child(segment), match == IgnoreMatcher.Match.PARTIAL ? ignore : null);
             } else {
-                String itemKey = prefix + "[" + i + "]";
-                String itemValue = item != null ? item.toString() : "null";
+                String itemValue = item != null ? leafValue(item.toString()) : "null";
+                tree.putLeaf(segment, itemValue);
                 if (isMetadata) {
                     obj.addMetadata(itemKey, itemValue);
                 } else {
@@ -255,7 +337,68 @@ public class YamlDataCollector {
             }
         }
     }
+    
+    /**
+     * Get keyed segments for the elements of a list, or null to index them by position
+     */
+    private String[] keyedSegments(String prefix, List<?> list, String kind, boolean isMetadata) {
+        if (validationConfig == null || list.isEmpty() || prefix.endsWith("]")) {
+            return null;
+        }
+        String listField = prefix.substring(prefix.lastIndexOf('.') + 1);
+        for (String key : validationConfig.getListKeys(listField)) {
+            List<String> values = new ArrayList<>(list.size());
+            for (int i = 0; i < list.size(); i++) {
+                Object item = list.get(i);
+                Object value = item instanceof Map ? ((Map<?, ?>) item).get(key) : null;
+                values.add(value == null || value instanceof Map || value instanceof List ? null
+                        : keyValue(kind, isMetadata, prefix + KeyedList.segment(i) + "." + key, value.toString()));
+            }
+            String[] segments = KeyedList.segments(key, values);
+            if (segments != null) {
+                return segments;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Match a flattened key (without the metadata/spec prefix) against the ignore configuration
+     */
+    private static IgnoreMatcher.Match match(IgnoreMatcher.Scope ignore, boolean isMetadata, String key) {
+        if (ignore == null) {
+            return IgnoreMatcher.Match.NONE;
+        }
+        return ignore.match((isMetadata ? "metadata." : "spec.") + key);
+    }
+    
+    private static boolean isIgnored(IgnoreMatcher.Scope ignore, String fieldPath) {
+        return ignore != null && ignore.match(fieldPath) == IgnoreMatcher.Match.IGNORED;
+    }
 
+    /**
+     * Replace a leaf value above the large value threshold by its digest reference (digest, length
+     * and preview), so the full value is never held in the model
+     * Values are otherwise kept as written; normalize rules apply when objects are compared.
+     */
+    private String leafValue(String value) {
+        int threshold = validationConfig != null
+                ? validationConfig.getLargeValueThreshold() : LargeValues.DEFAULT_THRESHOLD;
+        return LargeValues.compact(value, threshold);
+    }
+    
+    /**
+     * Value of a list merge key as used in keyed segments, canonicalized per the normalize rules
+     * so that equivalent spellings of a key address the same element
+     */
+    private String keyValue(String kind, boolean isMetadata, String key, String value) {
+        ValueNormalizer normalizer = validationConfig.getValueNormalizer();
+        if (!normalizer.isEmpty()) {
+            value = normalizer.normalize(kind, (isMetadata ? "metadata." : "spec.") + key, value);
+        }
+        return leafValue(value);
+    }
+    
     /**
      * Check if file is a YAML file by extension
      */
@@ -0,0 +1,59 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.comparison.KeyComparison;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nfv.validator.comparison.TestObjects.deployment;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsensusBuilderTest {
+    
+    private static FlatNamespaceModel site(int i) {
+        FlatNamespaceModel model = new FlatNamespaceModel();
+        model.setName("site" + i);
+        model.setClusterName("cluster" + i);
+        // site3 runs a different image, site4 has one replica more, site5 has an extra object
+        model.addObject(deployment("web", "app", i == 3 ? "nginx:1.26" : "nginx:1.25", i == 4 ? "3" : "2"));
+        model.addObject(deployment("api", "app", "api:1.0", "2"));
+        if (i == 5) {
+            model.addObject(deployment("debug", "app", "busybox", "1"));
+        }
+        return model;
+    }
+    
+    @Test
+    void testSitesAreReportedWhereTheyDeviateFromTheMajority() {
+        ValidationConfig config = new ValidationConfig();
+        List<FlatNamespaceModel> sites = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            sites.add(site(i));
+        }
+        
+        FlatNamespaceModel consensus = ConsensusBuilder.build(sites, config);
+        
+        assertEquals(2, consensus.getObjects().size());
+        FlatObjectModel web = consensus.getObject("Deployment.apps/web");
+        assertEquals("nginx:1.25", web.getSpec().get("template.spec.containers[0].image"));
+        assertEquals("2", web.getSpec().get("replicas"));
+        
+        NamespaceComparison site1 = NamespaceComparator.compareNamespace(consensus, sites.get(0), config);
+        assertEquals(0, site1.getSummary().getDifferencesCount());
+        
+        NamespaceComparison site3 = NamespaceComparator.compareNamespace(consensus, sites.get(2), config);
+        List<KeyComparison> differences = site3.getObjectComparisons().get("Deployment.apps/web").getDifferences();
+        assertEquals(1, differences.size());
+        assertEquals("spec.template.spec.containers[0].image", differences.get(0).getKey());
+        assertEquals("nginx:1.26", differences.get(0).getRightValue());
+        
+        NamespaceComparison site5 = NamespaceComparator.compareNamespace(consensus, sites.get(4), config);
+        assertEquals(1, site5.getSummary().getOnlyInRight());
+        assertEquals(1, site5.getSummary().getDifferencesCount());
+    }
+}
@@ -0,0 +1,130 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.comparison.MultiNamespaceComparison;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import com.nfv.validator.model.comparison.ObjectComparison;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static com.nfv.validator.comparison.TestObjects.deployment;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiNamespaceComparatorTest {
+    
+    private static FlatNamespaceModel namespace(String name, String image, boolean withWorker) {
+        FlatNamespaceModel model = new FlatNamespaceModel();
+        model.setName(name);
+        model.setClusterName("cluster");
+        model.addObject(deployment("web", name, image, "2"));
+        model.addObject(deployment("api", name, "api:1.0", "3"));
+        if (withWorker) {
+            FlatObjectModel worker = deployment("worker", name, "worker:1.0", "1");
+            worker.addSpec("paused", "true");
+            model.addObject(worker);
+        }
+        return model;
+    }
+    
+    @Test
+    void testValueMatrixGroupsIdenticalValues() {
+        List<FlatNamespaceModel> namespaces = Arrays.asList(
+                namespace("site1", "nginx:1.25", true),
+                namespace("site2", "nginx:1.26", true),
+                namespace("site3", "nginx:1.25", false));
+        
+        MultiNamespaceComparison matrix = MultiNamespaceComparator.compare(namespaces, new ValidationConfig());
+        
+        assertTrue(matrix.getObjects().get("Deployment.apps/api").isUniform());
+        assertTrue(matrix.getObjects().get("Deployment.apps/api").getFields().isEmpty());
+        
+        MultiNamespaceComparison.ObjectRow web = matrix.getObjects().get("Deployment.apps/web");
+        assertFalse(web.isUniform());
+        assertEquals(2, web.getUniformFieldCount());
+        assertEquals(1, web.getFields().size());
+        MultiNamespaceComparison.FieldRow image = web.getFields().get(0);
+        assertEquals("spec.template.spec.containers[0].image", image.getKey());
+        assertArrayEquals(new int[] {0, 1, 0}, image.getGroups());
+        assertEquals(2, image.getGroupCount());
+        
+        MultiNamespaceComparison.ObjectRow worker = matrix.getObjects().get("Deployment.apps/worker");
+        assertArrayEquals(new int[] {0, 0, -1}, worker.getContentGroups());
+    }
+    
+    @Test
+    void testPairwiseViewsMatchDirectComparisons() {
+        ValidationConfig config = new ValidationConfig();
+        List<FlatNamespaceModel> namespaces = Arrays.asList(
+                namespace("site1", "nginx:1.25", true),
+                namespace("site2", "nginx:1.26", true),
+                namespace("site3", "nginx:1.25", false));
+        MultiNamespaceComparison matrix = MultiNamespaceComparator.compare(namespaces, config);
+        
+        for (int i = 0; i < namespaces.size(); i++) {
+            for (int j = i + 1; j < namespaces.size(); j++) {
+                NamespaceComparison direct = NamespaceComparator.compareNamespace(
+                        namespaces.get(i), namespaces.get(j), config, ComparisonOptions.sparseResults());
+                NamespaceComparison derived = matrix.pairwise(i, j);
+                
+                assertEquals(direct.getSummary(), derived.getSummary());
+                assertEquals(direct.getObjectComparisons().keySet(), derived.getObjectComparisons().keySet());
+                for (String objectId : direct.getObjectComparisons().keySet()) {
+                    ObjectComparison expected = direct.getObjectComparisons().get(objectId);
+                    ObjectComparison actual = derived.getObjectComparisons().get(objectId);
+                    assertEquals(new HashSet<>(expected.getDifferences()), new HashSet<>(actual.getDifferences()));
+                    assertEquals(expected.getMatchCount(), actual.getMatchCount());
+                }
+            }
+        }
+    }
+    
+    @Test
+    void testSortedFieldsFollowConfigChanges() {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreField("spec.replicas");
+        FlatNamespaceModel site1 = namespace("site1", "nginx:1.25", false);
+        FlatNamespaceModel site2 = namespace("site2", "nginx:1.26", false);
+        site2.getObject("Deployment.apps/web").addSpec("replicas", "5");
+        List<FlatNamespaceModel> namespaces = Arrays.asList(site1, site2);
+        
+        MultiNamespaceComparison.ObjectRow ignored = MultiNamespaceComparator.compare(namespaces, config)
+                .getObjects().get("Deployment.apps/web");
+        assertEquals(1, ignored.getFields().size());
+        
+        // Same config instance, no longer ignoring replicas
+        config.setIgnoreFields(new ArrayList<>());
+        MultiNamespaceComparison.ObjectRow compared = MultiNamespaceComparator.compare(namespaces, config)
+                .getObjects().get("Deployment.apps/web");
+        assertEquals(2, compared.getFields().size());
+        assertEquals("spec.replicas", compared.getFields().get(0).getKey());
+    }
+    
+    @Test
+    void testParallelMatrixMatchesSequential() {
+        List<FlatNamespaceModel> namespaces = new ArrayList<>();
+        for (int site = 0; site < 3; site++) {
+            FlatNamespaceModel model = new FlatNamespaceModel();
+            model.setName("site" + site);
+            for (int i = 0; i < 300; i++) {
+                String image = i % 7 == site ? "nginx:1.26" : "nginx:1.25";
+                model.addObject(deployment("web-" + i, model.getName(), image, "2"));
+            }
+            namespaces.add(model);
+        }
+        ComparisonOptions parallel = new ComparisonOptions();
+        parallel.setParallelism(4);
+        
+        MultiNamespaceComparison sequential = MultiNamespaceComparator.compare(namespaces, null);
+        MultiNamespaceComparison concurrent = MultiNamespaceComparator.compare(namespaces, null, parallel);
+        
+        assertEquals(new ArrayList<>(sequential.getObjects().keySet()), new ArrayList<>(concurrent.getObjects().keySet()));
+        assertEquals(sequential.getObjects(), concurrent.getObjects());
+        assertEquals(129, concurrent.getObjectsWithDifferences().size());
+    }
+}
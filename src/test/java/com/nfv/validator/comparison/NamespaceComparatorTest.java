@@ -0,0 +1,487 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.NamespaceMerkleTree;
+import com.nfv.validator.model.comparison.ComparisonStatus;
+import com.nfv.validator.model.comparison.KeyComparison;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import com.nfv.validator.model.comparison.ObjectComparison;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.nfv.validator.comparison.TestObjects.deployment;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NamespaceComparatorTest {
+    
+    private static ValidationConfig config() {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreField("metadata.uid");
+        return config;
+    }
+    
+    @Test
+    void testIdenticalObjectsShortCircuitOnFingerprint() {
+        ValidationConfig config = config();
+        FlatObjectModel left = deployment("web", "dev", "nginx:1.25", "2", "uid-1");
+        FlatObjectModel right = deployment("web", "prod", "nginx:1.25", "2", "uid-2");
+        
+        assertEquals(left.getFingerprint(config), right.getFingerprint(config));
+        assertNotEquals(left.getFingerprint(null), right.getFingerprint(null));
+        
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.addObject(left);
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.addObject(right);
+        
+        NamespaceComparison result = NamespaceComparator.compareNamespace(
+                dev.getObjects(), prod.getObjects(), "dev", "prod", config);
+        ObjectComparison obj = result.getObjectComparisons().get("Deployment.apps/web");
+        
+        assertTrue(obj.isFullMatch());
+        assertTrue(obj.getItems().isEmpty());
+        assertEquals(3, obj.getMatchCount());
+        assertEquals(100.0, obj.getMatchPercentage());
+        assertEquals(1, result.getSummary().getMatchedObjects());
+    }
+    
+    @Test
+    void testFingerprintFollowsConfigChanges() {
+        ValidationConfig config = config();
+        config.addIgnoreField("spec.replicas");
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.addObject(deployment("web", "dev", "nginx:1.25", "2", "uid-1"));
+        FlatObjectModel scaled = deployment("web", "prod", "nginx:1.25", "2", "uid-2");
+        scaled.addSpec("replicas", "1");
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.addObject(scaled);
+        
+        NamespaceComparison ignored = NamespaceComparator.compareNamespace(
+                dev.getObjects(), prod.getObjects(), "dev", "prod", config);
+        assertTrue(ignored.getObjectComparisons().get("Deployment.apps/web").isFullMatch());
+        
+        // Same config instance, no longer ignoring replicas
+        config.setIgnoreFields(new ArrayList<>(Collections.singletonList("metadata.uid")));
+        NamespaceComparison compared = NamespaceComparator.compareNamespace(
+                dev.getObjects(), prod.getObjects(), "dev", "prod", config);
+        ObjectComparison obj = compared.getObjectComparisons().get("Deployment.apps/web");
+        assertFalse(obj.isFullMatch());
+        assertEquals("spec.replicas", obj.getDifferences().get(0).getKey());
+        assertEquals(0, compared.getSummary().getMatchedObjects());
+    }
+    
+    @Test
+    void testFieldMapsAreReadOnlyViews() {
+        ValidationConfig config = config();
+        FlatObjectModel left = deployment("web", "dev", "nginx:1.25", "2", "uid-1");
+        FlatObjectModel right = deployment("web", "prod", "nginx:1.25", "2", "uid-2");
+        assertEquals(left.getFingerprint(config), right.getFingerprint(config));
+        
+        assertThrows(UnsupportedOperationException.class, () -> right.getSpec().put("replicas", "1"));
+        right.addSpec("replicas", "1");
+        assertNotEquals(left.getFingerprint(config), right.getFingerprint(config));
+    }
+    
+    @Test
+    void testDifferentObjectsAreComparedFieldByField() {
+        ValidationConfig config = config();
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.addObject(deployment("web", "dev", "nginx:1.25", "2", "uid-1"));
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.addObject(deployment("web", "prod", "nginx:1.26", "2", "uid-2"));
+        
+        NamespaceComparison result = NamespaceComparator.compareNamespace(
+                dev.getObjects(), prod.getObjects(), "dev", "prod", config);
+        ObjectComparison obj = result.getObjectComparisons().get("Deployment.apps/web");
+        
+        assertFalse(obj.isFullMatch());
+        assertEquals(1, obj.getDifferenceCount());
+        KeyComparison diff = obj.getDifferences().get(0);
+        assertEquals("spec.template.spec.containers[0].image", diff.getKey());
+        assertEquals(ComparisonStatus.DIFFERENT, diff.getStatus());
+        assertEquals(2, obj.getMatchCount());
+    }
+    
+    @Test
+    void testFlatFieldsAreMergedInKeyOrder() {
+        FlatObjectModel left = deployment("web", "dev", "nginx:1.25", "2", "uid-1");
+        FlatObjectModel right = deployment("web", "prod", "nginx:1.26", "2", "uid-1");
+        left.addSpec("paused", "false");
+        right.addSpec("minReadySeconds", "5");
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.addObject(left);
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.addObject(right);
+        
+        NamespaceComparison result = NamespaceComparator.compareNamespace(
+                dev.getObjects(), prod.getObjects(), "dev", "prod", null);
+        ObjectComparison obj = result.getObjectComparisons().get("Deployment.apps/web");
+        
+        List<String> keys = new ArrayList<>();
+        for (KeyComparison item : obj.getItems()) {
+            keys.add(item.getKey());
+        }
+        // Matching subtrees (metadata.*, spec.replicas) are skipped; the rest come in key order
+        assertEquals(Arrays.asList("spec.minReadySeconds", "spec.paused",
+                "spec.template.spec.containers[0].image"), keys);
+        assertEquals(ComparisonStatus.ONLY_IN_RIGHT, obj.getItems().get(0).getStatus());
+        assertEquals(ComparisonStatus.ONLY_IN_LEFT, obj.getItems().get(1).getStatus());
+        assertEquals(ComparisonStatus.DIFFERENT, obj.getItems().get(2).getStatus());
+        assertEquals(3, obj.getMatchCount());
+    }
+    
+    @Test
+    void testSparseResultsStoreOnlyDifferences() {
+        ValidationConfig config = config();
+        FlatObjectModel left = deployment("web", "dev", "nginx:1.25", "2", "uid-1");
+        FlatObjectModel right = deployment("web", "prod", "nginx:1.26", "2", "uid-2");
+        // Matching field next to the difference, in the same subtree
+        left.addSpec("template.spec.containers[0].name", "web");
+        right.addSpec("template.spec.containers[0].name", "web");
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.addObject(left);
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.addObject(right);
+        
+        NamespaceComparison dense = NamespaceComparator.compareNamespace(
+                dev.getObjects(), prod.getObjects(), "dev", "prod", config);
+        NamespaceComparison sparse = NamespaceComparator.compareNamespace(
+                dev.getObjects(), prod.getObjects(), "dev", "prod", config, ComparisonOptions.sparseResults());
+        ObjectComparison denseObj = dense.getObjectComparisons().get("Deployment.apps/web");
+        ObjectComparison sparseObj = sparse.getObjectComparisons().get("Deployment.apps/web");
+        
+        assertEquals(2, denseObj.getItems().size());
+        assertEquals(1, sparseObj.getItems().size());
+        assertTrue(sparseObj.getMatches().isEmpty());
+        assertEquals(denseObj.getDifferences(), sparseObj.getDifferences());
+        assertEquals(denseObj.getMatchCount(), sparseObj.getMatchCount());
+        assertEquals(denseObj.getMatchPercentage(), sparseObj.getMatchPercentage());
+        assertEquals(dense.getSummary(), sparse.getSummary());
+    }
+    
+    @Test
+    void testParallelComparisonMatchesSequential() {
+        ValidationConfig config = config();
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        for (int i = 0; i < 300; i++) {
+            dev.addObject(deployment("web-" + i, "dev", "nginx:1.25", "2", "uid-" + i));
+            if (i % 10 != 0) {
+                String image = i % 3 == 0 ? "nginx:1.26" : "nginx:1.25";
+                prod.addObject(deployment("web-" + i, "prod", image, "2", "uid-p" + i));
+            }
+        }
+        ComparisonOptions parallel = new ComparisonOptions();
+        parallel.setParallelism(4);
+        
+        NamespaceComparison sequential = NamespaceComparator.compareNamespace(dev, prod, config);
+        NamespaceComparison concurrent = NamespaceComparator.compareNamespace(dev, prod, config, parallel);
+        
+        assertEquals(new ArrayList<>(sequential.getObjectComparisons().keySet()),
+                new ArrayList<>(concurrent.getObjectComparisons().keySet()));
+        assertEquals(sequential.getObjectComparisons(), concurrent.getObjectComparisons());
+        assertEquals(sequential.getSummary(), concurrent.getSummary());
+        assertEquals(30, concurrent.getSummary().getOnlyInLeft());
+        
+        // Later comparisons with the same options reuse the pool
+        ForkJoinPool pool = parallel.getPool();
+        NamespaceComparison again = NamespaceComparator.compareNamespace(dev, prod, config, parallel);
+        assertSame(pool, parallel.getPool());
+        assertEquals(concurrent.getObjectComparisons(), again.getObjectComparisons());
+    }
+    
+    @Test
+    void testDifferenceLimitStopsComparison() {
+        ValidationConfig config = config();
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        for (int i = 0; i < 20; i++) {
+            dev.addObject(deployment("web-" + i, "dev", "nginx:1.25", "2", "uid-" + i));
+            prod.addObject(deployment("web-" + i, "prod", i % 4 == 0 ? "nginx:1.26" : "nginx:1.25", "2", "uid-p" + i));
+        }
+        ComparisonOptions gate = new ComparisonOptions();
+        gate.setDifferenceLimit(2);
+        
+        NamespaceComparison full = NamespaceComparator.compareNamespace(dev, prod, config);
+        NamespaceComparison limited = NamespaceComparator.compareNamespace(dev, prod, config, gate);
+        
+        assertFalse(full.isTruncated());
+        assertEquals(5, full.getSummary().getDifferencesCount());
+        assertTrue(limited.isTruncated());
+        assertEquals(2, limited.getSummary().getDifferencesCount());
+        List<String> compared = new ArrayList<>(limited.getObjectComparisons().keySet());
+        assertEquals(new ArrayList<>(full.getObjectComparisons().keySet()).subList(0, compared.size()), compared);
+    }
+    
+    @Test
+    void testStreamedResultsMatchMaterialized() throws Exception {
+        ValidationConfig config = config();
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        for (int i = 0; i < 200; i++) {
+            dev.addObject(deployment("web-" + i, "dev", "nginx:1.25", "2", "uid-" + i));
+            if (i % 10 != 0) {
+                String image = i % 3 == 0 ? "nginx:1.26" : "nginx:1.25";
+                prod.addObject(deployment("web-" + i, "prod", image, "2", "uid-p" + i));
+            }
+        }
+        ComparisonOptions options = ComparisonOptions.sparseResults();
+        options.setParallelism(2);
+        NamespaceComparison expected = NamespaceComparator.compareNamespace(dev, prod, config, options);
+        
+        List<ObjectComparison> streamed = new ArrayList<>();
+        List<KeyComparison> differences = new ArrayList<>();
+        NamespaceComparison.ComparisonSummary summary = NamespaceComparator.stream(dev, prod, config, options,
+                new ComparisonListener() {
+                    @Override
+                    public void onDifference(ObjectComparison object, KeyComparison difference) {
+                        differences.add(difference);
+                    }
+                    
+                    @Override
+                    public void onObject(ObjectComparison result) {
+                        streamed.add(result);
+                    }
+                });
+        
+        assertEquals(new ArrayList<>(expected.getObjectComparisons().values()), streamed);
+        assertEquals(expected.getSummary(), summary);
+        int expectedDifferences = 0;
+        for (ObjectComparison result : streamed) {
+            expectedDifferences += result.getDifferenceCount();
+        }
+        assertEquals(expectedDifferences, differences.size());
+        
+        // Pull one result at a time through the publisher
+        List<ObjectComparison> published = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        NamespaceComparator.publish(dev, prod, config, options).subscribe(new Flow.Subscriber<ObjectComparison>() {
+            private Flow.Subscription subscription;
+            
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+            
+            @Override
+            public void onNext(ObjectComparison item) {
+                published.add(item);
+                subscription.request(1);
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+            
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.get(30, TimeUnit.SECONDS);
+        assertEquals(streamed, published);
+    }
+    
+    @Test
+    void testObjectsOnlyOnOneSide() {
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.addObject(deployment("web", "dev", "nginx:1.25", "2", "uid-1"));
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.addObject(deployment("api", "prod", "nginx:1.25", "2", "uid-2"));
+        
+        NamespaceComparison result = NamespaceComparator.compareNamespace(
+                dev.getObjects(), prod.getObjects(), "dev", "prod", config());
+        NamespaceComparison.ComparisonSummary summary = result.getSummary();
+        
+        assertEquals(1, summary.getOnlyInLeft());
+        assertEquals(1, summary.getOnlyInRight());
+        assertEquals(0, summary.getMatchedObjects());
+    }
+    
+    @Test
+    void testFuzzyPairingMatchesRenamedObjects() {
+        FlatNamespaceModel site1 = new FlatNamespaceModel();
+        site1.addObject(deployment("upf-cfg-site1", "upf", "upf:1.0", "2", "uid-1"));
+        FlatObjectModel cache = deployment("cache-a", "upf", "redis:7", "2", "uid-2");
+        for (int i = 0; i < 8; i++) {
+            cache.addSpec("template.spec.containers[0].env[" + i + "].value", "v" + i);
+        }
+        site1.addObject(cache);
+        
+        FlatNamespaceModel site2 = new FlatNamespaceModel();
+        site2.addObject(deployment("upf-cfg-site2", "upf", "upf:1.1", "2", "uid-3"));
+        FlatObjectModel renamed = deployment("redis-b", "upf", "redis:7", "2", "uid-4");
+        for (int i = 0; i < 8; i++) {
+            renamed.addSpec("template.spec.containers[0].env[" + i + "].value", "v" + i);
+        }
+        site2.addObject(renamed);
+        FlatObjectModel unrelated = deployment("gateway", "upf", "envoy:1.28", "2", "uid-5");
+        unrelated.addSpec("replicas", "5");
+        site2.addObject(unrelated);
+        
+        ValidationConfig config = config();
+        config.addNameRule("", "-site\\d+$", "");
+        ComparisonOptions options = new ComparisonOptions();
+        options.setFuzzyPairing(true);
+        NamespaceComparison result = NamespaceComparator.compareNamespace(site1, site2, config, options);
+        
+        // Paired by name rule, then diffed: only the image and the name differ
+        ObjectComparison upf = result.getObjectComparisons().get(
+                FlatNamespaceModel.objectKey("apps/v1", "Deployment", "upf-cfg-site1"));
+        assertEquals(FlatNamespaceModel.objectKey("apps/v1", "Deployment", "upf-cfg-site2"), upf.getPairedObjectId());
+        assertEquals(2, upf.getDifferenceCount());
+        
+        // Paired by field similarity
+        ObjectComparison redis = result.getObjectComparisons().get(
+                FlatNamespaceModel.objectKey("apps/v1", "Deployment", "cache-a"));
+        assertEquals(FlatNamespaceModel.objectKey("apps/v1", "Deployment", "redis-b"), redis.getPairedObjectId());
+        assertEquals(1, redis.getDifferenceCount());
+        
+        NamespaceComparison.ComparisonSummary summary = result.getSummary();
+        assertEquals(2, summary.getTotalInLeft());
+        assertEquals(3, summary.getTotalInRight());
+        assertEquals(0, summary.getOnlyInLeft());
+        assertEquals(1, summary.getOnlyInRight());
+        assertFalse(result.getObjectComparisons().containsKey(
+                FlatNamespaceModel.objectKey("apps/v1", "Deployment", "upf-cfg-site2")));
+        
+        // Without the option the renamed objects stay unpaired
+        NamespaceComparison exact = NamespaceComparator.compareNamespace(site1, site2, config);
+        assertEquals(2, exact.getSummary().getOnlyInLeft());
+        assertEquals(3, exact.getSummary().getOnlyInRight());
+    }
+    
+    @Test
+    void testAggregatesFollowAddedResults() {
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.addObject(deployment("web", "dev", "nginx:1.25", "2", "uid-1"));
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.addObject(deployment("web", "prod", "nginx:1.26", "2", "uid-2"));
+        
+        NamespaceComparison result = NamespaceComparator.compareNamespace(
+                dev.getObjects(), prod.getObjects(), "dev", "prod", config());
+        assertEquals(1, result.getSummary().getDifferencesCount());
+        assertSame(result.getSummary(), result.getSummary());
+        
+        ObjectComparison service = new ObjectComparison();
+        service.setObjectId("Service/web");
+        service.setObjectType("Service");
+        service.addItem(new KeyComparison("Service/web", "exists", null, ComparisonStatus.ONLY_IN_LEFT));
+        result.addObjectResult("Service/web", service);
+        
+        assertTrue(service.isOnlyInLeft());
+        assertEquals(1, service.getDifferenceCount());
+        assertEquals(1, result.getSummary().getOnlyInLeft());
+        assertEquals(2, result.getSummary().getDifferencesCount());
+        assertEquals(Arrays.asList("Deployment", "Service"), new ArrayList<>(result.getObjectsByType().keySet()));
+        assertThrows(UnsupportedOperationException.class, () -> service.getItems().clear());
+    }
+    
+    @Test
+    void testRecompareUpdatesOnlyChangedObjects() {
+        ValidationConfig config = config();
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        FlatNamespaceModel prodBefore = new FlatNamespaceModel();
+        FlatNamespaceModel prodAfter = new FlatNamespaceModel();
+        for (String name : Arrays.asList("api", "web", "worker")) {
+            dev.addObject(deployment(name, "dev", "nginx:1.25", "2", "uid-1"));
+            prodBefore.addObject(deployment(name, "prod", "nginx:1.25", "2", "uid-2"));
+        }
+        prodAfter.addObject(deployment("api", "prod", "nginx:1.25", "2", "uid-3"));
+        prodAfter.addObject(deployment("web", "prod", "nginx:1.26", "2", "uid-2"));
+        prodAfter.addObject(deployment("cron", "prod", "nginx:1.25", "2", "uid-2"));
+        
+        NamespaceComparison previous = NamespaceComparator.compareNamespace(dev, prodBefore, config);
+        assertEquals(3, previous.getSummary().getMatchedObjects());
+        
+        ChangeSet changes = ChangeSet.between(prodBefore, prodAfter, config);
+        assertEquals(Collections.singleton("Deployment.apps/cron"), changes.getAdded());
+        assertEquals(Collections.singleton("Deployment.apps/web"), changes.getChanged());
+        assertEquals(Collections.singleton("Deployment.apps/worker"), changes.getRemoved());
+        
+        NamespaceComparison updated = NamespaceComparator.recompare(previous, dev, prodAfter, changes, config);
+        NamespaceComparison full = NamespaceComparator.compareNamespace(dev, prodAfter, config);
+        
+        assertEquals(full.getObjectComparisons(), updated.getObjectComparisons());
+        assertEquals(full.getSummary(), updated.getSummary());
+        assertEquals(1, updated.getSummary().getOnlyInLeft());
+        assertEquals(1, updated.getSummary().getOnlyInRight());
+    }
+    
+    @Test
+    void testMerkleDescentOnlyComparesDifferingSubtrees() {
+        ValidationConfig config = config();
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.setName("dev");
+        dev.addObject(deployment("web", "dev", "nginx:1.25", "2", "uid-1"));
+        dev.addObject(deployment("api", "dev", "api:2.0", "2", "uid-2"));
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.setName("prod");
+        prod.addObject(deployment("web", "prod", "nginx:1.26", "2", "uid-3"));
+        prod.addObject(deployment("api", "prod", "api:2.0", "2", "uid-4"));
+        
+        assertEquals(Collections.singleton("Deployment.apps/web"),
+                dev.getMerkleTree(config).diffObjects(prod.getMerkleTree(config)));
+        
+        NamespaceComparison result = NamespaceComparator.compareNamespace(dev, prod, config);
+        ObjectComparison web = result.getObjectComparisons().get("Deployment.apps/web");
+        
+        // metadata.name and spec.replicas subtrees are equal, only the template is compared
+        assertEquals(1, web.getItems().size());
+        assertEquals(1, web.getDifferenceCount());
+        assertEquals(2, web.getMatchCount());
+        assertTrue(result.getObjectComparisons().get("Deployment.apps/api").isFullMatch());
+    }
+    
+    @Test
+    void testMerkleTreeFollowsObjectAndConfigChanges() {
+        ValidationConfig config = config();
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.addObject(deployment("web", "dev", "nginx:1.25", "2", "uid-1"));
+        FlatObjectModel api = deployment("api", "dev", "api:2.0", "2", "uid-2");
+        dev.addObject(api);
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.addObject(deployment("web", "prod", "nginx:1.25", "2", "uid-3"));
+        prod.addObject(deployment("api", "prod", "api:2.0", "2", "uid-4"));
+        assertEquals(2, NamespaceComparator.compareNamespace(dev, prod, config).getSummary().getMatchedObjects());
+        
+        // An object changed in place is no longer covered by the cached kind hash
+        api.addSpec("replicas", "3");
+        NamespaceComparison changed = NamespaceComparator.compareNamespace(dev, prod, config);
+        assertFalse(changed.getObjectComparisons().get("Deployment.apps/api").isFullMatch());
+        assertEquals(1, changed.getSummary().getMatchedObjects());
+        
+        // The same config instance, now ignoring the changed field
+        config.addIgnoreField("spec.replicas");
+        assertEquals(2, NamespaceComparator.compareNamespace(dev, prod, config).getSummary().getMatchedObjects());
+    }
+    
+    @Test
+    void testMerkleTreeRoundTrip(@TempDir Path dir) throws Exception {
+        ValidationConfig config = config();
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.addObject(deployment("web", "dev", "nginx:1.25", "2", "uid-1"));
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.addObject(deployment("web", "prod", "nginx:1.25", "2", "uid-2"));
+        
+        File file = dir.resolve("dev.merkle.json").toFile();
+        dev.getMerkleTree(config).writeTo(file);
+        
+        assertTrue(NamespaceMerkleTree.readFrom(file).matches(prod.getMerkleTree(config)));
+    }
+}
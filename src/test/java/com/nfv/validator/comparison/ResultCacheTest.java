@@ -0,0 +1,136 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.ValueNormalizer;
+import com.nfv.validator.model.comparison.KeyComparison;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.nfv.validator.comparison.TestObjects.deployment;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+    
+    private static FlatNamespaceModel namespace(String name, String changedImage) {
+        FlatNamespaceModel model = new FlatNamespaceModel();
+        model.setName(name);
+        for (int i = 0; i < 30; i++) {
+            String image = i % 3 == 0 ? changedImage : "nginx:1.25";
+            model.addObject(deployment("web-" + i, null, image, "2", name + "-" + i));
+        }
+        return model;
+    }
+    
+    private static List<Path> entries(Path dir) throws Exception {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(f -> f.toString().endsWith(".cmp")).collect(Collectors.toList());
+        }
+    }
+    
+    @Test
+    void testUnchangedPairsAreServedFromCache(@TempDir Path dir) throws Exception {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreField("metadata.uid");
+        FlatNamespaceModel baseline = namespace("baseline", "nginx:1.25");
+        FlatNamespaceModel site = namespace("site", "nginx:1.26");
+        
+        ComparisonOptions options = new ComparisonOptions();
+        options.setResultCache(new ResultCache(dir, ResultCache.DEFAULT_MAX_BYTES, ResultCache.DEFAULT_MAX_AGE));
+        NamespaceComparison first = NamespaceComparator.compareNamespace(baseline, site, config, options);
+        assertEquals(0, options.getResultCache().getHitCount());
+        assertEquals(10, options.getResultCache().getMissCount());
+        assertEquals(10, entries(dir).size());
+        
+        // A later run (new cache instance on the same directory) reuses every differing pair
+        options.setResultCache(new ResultCache(dir, ResultCache.DEFAULT_MAX_BYTES, ResultCache.DEFAULT_MAX_AGE));
+        NamespaceComparison second = NamespaceComparator.compareNamespace(baseline, site, config, options);
+        assertEquals(10, options.getResultCache().getHitCount());
+        assertEquals(0, options.getResultCache().getMissCount());
+        assertEquals(first.getObjectComparisons(), second.getObjectComparisons());
+        assertEquals(first.getSummary(), second.getSummary());
+        
+        // Another config or result mode does not see those entries
+        config.addIgnoreField("spec.paused");
+        ComparisonOptions sparse = ComparisonOptions.sparseResults();
+        sparse.setResultCache(options.getResultCache());
+        NamespaceComparator.compareNamespace(baseline, site, config, options);
+        NamespaceComparator.compareNamespace(baseline, site, config, sparse);
+        assertEquals(10, options.getResultCache().getHitCount());
+        assertEquals(20, options.getResultCache().getMissCount());
+    }
+    
+    @Test
+    void testEntriesFollowStoredValues(@TempDir Path dir) throws Exception {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreField("metadata.uid");
+        config.addNormalizeRule("", "spec.memory", ValueNormalizer.Type.QUANTITY);
+        FlatNamespaceModel baseline = namespace("baseline", "nginx:1.25");
+        FlatNamespaceModel gib = namespace("site", "nginx:1.26");
+        FlatNamespaceModel mib = namespace("site", "nginx:1.26");
+        for (FlatObjectModel obj : baseline.getObjects().values()) {
+            obj.addSpec("memory", "2Gi");
+        }
+        for (FlatObjectModel obj : gib.getObjects().values()) {
+            obj.addSpec("memory", "1Gi");
+        }
+        for (FlatObjectModel obj : mib.getObjects().values()) {
+            obj.addSpec("memory", "1024Mi");
+        }
+        
+        ComparisonOptions options = new ComparisonOptions();
+        options.setResultCache(new ResultCache(dir, ResultCache.DEFAULT_MAX_BYTES, ResultCache.DEFAULT_MAX_AGE));
+        NamespaceComparator.compareNamespace(baseline, gib, config, options);
+        
+        // Same canonical values, other spelling: a miss, and the result shows the current spelling
+        NamespaceComparison result = NamespaceComparator.compareNamespace(baseline, mib, config, options);
+        assertEquals(0, options.getResultCache().getHitCount());
+        KeyComparison memory = result.getObjectComparisons().get("Deployment.apps/web-1").getItems().stream()
+                .filter(item -> item.getKey().equals("spec.memory"))
+                .findFirst().orElseThrow();
+        assertEquals("1024Mi", memory.getRightValue());
+    }
+    
+    @Test
+    void testEvictionByAgeAndSize(@TempDir Path dir) throws Exception {
+        ValidationConfig config = new ValidationConfig();
+        ComparisonOptions options = new ComparisonOptions();
+        options.setResultCache(new ResultCache(dir, ResultCache.DEFAULT_MAX_BYTES, Duration.ofDays(7)));
+        NamespaceComparator.compareNamespace(namespace("a", "nginx:1.25"), namespace("b", "nginx:1.26"), config, options);
+        List<Path> entries = entries(dir);
+        assertEquals(30, entries.size());
+        long total = 0;
+        for (Path entry : entries) {
+            total += Files.size(entry);
+        }
+        
+        // Over budget: least recently used entries go first, down to 90% of the budget
+        Path recent = entries.get(0);
+        Instant now = Instant.now();
+        for (int i = 0; i < entries.size(); i++) {
+            Files.setLastModifiedTime(entries.get(i), FileTime.from(now.minusSeconds(entries.get(i) == recent ? 0 : 60 + i)));
+        }
+        long remaining = new ResultCache(dir, total / 2, Duration.ofDays(7)).evict();
+        assertTrue(remaining <= total / 2 * 0.9);
+        assertTrue(remaining > 0);
+        assertTrue(Files.exists(recent));
+        
+        // Entries unused for longer than the maximum age are dropped
+        for (Path entry : entries(dir)) {
+            Files.setLastModifiedTime(entry, FileTime.from(now.minus(Duration.ofDays(8))));
+        }
+        new ResultCache(dir, ResultCache.DEFAULT_MAX_BYTES, Duration.ofDays(7));
+        assertTrue(entries(dir).isEmpty());
+    }
+}
@@ -0,0 +1,78 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.nfv.validator.comparison.TestObjects.workload;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedComparatorTest {
+    
+    private static FlatNamespaceModel namespace(String name, int skip, String changedImage) {
+        FlatNamespaceModel model = new FlatNamespaceModel();
+        model.setName(name);
+        for (int i = 0; i < 60; i++) {
+            if (i % skip != 0) {
+                String kind = i % 2 == 0 ? "Deployment" : "StatefulSet";
+                String image = i % 4 == 1 ? changedImage : "nginx:1.25";
+                model.addObject(workload(kind, "app-" + i, null, image, "2", name + "-" + i));
+            }
+        }
+        return model;
+    }
+    
+    @Test
+    void testMergedShardsMatchUnshardedComparison(@TempDir Path dir) throws Exception {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreField("metadata.uid");
+        FlatNamespaceModel baseline = namespace("baseline", 7, "nginx:1.25");
+        FlatNamespaceModel site1 = namespace("site1", 5, "nginx:1.26");
+        FlatNamespaceModel site2 = namespace("site2", 11, "nginx:1.25");
+        List<FlatNamespaceModel[]> pairs = Arrays.asList(
+                new FlatNamespaceModel[] {baseline, site1},
+                new FlatNamespaceModel[] {baseline, site2});
+        ComparisonOptions options = ComparisonOptions.sparseResults();
+        
+        ShardedComparator sharded = new ShardedComparator(dir, 3);
+        sharded.prepare(pairs, config, options);
+        assertThrows(IOException.class, sharded::merge);
+        for (int shard = 0; shard < 3; shard++) {
+            ShardWorker.run(dir, shard);
+        }
+        List<NamespaceComparison> merged = sharded.merge();
+        
+        assertEquals(2, merged.size());
+        for (int p = 0; p < pairs.size(); p++) {
+            NamespaceComparison expected = NamespaceComparator.compareNamespace(
+                    pairs.get(p)[0], pairs.get(p)[1], config, options);
+            NamespaceComparison actual = merged.get(p);
+            assertEquals(expected.getLeftNamespace(), actual.getLeftNamespace());
+            assertEquals(expected.getRightNamespace(), actual.getRightNamespace());
+            assertEquals(expected.getSummary(), actual.getSummary());
+            assertEquals(expected.getObjectComparisons(), actual.getObjectComparisons());
+            assertEquals(new ArrayList<>(expected.getObjectComparisons().keySet()),
+                    new ArrayList<>(actual.getObjectComparisons().keySet()));
+        }
+        
+        sharded.cleanup();
+        assertEquals(0, dir.toFile().list().length);
+    }
+    
+    @Test
+    void testShardOfIsStable() {
+        for (int i = 0; i < 100; i++) {
+            int shard = ShardedComparator.shardOf("Deployment.apps/app-" + i, 4);
+            assertTrue(shard >= 0 && shard < 4);
+            assertEquals(shard, ShardedComparator.shardOf("Deployment.apps/app-" + i, 4));
+        }
+    }
+}
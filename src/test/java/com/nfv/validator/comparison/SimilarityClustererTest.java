@@ -0,0 +1,80 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.comparison.FleetSimilarity;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilarityClustererTest {
+    
+    /**
+     * Namespace of 50 deployments of one application family; the variant changes one image
+     */
+    private static FlatNamespaceModel namespace(String name, String family, int variant) {
+        FlatNamespaceModel model = new FlatNamespaceModel();
+        model.setName(name);
+        model.setClusterName("cluster");
+        for (int i = 0; i < 50; i++) {
+            FlatObjectModel obj = new FlatObjectModel();
+            obj.setKind("Deployment");
+            obj.setApiVersion("apps/v1");
+            obj.setName(family + "-" + i);
+            obj.addMetadata("name", family + "-" + i);
+            obj.addSpec("replicas", String.valueOf(i % 3 + 1));
+            obj.addSpec("template.spec.containers[0].image", family + ":" + (i == 0 ? variant : 1));
+            obj.addSpec("template.spec.containers[0].name", family);
+            model.addObject(obj);
+        }
+        return model;
+    }
+    
+    @Test
+    void testSimilarNamespacesAreGroupedAndOutliersFound() {
+        List<FlatNamespaceModel> fleet = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            fleet.add(namespace("core-" + i, "core", i % 2));
+            fleet.add(namespace("edge-" + i, "edge", i % 2));
+        }
+        fleet.add(namespace("lab", "lab", 0));
+        fleet.add(namespace("legacy", "legacy", 0));
+        
+        FleetSimilarity similarity = SimilarityClusterer.cluster(fleet, new ValidationConfig(), 0.8);
+        
+        List<FleetSimilarity.Group> clusters = similarity.getClusters();
+        assertEquals(2, clusters.size());
+        assertEquals(Arrays.asList(0, 2, 4, 6, 8), clusters.get(0).getMembers().get(0) == 0
+                ? clusters.get(0).getMembers() : clusters.get(1).getMembers());
+        assertEquals(Arrays.asList(10, 11), similarity.getOutliers());
+        assertTrue(similarity.similarity(0, 2) > 0.9);
+        assertTrue(similarity.similarity(0, 1) < 0.1);
+        
+        // 4 members per cluster against their representative, plus one pair per outlier
+        List<int[]> pairs = similarity.getComparisonPairs();
+        assertEquals(10, pairs.size());
+        for (int[] pair : pairs.subList(0, 8)) {
+            assertEquals(pair[0] % 2, pair[1] % 2);
+        }
+    }
+    
+    @Test
+    void testBucketMembersAfterTheFirstAreCandidates() {
+        // All three share the first band; the first member is the dissimilar one
+        long[][] signatures = {
+                {1, 1, 1, 1, 9, 9, 9, 9},
+                {1, 1, 1, 1, 2, 2, 2, 2},
+                {1, 1, 1, 1, 2, 2, 2, 3}};
+        
+        int[] parent = SimilarityClusterer.link(signatures, 0.8);
+        
+        assertEquals(0, parent[0]);
+        assertEquals(parent[1], parent[2]);
+        assertNotEquals(parent[0], parent[1]);
+    }
+}
@@ -0,0 +1,68 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import com.nfv.validator.model.comparison.ObjectComparison;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.HashSet;
+
+import static com.nfv.validator.comparison.TestObjects.deployment;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillComparatorTest {
+    
+    @Test
+    void testSpilledComparisonMatchesInMemory(@TempDir Path dir) throws Exception {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreField("metadata.uid");
+        FlatNamespaceModel dev = new FlatNamespaceModel();
+        dev.setName("dev");
+        FlatNamespaceModel prod = new FlatNamespaceModel();
+        prod.setName("prod");
+        for (int i = 0; i < 100; i++) {
+            if (i % 7 != 0) {
+                dev.addObject(deployment("web-" + i, "dev", "nginx:1.25", "2", "uid-" + i));
+            }
+            if (i % 10 != 0) {
+                String image = i % 3 == 0 ? "nginx:1.26" : "nginx:1.25";
+                FlatObjectModel obj = deployment("web-" + i, "prod", image, "2", "uid-p" + i);
+                if (i % 4 == 0) {
+                    obj.addSpec("paused", "true");
+                }
+                prod.addObject(obj);
+            }
+        }
+        
+        // A tiny budget forces many runs per namespace
+        SpillComparator spillComparator = new SpillComparator(dir, 2048);
+        ComparisonOptions options = ComparisonOptions.sparseResults();
+        NamespaceComparison expected = NamespaceComparator.compareNamespace(dev, prod, config, options);
+        NamespaceComparison actual;
+        try (SpillComparator.SpilledNamespace left = spillComparator.spill(dev, config);
+             SpillComparator.SpilledNamespace right = spillComparator.spill(prod, config)) {
+            assertTrue(left.getRunCount() > 1);
+            actual = spillComparator.compare(left, right, options);
+        }
+        
+        assertEquals(expected.getSummary(), actual.getSummary());
+        assertEquals(expected.getObjectComparisons().keySet(), actual.getObjectComparisons().keySet());
+        for (String objectId : expected.getObjectComparisons().keySet()) {
+            ObjectComparison e = expected.getObjectComparisons().get(objectId);
+            ObjectComparison a = actual.getObjectComparisons().get(objectId);
+            assertEquals(new HashSet<>(e.getDifferences()), new HashSet<>(a.getDifferences()), objectId);
+            assertEquals(e.getMatchCount(), a.getMatchCount(), objectId);
+            assertEquals(e.getObjectType(), a.getObjectType());
+        }
+        
+        // Run files are removed once the spilled namespaces are closed
+        File[] remaining = dir.toFile().listFiles();
+        assertNotNull(remaining);
+        assertEquals(0, remaining.length);
+    }
+}
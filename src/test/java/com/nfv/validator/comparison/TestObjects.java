@@ -0,0 +1,50 @@
+package com.nfv.validator.comparison;
+
+import com.nfv.validator.model.FlatObjectModel;
+
+/**
+ * Object factories shared by the comparator tests
+ */
+final class TestObjects {
+    
+    private TestObjects() {
+    }
+    
+    /**
+     * Deployment with a name, a replica count and one container image
+     *
+     * @param namespace namespace of the object (null = none)
+     */
+    static FlatObjectModel deployment(String name, String namespace, String image, String replicas) {
+        return workload("Deployment", name, namespace, image, replicas, null);
+    }
+    
+    /**
+     * Deployment that also carries a metadata.uid field
+     */
+    static FlatObjectModel deployment(String name, String namespace, String image, String replicas, String uid) {
+        return workload("Deployment", name, namespace, image, replicas, uid);
+    }
+    
+    /**
+     * Workload of any apps/v1 kind
+     *
+     * @param namespace namespace of the object (null = none)
+     * @param uid metadata.uid value (null = no uid field)
+     */
+    static FlatObjectModel workload(String kind, String name, String namespace, String image, String replicas,
+                                    String uid) {
+        FlatObjectModel obj = new FlatObjectModel();
+        obj.setKind(kind);
+        obj.setApiVersion("apps/v1");
+        obj.setName(name);
+        obj.setNamespace(namespace);
+        obj.addMetadata("name", name);
+        if (uid != null) {
+            obj.addMetadata("uid", uid);
+        }
+        obj.addSpec("replicas", replicas);
+        obj.addSpec("template.spec.containers[0].image", image);
+        return obj;
+    }
+}
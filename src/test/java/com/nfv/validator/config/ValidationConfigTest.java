@@ -0,0 +1,56 @@
+package com.nfv.validator.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationConfigTest {
+    
+    @Test
+    void testIgnoreFieldsUsePrefixSemantics() {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreField("status");
+        config.addIgnoreField("metadata.annotations.kubectl");
+        
+        assertTrue(config.shouldIgnore("status"));
+        assertTrue(config.shouldIgnore("status.replicas"));
+        assertTrue(config.shouldIgnore("status.conditions[0].type"));
+        assertTrue(config.shouldIgnore("metadata.annotations.kubectl.kubernetes.io/last-applied-configuration"));
+        assertFalse(config.shouldIgnore("statusCode"));
+        assertFalse(config.shouldIgnore("metadata.annotations.kubectlx"));
+        assertFalse(config.shouldIgnore("spec.replicas"));
+    }
+    
+    @Test
+    void testIgnoreRulesAreScopedByKindAndSupportWildcards() {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreRule("Deployment", "spec.template.spec.containers[*].image");
+        config.addIgnoreRule("", "metadata.labels.*");
+        config.addIgnoreRule("Service", "spec.ports.*.nodePort");
+        
+        assertTrue(config.shouldIgnore("Deployment", "spec.template.spec.containers[1].image"));
+        assertFalse(config.shouldIgnore("Deployment", "spec.template.spec.containers[1].name"));
+        assertFalse(config.shouldIgnore("StatefulSet", "spec.template.spec.containers[1].image"));
+        
+        assertTrue(config.shouldIgnore("Service", "metadata.labels.app"));
+        assertFalse(config.shouldIgnore("Service", "metadata.labels"));
+        assertTrue(config.shouldIgnore("Service", "spec.ports.http.nodePort"));
+        assertFalse(config.shouldIgnore("Service", "spec.ports.http.port"));
+    }
+    
+    @Test
+    void testMatcherReportsUnreachableSubtrees() {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreField("spec.template.spec.securityContext");
+        IgnoreMatcher matcher = config.getIgnoreMatcher();
+        
+        assertEquals(IgnoreMatcher.Match.PARTIAL, matcher.match(null, "spec.template"));
+        assertEquals(IgnoreMatcher.Match.NONE, matcher.match(null, "spec.replicas"));
+        assertEquals(IgnoreMatcher.Match.IGNORED, matcher.match(null, "spec.template.spec.securityContext.runAsUser"));
+        
+        // Changing the configuration recompiles the matcher
+        config.addIgnoreField("spec.replicas");
+        assertNotSame(matcher, config.getIgnoreMatcher());
+        assertTrue(config.shouldIgnore("spec.replicas"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.nfv.validator.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatNamespaceModelTest {
+
+    private static FlatObjectModel object(String apiVersion, String kind, String name) {
+        FlatObjectModel obj = new FlatObjectModel();
+        obj.setApiVersion(apiVersion);
+        obj.setKind(kind);
+        obj.setName(name);
+        return obj;
+    }
+
+    @Test
+    void testObjectKeyIncludesKindAndGroup() {
+        assertEquals("Deployment.apps/nginx", FlatNamespaceModel.objectKey("apps/v1", "Deployment", "nginx"));
+        assertEquals("Service/nginx", FlatNamespaceModel.objectKey("v1", "Service", "nginx"));
+        assertEquals("ConfigMap/cfg", FlatNamespaceModel.objectKey(null, "ConfigMap", "cfg"));
+    }
+
+    @Test
+    void testSameNameDifferentKindsDoNotCollide() {
+        FlatNamespaceModel model = new FlatNamespaceModel();
+        model.addObject(object("apps/v1", "Deployment", "nginx"));
+        model.addObject(object("v1", "Service", "nginx"));
+
+        assertEquals(2, model.getObjects().size());
+        assertEquals("Deployment", model.getObject("Deployment.apps/nginx").getKind());
+        assertEquals("Service", model.getObject("Service/nginx").getKind());
+    }
+
+    @Test
+    void testKindIndexIsMaintained() {
+        FlatNamespaceModel model = new FlatNamespaceModel();
+        model.addObject(object("apps/v1", "Deployment", "a"));
+        model.addObject(object("apps/v1", "Deployment", "b"));
+        model.addObject(object("v1", "Service", "a"));
+
+        assertEquals(2, model.getObjectsByKind("Deployment").size());
+        assertEquals(1, model.getObjectsByKind("Service").size());
+        assertTrue(model.getObjectsByKind("Secret").isEmpty());
+
+        model.removeObject("Deployment.apps/a");
+        assertEquals(1, model.getObjectsByKind("Deployment").size());
+
+        model.removeObject("Service/a");
+        assertFalse(model.getKinds().contains("Service"));
+    }
+
+    @Test
+    void testSetObjectsRebuildsIndex() {
+        FlatNamespaceModel source = new FlatNamespaceModel();
+        source.addObject(object("apps/v1", "StatefulSet", "db"));
+
+        FlatNamespaceModel copy = new FlatNamespaceModel("copy", "cluster", source.getObjects());
+        assertEquals(1, copy.getObjectsByKind("StatefulSet").size());
+        assertThrows(UnsupportedOperationException.class,
+                () -> copy.getObjects().put("x", object("v1", "Service", "x")));
+    }
+}
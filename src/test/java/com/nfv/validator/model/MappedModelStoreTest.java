@@ -0,0 +1,87 @@
+package com.nfv.validator.model;
+
+import com.nfv.validator.comparison.NamespaceComparator;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedModelStoreTest {
+    
+    private static FlatNamespaceModel namespace(String name, String image) {
+        FlatNamespaceModel model = new FlatNamespaceModel();
+        model.setName(name);
+        model.setClusterName("cluster");
+        
+        FlatObjectModel deployment = new FlatObjectModel();
+        deployment.setApiVersion("apps/v1");
+        deployment.setKind("Deployment");
+        deployment.setName("web");
+        deployment.setNamespace(name);
+        deployment.addMetadata("labels.app", "web");
+        deployment.addSpec("template.spec.containers[0].image", image);
+        model.addObject(deployment);
+        
+        FlatObjectModel service = new FlatObjectModel();
+        service.setApiVersion("v1");
+        service.setKind("Service");
+        service.setName("web");
+        service.setNamespace(name);
+        service.addSpec("ports[0].port", "80");
+        model.addObject(service);
+        return model;
+    }
+    
+    @Test
+    void testStoredModelReadsBackThroughViews(@TempDir Path dir) throws Exception {
+        FlatNamespaceModel original = namespace("app", "nginx:1.25");
+        try (MappedModelStore store = MappedModelStore.createTemporary(dir)) {
+            FlatNamespaceModel view = store.store(original);
+            
+            assertEquals("app", view.getName());
+            assertEquals(original.getKinds(), view.getKinds());
+            assertEquals(original.getObjects().keySet(), view.getObjects().keySet());
+            assertEquals(original.getObject("Deployment.apps/web").getAllFields(),
+                    view.getObject("Deployment.apps/web").getAllFields());
+            assertEquals(original.getMerkleTree(null).getRoot(), view.getMerkleTree(null).getRoot());
+            assertThrows(UnsupportedOperationException.class, () -> view.removeObject("Service/web"));
+        }
+    }
+    
+    @Test
+    void testIdenticalObjectsAreStoredOnce(@TempDir Path dir) throws Exception {
+        try (MappedModelStore store = MappedModelStore.createTemporary(dir)) {
+            FlatNamespaceModel left = store.store(namespace("app", "nginx:1.25"));
+            long size = store.size();
+            FlatNamespaceModel right = store.store(namespace("app2", "nginx:1.26"));
+            
+            // Only the changed Deployment is appended; the Service differs only by namespace and is shared
+            assertTrue(store.size() - size < size);
+            assertEquals("app", left.getObject("Service/web").getNamespace());
+            assertEquals("app2", right.getObject("Service/web").getNamespace());
+            assertSame(right.getObjects(), right.getObjects());
+            
+            NamespaceComparison result = NamespaceComparator.compareNamespace(left, right, null);
+            assertEquals(1, result.getObjectComparisons().get("Deployment.apps/web").getDifferenceCount());
+            assertEquals(0, result.getObjectComparisons().get("Service/web").getDifferenceCount());
+        }
+    }
+    
+    @Test
+    void testRecordsAreSharedWithinOneNamespace(@TempDir Path dir) throws Exception {
+        FlatNamespaceModel model = namespace("app", "nginx:1.25");
+        model.addObject("Service/web-copy", model.getObject("Service/web"));
+        try (MappedModelStore single = MappedModelStore.createTemporary(dir);
+             MappedModelStore shared = MappedModelStore.createTemporary(dir)) {
+            single.store(namespace("app", "nginx:1.25"));
+            FlatNamespaceModel view = shared.store(model);
+            
+            // The copy matches a record written earlier in the same call, before it was mapped
+            assertEquals(single.size(), shared.size());
+            assertEquals(view.getObject("Service/web").getAllFields(), view.getObject("Service/web-copy").getAllFields());
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.nfv.validator.yaml;
+
+import com.nfv.validator.comparison.ComparisonOptions;
+import com.nfv.validator.comparison.MultiNamespaceComparator;
+import com.nfv.validator.comparison.NamespaceComparator;
+import com.nfv.validator.comparison.SpillComparator;
+import com.nfv.validator.config.ValidationConfig;
+import com.nfv.validator.model.FieldNode;
+import com.nfv.validator.model.FlatNamespaceModel;
+import com.nfv.validator.model.FlatObjectModel;
+import com.nfv.validator.model.LargeValues;
+import com.nfv.validator.model.ModelInterner;
+import com.nfv.validator.model.ValueNormalizer;
+import com.nfv.validator.model.comparison.KeyComparison;
+import com.nfv.validator.model.comparison.MultiNamespaceComparison;
+import com.nfv.validator.model.comparison.NamespaceComparison;
+import com.nfv.validator.model.comparison.ObjectComparison;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YamlDataCollectorTest {
+    
+    private static final String DEPLOYMENT =
+            "apiVersion: apps/v1\n" +
+            "kind: Deployment\n" +
+            "metadata:\n" +
+            "  name: web\n" +
+            "  labels:\n" +
+            "    app.kubernetes.io/name: web\n" +
+            "  annotations:\n" +
+            "    kubectl.kubernetes.io/last-applied-configuration: '%s'\n" +
+            "spec:\n" +
+            "  replicas: %d\n" +
+            "  template:\n" +
+            "    spec:\n" +
+            "      securityContext:\n" +
+            "        runAsUser: %d\n" +
+            "      containers:\n" +
+            "        - name: web\n" +
+            "          image: %s\n" +
+            "          ports:\n" +
+            "            - containerPort: 8080\n";
+    
+    private static ValidationConfig config() {
+        ValidationConfig config = new ValidationConfig();
+        config.addIgnoreField("metadata.annotations.kubectl");
+        config.addIgnoreField("spec.template.spec.securityContext");
+        return config;
+    }
+    
+    private static FlatNamespaceModel load(Path dir, String name, int replicas, int user, String image,
+                                           ValidationConfig config) throws Exception {
+        return load(dir, name, replicas, user, image, new YamlDataCollector(config));
+    }
+    
+    private static FlatNamespaceModel load(Path dir, String name, int replicas, int user, String image,
+                                           YamlDataCollector collector) throws Exception {
+        Path file = dir.resolve(name + ".yaml");
+        Files.write(file, String.format(DEPLOYMENT, name, replicas, user, image).getBytes());
+        return collector.collectFromYaml(file.toString(), name);
+    }
+    
+    private static Map<String, String> leaves(String path, FieldNode node, Map<String, String> out) {
+        if (node.isLeaf()) {
+            out.put(path, node.getValue());
+        } else {
+            node.getChildren().forEach((segment, child) -> leaves(FieldNode.childPath(path, segment), child, out));
+        }
+        return out;
+    }
+    
+    @Test
+    void testFieldTreeMatchesFlattenedFields(@TempDir Path dir) throws Exception {
+        ValidationConfig config = config();
+        FlatObjectModel obj = load(dir, "a", 2, 1000, "nginx:1.25", config).getObject("Deployment.apps/web");
+        
+        assertNotNull(obj.getFieldTree());
+        assertEquals(new TreeMap<>(obj.getAllFields()), leaves("", obj.getFieldTree(), new TreeMap<>()));
+        assertEquals(new TreeMap<>(obj.getAllFieldsFiltered(config)),
+                leaves("", obj.getFilteredFieldTree(config), new TreeMap<>()));
+        
+        // Label keys with dots stay a single segment
+        assertEquals("web", obj.getFieldTree().getChild("metadata").getChild("labels")
+                .getChild("app.kubernetes.io/name").getValue());
+    }
+    
+    @Test
+    void testIgnoredFieldsAreNotCollected(@TempDir Path dir) throws Exception {
+        ValidationConfig config = config();
+        FlatObjectModel obj = obj(load(dir, "a", 2, 1000, "nginx:1.25", config));
+        
+        assertTrue(obj.isPrefiltered(config));
+        assertFalse(obj.getMetadata().containsKey("annotations.kubectl.kubernetes.io/last-applied-configuration"));
+        assertFalse(obj.getSpec().containsKey("template.spec.securityContext.runAsUser"));
+        assertEquals("nginx:1.25", obj.getSpec().get("template.spec.containers[0].image"));
+        assertSame(obj.getFieldTree(), obj.getFilteredFieldTree(config));
+        
+        // A different config filters again
+        ValidationConfig other = new ValidationConfig();
+        other.addIgnoreField("spec.replicas");
+        assertFalse(obj.isPrefiltered(other));
+        assertFalse(obj.getAllFieldsFiltered(other).containsKey("spec.replicas"));
+        
+        // Unfiltered collection keeps every field
+        FlatObjectModel full = obj(load(dir, "b", 2, 1000, "nginx:1.25", new YamlDataCollector(config, false)));
+        assertFalse(full.isPrefiltered(config));
+        assertEquals("1000", full.getSpec().get("template.spec.securityContext.runAsUser"));
+        assertEquals(obj.getFingerprint(config), full.getFingerprint(config));
+    }
+    
+    @Test
+    void testPruningSharesUntouchedSubtrees(@TempDir Path dir) throws Exception {
+        ValidationConfig config = config();
+        FlatObjectModel obj = load(dir, "a", 2, 1000, "nginx:1.25", new YamlDataCollector(config, false))
+                .getObject("Deployment.apps/web");
+        
+        FieldNode full = obj.getFieldTree();
+        FieldNode pruned = obj.getFilteredFieldTree(config);
+        
+        assertNotSame(full, pruned);
+        assertNull(pruned.getChild("metadata").getChild("annotations")
+                .getChild("kubectl.kubernetes.io/last-applied-configuration"));
+        assertSame(full.getChild("metadata").getChild("labels"), pruned.getChild("metadata").getChild("labels"));
+        assertSame(full.getChild("spec").getChild("replicas"), pruned.getChild("spec").getChild("replicas"));
+    }
+    
+    @Test
+    void testTreeComparisonReportsOnlyRealDifferences(@TempDir Path dir) throws Exception {
+        ValidationConfig config = config();
+        FlatNamespaceModel left = load(dir, "left", 2, 1000, "nginx:1.25", config);
+        FlatNamespaceModel right = load(dir, "right", 3, 2000, "nginx:1.25", config);
+        
+        NamespaceComparison result = NamespaceComparator.compareNamespace(left, right, config);
+        ObjectComparison web = result.getObjectComparisons().get("Deployment.apps/web");
+        
+        assertEquals(1, web.getDifferenceCount());
+        KeyComparison diff = web.getDifferences().get(0);
+        assertEquals("spec.replicas", diff.getKey());
+        assertEquals("2", diff.getLeftValue());
+        assertEquals("3", diff.getRightValue());
+        assertEquals(obj(left).getFilteredFieldCount(config) - 1, web.getMatchCount());
+    }
+    
+    @Test
+    void testLargeValuesAreReplacedByDigest(@TempDir Path dir) throws Exception {
+        ValidationConfig config = config();
+        config.setLargeValueThreshold(100);
+        String large = new String(new char[500]).replace('\0', 'x');
+        
+        FlatNamespaceModel left = load(dir, "left", 2, 1000, large, config);
+        FlatNamespaceModel right = load(dir, "right", 2, 1000, large + "y", config);
+        
+        String image = obj(left).getSpec().get("template.spec.containers[0].image");
+        assertTrue(LargeValues.isReference(image));
+        assertTrue(image.length() < 200);
+        assertFalse(image.contains(large));
+        assertTrue(LargeValues.display(image).contains("[500 chars, sha256:"));
+        
+        ObjectComparison web = NamespaceComparator.compareNamespace(left, right, config)
+                .getObjectComparisons().get("Deployment.apps/web");
+        assertEquals(1, web.getDifferenceCount());
+        assertEquals("spec.template.spec.containers[0].image", web.getDifferences().get(0).getKey());
+    }
+    
+    @Test
+    void testIdenticalObjectsShareContent(@TempDir Path dir) throws Exception {
+        ValidationConfig config = config();
+        ModelInterner interner = new ModelInterner();
+        FlatObjectModel a = obj(load(Files.createDirectory(dir.resolve("site1")), "web", 2, 1000, "nginx:1.25",
+                new YamlDataCollector(config, true, interner)));
+        FlatObjectModel b = obj(load(Files.createDirectory(dir.resolve("site2")), "web", 2, 1000, "nginx:1.25",
+                new YamlDataCollector(config, true, interner)));
+        FlatObjectModel c = obj(load(Files.createDirectory(dir.resolve("site3")), "web", 2, 1000, "nginx:1.26",
+                new YamlDataCollector(config, true, interner)));
+        
+        assertTrue(a.sharesContentWith(b));
+        assertSame(a.getSpec(), b.getSpec());
+        assertSame(a.getFieldTree(), b.getFieldTree());
+        
+        // Only the differing subtree is held twice
+        assertFalse(a.sharesContentWith(c));
+        assertSame(a.getMetadata(), c.getMetadata());
+        assertSame(a.getFieldTree().getChild("metadata"), c.getFieldTree().getChild("metadata"));
+        assertNotSame(a.getFieldTree().getChild("spec"), c.getFieldTree().getChild("spec"));
+        
+        // Collectors of another run don't share with this one
+        FlatObjectModel d = obj(load(Files.createDirectory(dir.resolve("site4")), "web", 2, 1000, "nginx:1.25", config));
+        assertFalse(a.sharesContentWith(d));
+        assertTrue(a.getFieldTree().contentEquals(d.getFieldTree()));
+        
+        // Modifying one object copies its content first
+        b.addSpec("replicas", "5");
+        assertEquals("2", a.getSpec().get("replicas"));
+        assertEquals("5", b.getSpec().get("replicas"));
+        assertFalse(a.sharesContentWith(b));
+        assertNotEquals(a.getFingerprint(config), b.getFingerprint(config));
+    }
+    
+    @Test
+    void testEquivalentValuesAreNormalized(@TempDir Path dir) throws Exception {
+        ValidationConfig config = new ValidationConfig();
+        config.addNormalizeRule("", "spec.template.spec.containers[*].resources", ValueNormalizer.Type.QUANTITY);
+        config.addNormalizeRule("Deployment", "spec.template.spec.containers[*].ports[*].containerPort",
+                ValueNormalizer.Type.PORT);
+        config.addNormalizeRule("", "spec.paused", ValueNormalizer.Type.BOOLEAN);
+        config.addNormalizeRule("", "spec.progressDeadline", ValueNormalizer.Type.DURATION);
+        
+        String template = "apiVersion: apps/v1\n" +
+                "kind: Deployment\n" +
+                "metadata:\n" +
+                "  name: web\n" +
+                "spec:\n" +
+                "  paused: %s\n" +
+                "  progressDeadline: %s\n" +
+                "  template:\n" +
+                "    spec:\n" +
+                "      containers:\n" +
+                "        - name: web\n" +
+                "          resources:\n" +
+                "            limits: {cpu: %s, memory: %s}\n" +
+                "          ports:\n" +
+                "            - containerPort: '%s'\n";
+        Files.write(dir.resolve("left.yaml"), String.format(template, "True", "1m30s", "1000m", "1Gi", "08080").getBytes());
+        Files.write(dir.resolve("right.yaml"), String.format(template, "yes", "90s", "1", "1024Mi", "8080").getBytes());
+        
+        YamlDataCollector collector = new YamlDataCollector(config);
+        FlatNamespaceModel left = collector.collectFromYaml(dir.resolve("left.yaml").toString(), "left");
+        FlatNamespaceModel right = collector.collectFromYaml(dir.resolve("right.yaml").toString(), "right");
+        
+        // Values are stored as written, for reports and exports
+        Map<String, String> spec = obj(left).getSpec();
+        assertEquals("1000m", spec.get("template.spec.containers[0].resources.limits.cpu"));
+        assertEquals("1Gi", spec.get("template.spec.containers[0].resources.limits.memory"));
+        assertEquals("08080", spec.get("template.spec.containers[0].ports[0].containerPort"));
+        assertEquals("1m30s", spec.get("progressDeadline"));
+        assertEquals("web", spec.get("template.spec.containers[0].name"));
+        assertEquals(obj(left).getFingerprint(config), obj(right).getFingerprint(config));
+        
+        NamespaceComparison result = NamespaceComparator.compareNamespace(left, right, config);
+        assertTrue(result.getObjectComparisons().get("Deployment.apps/web").isFullMatch());
+        
+        // A real difference is reported with the values as written; equivalent spellings still match
+        Files.write(dir.resolve("other.yaml"), String.format(template, "yes", "90s", "1", "2Gi", "8080").getBytes());
+        FlatNamespaceModel other = collector.collectFromYaml(dir.resolve("other.yaml").toString(), "other");
+        for (int pass = 0; pass < 2; pass++) {
+            ObjectComparison web = NamespaceComparator.compareNamespace(left, other, config)
+                    .getObjectComparisons().get("Deployment.apps/web");
+            assertEquals(1, web.getDifferenceCount());
+            KeyComparison memory = web.getDifferences().get(0);
+            assertEquals("spec.template.spec.containers[0].resources.limits.memory", memory.getKey());
+            assertEquals("1Gi", memory.getLeftValue());
+            assertEquals("2Gi", memory.getRightValue());
+            
+            // Second pass without field trees, through the sorted flat fields
+            obj(left).setFieldTree(null);
+            obj(other).setFieldTree(null);
+        }
+        
+        // The spill and N-way comparisons match by canonical value as well
+        assertTrue(new SpillComparator(dir.resolve("runs"), SpillComparator.DEFAULT_MEMORY_BUDGET)
+                .compare(left, right, config, new ComparisonOptions())
+                .getObjectComparisons().get("Deployment.apps/web").isFullMatch());
+        MultiNamespaceComparison.ObjectRow row = MultiNamespaceComparator
+                .compare(Arrays.asList(left, right, other), config).getObjects().get("Deployment.apps/web");
+        assertEquals(1, row.getFields().size());
+        assertArrayEquals(new int[] {0, 0, 1}, row.getFields().get(0).getGroups());
+        assertEquals("0.5s", ValueNormalizer.canonical(ValueNormalizer.Type.DURATION, "500ms"));
+        assertEquals("3600s", ValueNormalizer.canonical(ValueNormalizer.Type.DURATION, "1h"));
+    }
+    
+    @Test
+    void testListsAreMatchedByMergeKey(@TempDir Path dir) throws Exception {
+        ValidationConfig config = new ValidationConfig();
+        config.addListKey("containers", "name");
+        config.addListKey("env", "name");
+        config.addListKey("ports", "name");
+        config.addListKey("ports", "containerPort");
+        
+        String template = "apiVersion: apps/v1\n" +
+                "kind: Deployment\n" +
+                "metadata:\n" +
+                "  name: web\n" +
+                "spec:\n" +
+                "  template:\n" +
+                "    spec:\n" +
+                "      containers:\n" +
+                "        - name: web\n" +
+                "          env:\n" +
+                "%s" +
+                "            - {name: B, value: '2'}\n" +
+                "            - {name: C, value: '3'}\n" +
+                "            - {name: D, value: '4'}\n" +
+                "          ports:\n" +
+                "            - containerPort: 8080\n" +
+                "            - containerPort: 9090\n" +
+                "          args: [--verbose]\n";
+        Files.write(dir.resolve("left.yaml"), String.format(template, "").getBytes());
+        Files.write(dir.resolve("right.yaml"), String.format(template, "            - {name: A, value: '1'}\n").getBytes());
+        
+        YamlDataCollector collector = new YamlDataCollector(config);
+        FlatNamespaceModel left = collector.collectFromYaml(dir.resolve("left.yaml").toString(), "left");
+        FlatNamespaceModel right = collector.collectFromYaml(dir.resolve("right.yaml").toString(), "right");
+        
+        Map<String, String> spec = obj(right).getSpec();
+        assertEquals("1", spec.get("template.spec.containers[name=web].env[name=A].value"));
+        assertEquals("3", spec.get("template.spec.containers[name=web].env[name=C].value"));
+        // ports have no names, so the second candidate key is used; args have no key at all
+        assertEquals("9090", spec.get("template.spec.containers[name=web].ports[containerPort=9090].containerPort"));
+        assertEquals("--verbose", spec.get("template.spec.containers[name=web].args[0]"));
+        
+        NamespaceComparison result = NamespaceComparator.compareNamespace(left, right, config);
+        ObjectComparison web = result.getObjectComparisons().get("Deployment.apps/web");
+        assertEquals(2, web.getDifferences().size());
+        for (KeyComparison difference : web.getDifferences()) {
+            assertTrue(difference.getKey().startsWith("spec.template.spec.containers[name=web].env[name=A]."));
+            assertNull(difference.getLeftValue());
+        }
+    }
+    
+    private static FlatObjectModel obj(FlatNamespaceModel model) {
+        return model.getObject("Deployment.apps/web");
+    }
+}